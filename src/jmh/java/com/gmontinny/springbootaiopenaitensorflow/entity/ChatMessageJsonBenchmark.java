@@ -0,0 +1,46 @@
+package com.gmontinny.springbootaiopenaitensorflow.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Serialização JSON de listas de {@link ChatMessage}, com o ObjectMapper configurado como no Spring Boot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatMessageJsonBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    private int size;
+    
+    private ObjectMapper objectMapper;
+    private List<ChatMessage> messages;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        messages = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < size; i++) {
+            messages.add(new ChatMessage((long) i,
+                "Mensagem de cliente número " + i + " sobre a entrega e a qualidade do produto recebido.",
+                "Cliente comenta a entrega e a qualidade do produto.",
+                "Obrigado pelo contato! Vamos verificar o seu pedido e retornamos em breve.",
+                i % 3 == 0 ? ChatMessage.SentimentType.NEGATIVE : ChatMessage.SentimentType.POSITIVE,
+                (i % 100) / 100.0, now.minusMinutes(i)));
+        }
+    }
+    
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+}
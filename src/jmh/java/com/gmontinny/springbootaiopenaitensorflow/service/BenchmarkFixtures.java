@@ -0,0 +1,67 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.cache.LlmResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Monta os serviços fora do Spring, com a configuração padrão e sem dependências externas. */
+final class BenchmarkFixtures {
+    
+    private BenchmarkFixtures() {
+    }
+    
+    static TensorFlowService tensorFlowService() throws IOException {
+        TensorFlowService service = new TensorFlowService();
+        // Sem SavedModel: mede o caminho do léxico, o usado quando o modelo não está instalado
+        ReflectionTestUtils.setField(service, "modelPath", "target/no-model");
+        ReflectionTestUtils.setField(service, "lexiconResource", new ClassPathResource("sentiment-lexicon.tsv"));
+        service.init();
+        return service;
+    }
+    
+    /**
+     * OpenAIService com ChatClient sobre {@link StubChatModel}, embeddings locais e caches de
+     * respostas e de embeddings desligados.
+     */
+    static OpenAIService openAIService(ExecutorService executor) {
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        ReflectionTestUtils.setField(cache, "maximumSize", 1L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("app.ai.limits.rate.permits-per-second", "1000000000")
+            .withProperty("app.ai.limits.rate.burst", "1000000");
+        LlmGovernor governor = new LlmGovernor(environment, meterRegistry, executor);
+        governor.init();
+        
+        PipelineObservations observations = new PipelineObservations(ObservationRegistry.NOOP);
+        EmbeddingService embeddingService = new EmbeddingService(governor, observations,
+            new StaticListableBeanFactory().getBeanProvider(EmbeddingModel.class));
+        ReflectionTestUtils.setField(embeddingService, "cacheEnabled", false);
+        embeddingService.init();
+        
+        OpenAIService service = new OpenAIService(
+            ChatClient.create(new StubChatModel("Resumo gerado pelo modelo stub para o benchmark.")),
+            cache, governor, observations, meterRegistry, executor, embeddingService);
+        service.init();
+        return service;
+    }
+    
+    static ExecutorService executor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,47 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo local das chamadas do {@link OpenAIService}: geração de embedding (alocação do vetor)
+ * e o caminho completo de uma chamada ao modelo (limites, observação, uso de tokens) sobre
+ * um modelo stub, sem rede.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenAIServiceBenchmark {
+    
+    private ExecutorService executor;
+    private OpenAIService service;
+    private String message;
+    
+    @Setup
+    public void setUp() {
+        executor = BenchmarkFixtures.executor();
+        service = BenchmarkFixtures.openAIService(executor);
+        message = "Comprei o fone na semana passada e a entrega atrasou, mas o som é excelente.";
+    }
+    
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+    
+    @Benchmark
+    public Embedding generateEmbedding() {
+        return service.generateEmbedding(message);
+    }
+    
+    @Benchmark
+    public String summarizeTextWithStubModel() {
+        return service.summarizeText(message);
+    }
+}
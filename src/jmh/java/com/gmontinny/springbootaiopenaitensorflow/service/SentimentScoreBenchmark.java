@@ -0,0 +1,46 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Score de sentimento por tamanho de mensagem (passada única do léxico). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentimentScoreBenchmark {
+    
+    private static final String[] WORDS = {
+        "o", "produto", "chegou", "bom", "mas", "a", "entrega", "foi", "ruim", "e", "o",
+        "atendimento", "excelente", "embalagem", "péssimo", "recomendo", "cliente", "pedido"
+    };
+    
+    @Param({"64", "1024", "16384"})
+    private int length;
+    
+    private TensorFlowService service;
+    private String message;
+    
+    @Setup
+    public void setUp() throws Exception {
+        service = BenchmarkFixtures.tensorFlowService();
+        StringBuilder text = new StringBuilder(length + 16);
+        for (int i = 0; text.length() < length; i++) {
+            text.append(WORDS[(i * 7) % WORDS.length]).append(' ');
+        }
+        message = text.substring(0, length);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+    
+    @Benchmark
+    public double calculateSentimentScore() {
+        return service.calculateSentimentScore(message);
+    }
+}
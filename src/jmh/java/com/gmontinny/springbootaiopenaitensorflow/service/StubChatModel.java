@@ -0,0 +1,34 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/** Modelo de chat sem rede: devolve sempre a mesma resposta, com uso de tokens fixo. */
+public class StubChatModel implements ChatModel {
+    
+    private final ChatResponse response;
+    
+    public StubChatModel(String content) {
+        this.response = new ChatResponse(
+            List.of(new Generation(new AssistantMessage(content))),
+            ChatResponseMetadata.builder().usage(new DefaultUsage(120, 40)).build());
+    }
+    
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return response;
+    }
+    
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.just(response);
+    }
+}
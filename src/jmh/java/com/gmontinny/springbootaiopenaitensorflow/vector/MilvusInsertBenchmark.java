@@ -0,0 +1,43 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import io.milvus.param.dml.InsertParam;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Conversão de um lote de embeddings para o {@link InsertParam} do SDK do Milvus (sem servidor). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MilvusInsertBenchmark {
+    
+    private static final int DIMENSION = 1536;
+    
+    @Param({"1", "64", "256"})
+    private int batchSize;
+    
+    private long[] ids;
+    private float[][] vectors;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ids = new long[batchSize];
+        vectors = new float[batchSize][DIMENSION];
+        for (int i = 0; i < batchSize; i++) {
+            ids[i] = i;
+            for (int d = 0; d < DIMENSION; d++) {
+                vectors[i][d] = random.nextFloat() * 2 - 1;
+            }
+        }
+    }
+    
+    @Benchmark
+    public InsertParam insertParam() {
+        return MilvusVectorStore.insertParam("chat_embeddings", ids, vectors);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Kernels de similaridade: produto escalar, normalização e busca exata top-10. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorKernelBenchmark {
+    
+    private static final int STORE_SIZE = 10_000;
+    
+    @Param({"384", "1536"})
+    private int dimension;
+    
+    private float[] a;
+    private float[] b;
+    private BruteForceVectorStore store;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        a = randomVector(random, dimension);
+        b = randomVector(random, dimension);
+        store = new BruteForceVectorStore(dimension);
+        for (int i = 0; i < STORE_SIZE; i++) {
+            store.add(i, randomVector(random, dimension));
+        }
+    }
+    
+    @Benchmark
+    public float dot() {
+        return VectorMath.dot(a, b);
+    }
+    
+    @Benchmark
+    public float[] normalize() {
+        return VectorMath.normalize(a);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<VectorMatch> bruteForceTop10() {
+        return store.search(a, 10);
+    }
+    
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+}
@@ -2,8 +2,10 @@ package com.gmontinny.springbootaiopenaitensorflow;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpringBootAiOpenaiTensorflowApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,244 @@
+package com.gmontinny.springbootaiopenaitensorflow.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache de respostas do LLM endereçado por conteúdo: a chave é o SHA-256 de
+ * (operação, modelo, opções, prompt normalizado). A camada em memória usa Caffeine
+ * (W-TinyLFU + TTL) e garante single-flight: chamadas concorrentes com a mesma chave
+ * aguardam uma única requisição ao modelo. Opcionalmente mantém uma segunda camada em disco.
+ * <p>
+ * A carga roda fora do lock do mapa (a entrada guarda um {@link CompletableFuture}),
+ * para não prender as virtual threads do pipeline durante a chamada ao modelo.
+ */
+@Component
+@Slf4j
+public class LlmResponseCache implements MeterBinder {
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    @Value("${app.ai.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.ai.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${app.ai.cache.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${app.ai.cache.disk.enabled:false}")
+    private boolean diskEnabled;
+    
+    @Value("${app.ai.cache.disk.directory:data/llm-cache}")
+    private Path diskDirectory;
+    
+    @Value("${spring.ai.openai.chat.options.model:}")
+    private String model;
+    
+    @Value("${spring.ai.openai.chat.options.temperature:}")
+    private String temperature;
+    
+    private AsyncCache<String, String> memory;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        memory = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        if (diskEnabled) {
+            try {
+                Files.createDirectories(diskDirectory);
+            } catch (IOException e) {
+                log.warn("Cache em disco desativado ({}): {}", diskDirectory, e.getMessage());
+                diskEnabled = false;
+            }
+        }
+    }
+    
+    public String get(String operation, String prompt, Supplier<String> upstream) {
+        if (!enabled) {
+            return upstream.get();
+        }
+        String key = key(operation, prompt);
+        
+        CompletableFuture<String> promise = new CompletableFuture<>();
+        CompletableFuture<String> existing = memory.asMap().putIfAbsent(key, promise);
+        if (existing != null) {
+            hits.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        
+        misses.increment();
+        try {
+            String response = load(key, upstream);
+            promise.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // Falhas não ficam em cache: quem estava aguardando recebe o erro, a próxima chamada tenta de novo
+            memory.asMap().remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /** Consulta sem carregar; usada pelos fluxos em streaming, que populam o cache via {@link #put}. */
+    public Optional<String> getIfPresent(String operation, String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(operation, prompt);
+        CompletableFuture<String> cached = memory.getIfPresent(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally() && cached.join() != null) {
+            hits.increment();
+            return Optional.of(cached.join());
+        }
+        if (diskEnabled) {
+            String fromDisk = readFromDisk(key);
+            if (fromDisk != null) {
+                diskHits.increment();
+                memory.put(key, CompletableFuture.completedFuture(fromDisk));
+                return Optional.of(fromDisk);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+    
+    public void put(String operation, String prompt, String response) {
+        if (!enabled || response == null) {
+            return;
+        }
+        String key = key(operation, prompt);
+        memory.put(key, CompletableFuture.completedFuture(response));
+        if (diskEnabled) {
+            writeToDisk(key, response);
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", memory.synchronous().estimatedSize());
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        result.put("evictions", memory.synchronous().stats().evictionCount());
+        result.put("diskHits", diskHits.sum());
+        return result;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String name = "llm-response";
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.gets", diskHits, LongAdder::sum)
+            .tag("cache", name).tag("result", "disk-hit").register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.memory.synchronous().estimatedSize())
+            .tag("cache", name).register(registry);
+        FunctionCounter.builder("cache.evictions", this, cache -> cache.memory.synchronous().stats().evictionCount())
+            .tag("cache", name).register(registry);
+    }
+    
+    private String load(String key, Supplier<String> upstream) {
+        if (diskEnabled) {
+            String cached = readFromDisk(key);
+            if (cached != null) {
+                diskHits.increment();
+                return cached;
+            }
+        }
+        String response = upstream.get();
+        if (diskEnabled && response != null) {
+            writeToDisk(key, response);
+        }
+        return response;
+    }
+    
+    private String readFromDisk(String key) {
+        Path file = diskDirectory.resolve(key);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            if (Files.getLastModifiedTime(file).toInstant().plus(ttl).isBefore(Instant.now())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.debug("Falha ao ler cache em disco {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String key, String response) {
+        try {
+            Path temp = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.writeString(temp, response, StandardCharsets.UTF_8);
+            Files.move(temp, diskDirectory.resolve(key), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.debug("Falha ao gravar cache em disco {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private String key(String operation, String prompt) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(prompt, Normalizer.Form.NFC))
+            .replaceAll(" ")
+            .trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{operation, model, temperature, normalized}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
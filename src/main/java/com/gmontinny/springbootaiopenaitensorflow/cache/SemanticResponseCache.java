@@ -0,0 +1,197 @@
+package com.gmontinny.springbootaiopenaitensorflow.cache;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMath;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache semântico de respostas do chat: reaproveita resumo e resposta automática de uma
+ * mensagem anterior quando a similaridade de cosseno entre os embeddings passa do limiar.
+ * <p>
+ * Os vetores ficam normalizados numa arena {@code float[]} de tamanho fixo; quando cheia,
+ * a entrada expirada ou menos recentemente usada é substituída.
+ */
+@Component
+@Slf4j
+public class SemanticResponseCache implements MeterBinder {
+    
+    @Value("${app.chat.semantic-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.chat.semantic-cache.similarity-threshold:0.92}")
+    private float similarityThreshold;
+    
+    @Value("${app.chat.semantic-cache.maximum-size:2000}")
+    private int maximumSize;
+    
+    @Value("${app.chat.semantic-cache.ttl:1h}")
+    private Duration ttl;
+    
+    @Value("${app.vector-store.dimension:1536}")
+    private int dimension;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final DoubleAdder hitSimilaritySum = new DoubleAdder();
+    private volatile float lastHitSimilarity = Float.NaN;
+    
+    private float[] arena;
+    private Entry[] entries;
+    private int size;
+    
+    @PostConstruct
+    public void init() {
+        arena = new float[maximumSize * dimension];
+        entries = new Entry[maximumSize];
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Optional<Hit> lookup(Embedding embedding) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        float[] query = embedding.requireDimension(dimension).normalized().values();
+        long now = System.nanoTime();
+        
+        int bestSlot = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                if (entries[slot].isExpired(now, ttl)) {
+                    continue;
+                }
+                float score = VectorMath.dot(query, 0, arena, slot * dimension, dimension);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestSlot = slot;
+                }
+            }
+            if (bestSlot < 0 || bestScore < similarityThreshold) {
+                misses.increment();
+                return Optional.empty();
+            }
+            Entry entry = entries[bestSlot];
+            entry.lastAccess = now;
+            hits.increment();
+            hitSimilaritySum.add(bestScore);
+            lastHitSimilarity = bestScore;
+            log.debug("Cache semântico: acerto com similaridade {}", bestScore);
+            return Optional.of(new Hit(entry.summary, entry.autoResponse, bestScore));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void put(Embedding embedding, String summary, String autoResponse) {
+        if (!enabled) {
+            return;
+        }
+        float[] vector = embedding.requireDimension(dimension).normalized().values();
+        long now = System.nanoTime();
+        
+        lock.writeLock().lock();
+        try {
+            int slot;
+            if (size < maximumSize) {
+                slot = size++;
+            } else {
+                slot = victim(now);
+                evictions.increment();
+            }
+            System.arraycopy(vector, 0, arena, slot * dimension, dimension);
+            entries[slot] = new Entry(summary, autoResponse, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("similarityThreshold", similarityThreshold);
+        result.put("size", size);
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        result.put("evictions", evictions.sum());
+        result.put("averageHitSimilarity", hitCount == 0 ? null : hitSimilaritySum.sum() / hitCount);
+        result.put("lastHitSimilarity", Float.isNaN(lastHitSimilarity) ? null : lastHitSimilarity);
+        return result;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String name = "semantic-response";
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+            .tag("cache", name).register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.size)
+            .tag("cache", name).register(registry);
+    }
+    
+    // Chamado com o write lock: prefere uma entrada expirada, senão a menos recentemente usada
+    private int victim(long now) {
+        int victim = 0;
+        long oldestAccess = Long.MAX_VALUE;
+        for (int slot = 0; slot < size; slot++) {
+            Entry entry = entries[slot];
+            if (entry.isExpired(now, ttl)) {
+                return slot;
+            }
+            if (entry.lastAccess < oldestAccess) {
+                oldestAccess = entry.lastAccess;
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+    
+    public record Hit(String summary, String autoResponse, float similarity) {
+    }
+    
+    private static final class Entry {
+        
+        final String summary;
+        final String autoResponse;
+        final long createdAt;
+        volatile long lastAccess;
+        
+        Entry(String summary, String autoResponse, long createdAt) {
+            this.summary = summary;
+            this.autoResponse = autoResponse;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+        
+        boolean isExpired(long now, Duration ttl) {
+            return now - createdAt > ttl.toNanos();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.gmontinny.springbootaiopenaitensorflow.catalog;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.ProductSummary;
+import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
+
+import java.time.LocalDateTime;
+
+/** Cópia imutável de um produto no catálogo em memória; serializa com os mesmos campos de {@link Product}. */
+public record CatalogProduct(
+    Long id,
+    String name,
+    String description,
+    String generatedDescription,
+    Double price,
+    String category,
+    LocalDateTime createdAt) {
+    
+    public static CatalogProduct of(Product product) {
+        return new CatalogProduct(product.getId(), product.getName(), product.getDescription(),
+            product.getGeneratedDescription(), product.getPrice(), product.getCategory(), product.getCreatedAt());
+    }
+    
+    public ProductSummary toSummary() {
+        return new ProductSummary(id, name, price, category, createdAt);
+    }
+}
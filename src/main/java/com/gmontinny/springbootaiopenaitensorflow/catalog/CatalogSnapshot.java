@@ -0,0 +1,151 @@
+package com.gmontinny.springbootaiopenaitensorflow.catalog;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versão imutável do catálogo: produtos por ID, todos em ordem de listagem ({@code createdAt, id}
+ * decrescentes, a mesma do keyset), a mesma ordem por categoria e índices por preço. Nunca é
+ * alterada depois de criada: {@link #with} monta uma nova versão, então a leitura não precisa de lock.
+ */
+public final class CatalogSnapshot {
+    
+    private static final Comparator<CatalogProduct> LISTING_ORDER = Comparator
+        .comparing(CatalogProduct::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(CatalogProduct::id, Comparator.reverseOrder());
+    private static final Comparator<CatalogProduct> PRICE_ORDER = Comparator
+        .comparing(CatalogProduct::price, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(CatalogProduct::id);
+    private static final CatalogProduct[] NONE = new CatalogProduct[0];
+    // Depois das constantes acima, usadas pelo construtor
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(Map.of());
+    
+    private final Map<Long, CatalogProduct> byId;
+    private final CatalogProduct[] listing;
+    private final CatalogProduct[] byPrice;
+    private final Map<String, CatalogProduct[]> listingByCategory;
+    private final Map<String, CatalogProduct[]> byPriceInCategory;
+    
+    private CatalogSnapshot(Map<Long, CatalogProduct> byId) {
+        this.byId = byId;
+        this.listing = sorted(byId.values(), LISTING_ORDER);
+        this.byPrice = sorted(byId.values(), PRICE_ORDER);
+        Map<String, List<CatalogProduct>> categories = new HashMap<>();
+        for (CatalogProduct product : listing) {
+            if (product.category() != null) {
+                categories.computeIfAbsent(product.category(), key -> new ArrayList<>()).add(product);
+            }
+        }
+        Map<String, CatalogProduct[]> listingIndex = new HashMap<>(categories.size() * 2);
+        Map<String, CatalogProduct[]> priceIndex = new HashMap<>(categories.size() * 2);
+        categories.forEach((category, products) -> {
+            // Já vêm na ordem de listagem
+            listingIndex.put(category, products.toArray(NONE));
+            priceIndex.put(category, sorted(products, PRICE_ORDER));
+        });
+        this.listingByCategory = listingIndex;
+        this.byPriceInCategory = priceIndex;
+    }
+    
+    public static CatalogSnapshot of(Collection<CatalogProduct> products) {
+        return EMPTY.with(products);
+    }
+    
+    /** Nova versão com os produtos inseridos ou substituídos (mesmo ID); esta continua válida. */
+    public CatalogSnapshot with(Collection<CatalogProduct> products) {
+        if (products.isEmpty()) {
+            return this;
+        }
+        Map<Long, CatalogProduct> updated = new HashMap<>((byId.size() + products.size()) * 4 / 3 + 1);
+        updated.putAll(byId);
+        for (CatalogProduct product : products) {
+            updated.put(product.id(), product);
+        }
+        return new CatalogSnapshot(updated);
+    }
+    
+    public CatalogProduct get(long id) {
+        return byId.get(id);
+    }
+    
+    public int size() {
+        return byId.size();
+    }
+    
+    public int categoryCount() {
+        return listingByCategory.size();
+    }
+    
+    /** Até {@code limit} produtos estritamente depois de {@code position}, na ordem de listagem. */
+    public List<CatalogProduct> page(String category, PageCursor position, int limit) {
+        CatalogProduct[] products = category == null ? listing : listingByCategory.getOrDefault(category, NONE);
+        int from = firstAfter(products, position);
+        return List.of(Arrays.copyOfRange(products, from, Math.min(products.length, from + limit)));
+    }
+    
+    /** Produtos com preço em {@code [min, max]} (limites opcionais), do mais barato ao mais caro. */
+    public List<CatalogProduct> priceRange(String category, Double min, Double max, int limit) {
+        CatalogProduct[] products = category == null ? byPrice : byPriceInCategory.getOrDefault(category, NONE);
+        int from = min == null ? 0 : firstPriceAtLeast(products, min);
+        List<CatalogProduct> result = new ArrayList<>(Math.min(limit, products.length - from));
+        for (int i = from; i < products.length && result.size() < limit; i++) {
+            Double price = products[i].price();
+            if (price == null || (max != null && price > max)) {
+                break;
+            }
+            result.add(products[i]);
+        }
+        return result;
+    }
+    
+    // Busca binária do primeiro item estritamente anterior à posição (createdAt, id) do cursor
+    private static int firstAfter(CatalogProduct[] products, PageCursor position) {
+        int low = 0;
+        int high = products.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isAfter(products[mid], position)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    private static boolean isAfter(CatalogProduct product, PageCursor position) {
+        if (product.createdAt() == null) {
+            return true;
+        }
+        int compare = product.createdAt().compareTo(position.createdAt());
+        return compare < 0 || (compare == 0 && product.id() < position.id());
+    }
+    
+    private static int firstPriceAtLeast(CatalogProduct[] products, double min) {
+        int low = 0;
+        int high = products.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Double price = products[mid].price();
+            if (price == null || price >= min) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    private static CatalogProduct[] sorted(Collection<CatalogProduct> products, Comparator<CatalogProduct> order) {
+        CatalogProduct[] array = products.toArray(NONE);
+        Arrays.sort(array, order);
+        return array;
+    }
+}
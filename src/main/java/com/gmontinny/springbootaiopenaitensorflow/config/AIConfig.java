@@ -1,9 +1,14 @@
 package com.gmontinny.springbootaiopenaitensorflow.config;
 
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class AIConfig {
     
@@ -11,4 +16,12 @@ public class AIConfig {
     public ChatClient chatClient(ChatClient.Builder builder) {
         return builder.build();
     }
-}
\ No newline at end of file
+    
+    // Executor de virtual threads para as chamadas bloqueantes (LLM, modelo, embeddings).
+    // Cada tarefa herda o contexto de quem a submeteu (observação/span corrente, MDC)
+    @Bean(destroyMethod = "close")
+    public ExecutorService aiTaskExecutor() {
+        ContextSnapshotFactory snapshotFactory = ContextSnapshotFactory.builder().build();
+        return ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(), snapshotFactory::captureAll);
+    }
+}
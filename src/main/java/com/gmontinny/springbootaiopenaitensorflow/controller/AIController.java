@@ -1,9 +1,16 @@
 package com.gmontinny.springbootaiopenaitensorflow.controller;
 
+import com.gmontinny.springbootaiopenaitensorflow.cache.LlmResponseCache;
+import com.gmontinny.springbootaiopenaitensorflow.dto.StreamToken;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmWorkload;
+import com.gmontinny.springbootaiopenaitensorflow.service.LlmGovernor;
 import com.gmontinny.springbootaiopenaitensorflow.service.OpenAIService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.Map;
 
@@ -13,14 +20,21 @@ import java.util.Map;
 public class AIController {
     
     private final OpenAIService openAIService;
+    private final LlmResponseCache responseCache;
+    private final LlmGovernor llmGovernor;
     
     @PostMapping("/summarize")
     public ResponseEntity<Map<String, String>> summarize(@RequestBody Map<String, String> request) {
         String text = request.get("text");
-        String summary = openAIService.summarizeText(text);
+        String summary = openAIService.summarizeText(text, LlmWorkload.UTILITY);
         return ResponseEntity.ok(Map.of("summary", summary));
     }
     
+    @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> summarizeStream(@RequestBody Map<String, String> request) {
+        return tokens(openAIService.summarizeTextStream(request.get("text"), LlmWorkload.UTILITY));
+    }
+    
     @PostMapping("/translate")
     public ResponseEntity<Map<String, String>> translate(@RequestBody Map<String, String> request) {
         String text = request.get("text");
@@ -29,6 +43,11 @@ public class AIController {
         return ResponseEntity.ok(Map.of("translation", translation));
     }
     
+    @PostMapping(value = "/translate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> translateStream(@RequestBody Map<String, String> request) {
+        return tokens(openAIService.translateTextStream(request.get("text"), request.get("targetLanguage")));
+    }
+    
     @PostMapping("/generate-code")
     public ResponseEntity<Map<String, String>> generateCode(@RequestBody Map<String, String> request) {
         String description = request.get("description");
@@ -36,4 +55,25 @@ public class AIController {
         String code = openAIService.generateCode(description, language);
         return ResponseEntity.ok(Map.of("code", code));
     }
+    
+    @PostMapping(value = "/generate-code/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> generateCodeStream(@RequestBody Map<String, String> request) {
+        return tokens(openAIService.generateCodeStream(request.get("description"), request.get("language")));
+    }
+    
+    // Cada token vai como {"t": "..."} num evento "token", preservando espaços no início
+    private static Flux<ServerSentEvent<Object>> tokens(Flux<String> tokens) {
+        return tokens.map(token -> StreamToken.event("token", token));
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+    
+    /** Limite de concorrência, chamadas em andamento e fila por grupo de chamadas ao modelo. */
+    @GetMapping("/limits")
+    public ResponseEntity<Map<String, Object>> limits() {
+        return ResponseEntity.ok(llmGovernor.stats());
+    }
 }
\ No newline at end of file
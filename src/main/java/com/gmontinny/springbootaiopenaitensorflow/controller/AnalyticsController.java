@@ -0,0 +1,34 @@
+package com.gmontinny.springbootaiopenaitensorflow.controller;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.SentimentReport;
+import com.gmontinny.springbootaiopenaitensorflow.service.SentimentAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final SentimentAnalyticsService sentimentAnalyticsService;
+    
+    /**
+     * Série de sentimento por hora ou dia em {@code [from, to)}: contagens por rótulo, score
+     * médio e percentis. Padrão: últimas 24 horas por hora, ou últimos 30 dias por dia.
+     */
+    @GetMapping("/sentiment")
+    public ResponseEntity<SentimentReport> getSentimentReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") SentimentReport.Granularity granularity,
+            @RequestParam(defaultValue = "false") boolean histogram) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+            : granularity == SentimentReport.Granularity.DAY ? end.minusDays(30) : end.minusHours(24);
+        return ResponseEntity.ok(sentimentAnalyticsService.report(start, end, granularity, histogram));
+    }
+}
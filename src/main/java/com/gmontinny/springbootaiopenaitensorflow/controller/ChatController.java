@@ -1,16 +1,25 @@
 package com.gmontinny.springbootaiopenaitensorflow.controller;
 
+import com.gmontinny.springbootaiopenaitensorflow.cache.SemanticResponseCache;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatIngestionResult;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ChatRequest;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ChatResponse;
+import com.gmontinny.springbootaiopenaitensorflow.dto.CursorPage;
 import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
-import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import com.gmontinny.springbootaiopenaitensorflow.service.ChatHistoryService;
+import com.gmontinny.springbootaiopenaitensorflow.service.ChatIngestionService;
 import com.gmontinny.springbootaiopenaitensorflow.service.ChatService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -18,7 +27,9 @@ import java.util.List;
 public class ChatController {
     
     private final ChatService chatService;
-    private final ChatMessageRepository chatMessageRepository;
+    private final ChatIngestionService chatIngestionService;
+    private final ChatHistoryService chatHistoryService;
+    private final SemanticResponseCache semanticCache;
     
     @PostMapping("/process")
     public ResponseEntity<ChatResponse> processMessage(@Valid @RequestBody ChatRequest request) {
@@ -26,16 +37,55 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> processMessageStream(@Valid @RequestBody ChatRequest request) {
+        return chatService.processMessageStream(request);
+    }
+    
+    /** Ingestão em lote: corpo em NDJSON ou array JSON de {@link ChatRequest}, um resultado NDJSON por item. */
+    @PostMapping(value = "/process/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ChatIngestionResult> processBatch(InputStream body) {
+        return chatIngestionService.ingest(body);
+    }
+    
+    /**
+     * Histórico paginado, mais recentes primeiro. Por padrão devolve uma projeção leve;
+     * {@code full=true} inclui resumo e resposta automática. A próxima página vem de {@code nextCursor}.
+     */
     @GetMapping("/history")
-    public ResponseEntity<List<ChatMessage>> getChatHistory() {
-        List<ChatMessage> messages = chatMessageRepository.findByOrderByCreatedAtDesc();
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<CursorPage<?>> getChatHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:50}") int size,
+            @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(full
+            ? chatHistoryService.messages(null, cursor, size)
+            : chatHistoryService.summaries(null, cursor, size));
     }
     
     @GetMapping("/sentiment/{sentiment}")
-    public ResponseEntity<List<ChatMessage>> getMessagesBySentiment(
-            @PathVariable ChatMessage.SentimentType sentiment) {
-        List<ChatMessage> messages = chatMessageRepository.findBySentiment(sentiment);
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<CursorPage<?>> getMessagesBySentiment(
+            @PathVariable ChatMessage.SentimentType sentiment,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:50}") int size,
+            @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(full
+            ? chatHistoryService.messages(sentiment, cursor, size)
+            : chatHistoryService.summaries(sentiment, cursor, size));
+    }
+    
+    /** Exporta o histórico completo como array JSON, escrito em lotes conforme é lido do banco. */
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportChatHistory(
+            @RequestParam(required = false) ChatMessage.SentimentType sentiment) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(output -> chatHistoryService.export(sentiment, output));
+    }
+    
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getSemanticCacheStats() {
+        return ResponseEntity.ok(semanticCache.stats());
     }
 }
\ No newline at end of file
@@ -1,15 +1,23 @@
 package com.gmontinny.springbootaiopenaitensorflow.controller;
 
+import com.gmontinny.springbootaiopenaitensorflow.catalog.CatalogProduct;
+import com.gmontinny.springbootaiopenaitensorflow.dto.CursorPage;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ProductDescriptionStatus;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ProductRequest;
 import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
-import com.gmontinny.springbootaiopenaitensorflow.repository.ProductRepository;
+import com.gmontinny.springbootaiopenaitensorflow.service.ProductDescriptionQueue;
 import com.gmontinny.springbootaiopenaitensorflow.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
@@ -17,23 +25,72 @@ import java.util.List;
 public class ProductController {
     
     private final ProductService productService;
-    private final ProductRepository productRepository;
+    private final ProductDescriptionQueue descriptionQueue;
     
+    /** 202: o produto já está salvo; a descrição gerada é acompanhada em {@code Location}. */
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody ProductRequest request) {
-        Product product = productService.createProductWithDescription(request);
-        return ResponseEntity.ok(product);
+        Product product = productService.createProduct(request);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/products/" + product.getId() + "/description"))
+            .body(product);
     }
     
+    /** Importação de catálogo: todos os produtos salvos numa transação, descrições geradas em lotes. */
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> createProducts(
+            @RequestBody @Size(min = 1, max = 1000) List<@Valid ProductRequest> requests) {
+        return ResponseEntity.accepted().body(productService.createProducts(requests));
+    }
+    
+    @GetMapping("/{id}/description")
+    public ResponseEntity<ProductDescriptionStatus> getDescriptionStatus(@PathVariable Long id) {
+        return ResponseEntity.of(descriptionQueue.status(id));
+    }
+    
+    /** Jobs de descrição por estado (pending, running, completed, failed). */
+    @GetMapping("/description-jobs")
+    public ResponseEntity<Map<String, Long>> getDescriptionJobStats() {
+        return ResponseEntity.ok(descriptionQueue.stats());
+    }
+    
+    /** Listagem paginada, mais recentes primeiro; {@code full=true} inclui as descrições. */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<CursorPage<?>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:50}") int size,
+            @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(full
+            ? productService.products(null, cursor, size)
+            : productService.summaries(null, cursor, size));
     }
     
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productRepository.findByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<CursorPage<?>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${app.pagination.default-size:50}") int size,
+            @RequestParam(defaultValue = "false") boolean full) {
+        return ResponseEntity.ok(full
+            ? productService.products(category, cursor, size)
+            : productService.summaries(category, cursor, size));
+    }
+    
+    /** Produtos por faixa de preço (limites opcionais), do mais barato ao mais caro. */
+    @GetMapping("/price-range")
+    public ResponseEntity<List<CatalogProduct>> getProductsByPrice(
+            @RequestParam(required = false) Double min,
+            @RequestParam(required = false) Double max,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "${app.pagination.default-size:50}") int size) {
+        return ResponseEntity.ok(productService.byPrice(category, min, max, size));
+    }
+    
+    /** Exporta todos os produtos (ou de uma categoria) como array JSON, escrito em lotes. */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String category) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(output -> productService.export(category, output));
     }
 }
\ No newline at end of file
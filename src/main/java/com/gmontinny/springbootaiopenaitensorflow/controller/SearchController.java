@@ -1,43 +1,36 @@
 package com.gmontinny.springbootaiopenaitensorflow.controller;
 
-import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
-import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
-import com.gmontinny.springbootaiopenaitensorflow.service.MilvusService;
-import com.gmontinny.springbootaiopenaitensorflow.service.OpenAIService;
+import com.gmontinny.springbootaiopenaitensorflow.dto.HybridSearchHit;
+import com.gmontinny.springbootaiopenaitensorflow.dto.HybridSearchRequest;
+import com.gmontinny.springbootaiopenaitensorflow.dto.SemanticSearchHit;
+import com.gmontinny.springbootaiopenaitensorflow.service.SemanticSearchService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/search")
 @RequiredArgsConstructor
 public class SearchController {
     
-    private final MilvusService milvusService;
-    private final OpenAIService openAIService;
-    private final ChatMessageRepository chatMessageRepository;
+    private final SemanticSearchService semanticSearchService;
     
     @PostMapping("/semantic")
-    public ResponseEntity<List<ChatMessage>> semanticSearch(@RequestBody Map<String, String> request) {
+    public ResponseEntity<List<SemanticSearchHit>> semanticSearch(@RequestBody Map<String, String> request) {
         String query = request.get("query");
         int topK = Integer.parseInt(request.getOrDefault("topK", "5"));
         
-        // Gerar embedding da consulta
-        List<Float> queryEmbedding = openAIService.generateEmbedding(query);
-        
-        // Buscar mensagens similares no Milvus
-        List<Long> similarIds = milvusService.searchSimilar(queryEmbedding, topK);
-        
-        // Recuperar mensagens do banco
-        List<ChatMessage> similarMessages = similarIds.stream()
-            .map(id -> chatMessageRepository.findById(id).orElse(null))
-            .filter(msg -> msg != null)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(similarMessages);
+        // Resultados na ordem de similaridade, hidratados com uma única consulta ao banco
+        return ResponseEntity.ok(semanticSearchService.search(query, topK));
+    }
+    
+    /** Palavras-chave (BM25) + vetorial, combinadas por reciprocal-rank fusion, com filtros opcionais. */
+    @PostMapping("/hybrid")
+    public ResponseEntity<List<HybridSearchHit>> hybridSearch(@Valid @RequestBody HybridSearchRequest request) {
+        return ResponseEntity.ok(semanticSearchService.hybridSearch(request));
     }
 }
\ No newline at end of file
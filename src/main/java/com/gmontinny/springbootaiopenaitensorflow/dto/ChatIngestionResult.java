@@ -0,0 +1,30 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/** Resultado de um item da ingestão em lote, emitido como uma linha NDJSON. */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatIngestionResult {
+    private long index;
+    private Status status;
+    private Long messageId;
+    private ChatMessage.SentimentType sentiment;
+    private Double sentimentScore;
+    private List<String> errors;
+    
+    public enum Status {
+        /** Todas as etapas concluídas. */
+        PROCESSED,
+        /** Mensagem salva, mas alguma etapa usou fallback (ex.: resumo truncado, embedding ausente). */
+        DEGRADED,
+        /** Mensagem não foi salva. */
+        FAILED
+    }
+}
@@ -0,0 +1,18 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Projeção leve de {@link ChatMessage} para listagens: só o início da mensagem, sem resumo e resposta. */
+@Data
+@AllArgsConstructor
+public class ChatMessageSummary {
+    private Long id;
+    private String preview;
+    private ChatMessage.SentimentType sentiment;
+    private Double sentimentScore;
+    private LocalDateTime createdAt;
+}
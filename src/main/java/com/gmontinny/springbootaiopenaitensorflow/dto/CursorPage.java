@@ -0,0 +1,14 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/** Página de uma listagem por keyset; {@code nextCursor} é {@code null} na última página. */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
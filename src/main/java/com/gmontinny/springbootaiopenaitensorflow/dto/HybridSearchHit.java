@@ -0,0 +1,23 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+/**
+ * Resultado da busca híbrida: score de reciprocal-rank fusion e a posição da mensagem em
+ * cada busca ({@code null} quando ela não apareceu naquela lista).
+ */
+@Data
+@AllArgsConstructor
+public class HybridSearchHit {
+    @JsonUnwrapped
+    private ChatMessage message;
+    
+    private double score;
+    
+    private Integer keywordRank;
+    
+    private Integer vectorRank;
+}
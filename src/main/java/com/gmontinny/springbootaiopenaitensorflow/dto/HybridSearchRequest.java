@@ -0,0 +1,24 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class HybridSearchRequest {
+    @NotBlank(message = "Consulta não pode estar vazia")
+    private String query;
+    
+    @Positive(message = "topK deve ser positivo")
+    private int topK = 10;
+    
+    // Filtros opcionais, aplicados nas duas buscas (palavras-chave e vetorial)
+    private ChatMessage.SentimentType sentiment;
+    
+    private LocalDateTime from;
+    
+    private LocalDateTime to;
+}
@@ -0,0 +1,53 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentResult;
+
+import java.util.Optional;
+
+/**
+ * Resumo, resposta automática e, opcionalmente, sentimento de uma mensagem, obtidos numa única
+ * chamada ao modelo. Os componentes definem o JSON schema pedido ao modelo (structured output).
+ */
+public record MessageAnalysis(
+    @JsonProperty(required = true)
+    @JsonPropertyDescription("Resumo conciso da mensagem, em português")
+    String summary,
+    
+    @JsonProperty(required = true)
+    @JsonPropertyDescription("Resposta automática profissional e útil ao cliente, em português")
+    String autoResponse,
+    
+    @JsonProperty(required = true)
+    @JsonPropertyDescription("Sentimento da mensagem: POSITIVE, NEGATIVE ou NEUTRAL")
+    ChatMessage.SentimentType sentiment,
+    
+    @JsonProperty(required = true)
+    @JsonPropertyDescription("Score de 0 (muito negativo) a 1 (muito positivo); 0.5 é neutro")
+    Double sentimentScore) {
+    
+    /** Sentimento do modelo, se veio completo e com score entre 0 e 1. */
+    public Optional<SentimentResult> sentimentResult() {
+        if (sentiment == null || sentimentScore == null || sentimentScore < 0 || sentimentScore > 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new SentimentResult(sentiment, sentimentScore));
+    }
+    
+    /** Formato pedido quando o sentimento fica só com o modelo local: menos tokens de saída. */
+    public record Texts(
+        @JsonProperty(required = true)
+        @JsonPropertyDescription("Resumo conciso da mensagem, em português")
+        String summary,
+        
+        @JsonProperty(required = true)
+        @JsonPropertyDescription("Resposta automática profissional e útil ao cliente, em português")
+        String autoResponse) {
+        
+        public MessageAnalysis toAnalysis() {
+            return new MessageAnalysis(summary, autoResponse, null, null);
+        }
+    }
+}
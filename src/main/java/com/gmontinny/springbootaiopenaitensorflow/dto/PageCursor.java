@@ -0,0 +1,34 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posição da paginação por keyset: {@code (createdAt, id)} do último item entregue.
+ * A próxima página começa no primeiro registro estritamente anterior a essa posição.
+ */
+public record PageCursor(LocalDateTime createdAt, long id) {
+    
+    /** Posição depois de qualquer registro: a primeira página usa a mesma consulta das seguintes. */
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ProductDescriptionJob;
+
+import java.time.LocalDateTime;
+
+/** Situação da descrição gerada de um produto, para acompanhamento por polling. */
+public record ProductDescriptionStatus(
+    Long productId,
+    ProductDescriptionJob.Status status,
+    int attempts,
+    String lastError,
+    String generatedDescription,
+    LocalDateTime updatedAt) {
+}
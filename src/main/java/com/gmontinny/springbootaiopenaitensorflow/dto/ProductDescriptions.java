@@ -0,0 +1,26 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+import java.util.List;
+
+/**
+ * Descrições de vários produtos geradas numa única chamada ao modelo. Os componentes definem o
+ * JSON schema pedido (structured output); cada item volta com o ID do produto do prompt.
+ */
+public record ProductDescriptions(
+    @JsonProperty(required = true)
+    @JsonPropertyDescription("Uma descrição para cada produto pedido")
+    List<Item> descriptions) {
+    
+    public record Item(
+        @JsonProperty(required = true)
+        @JsonPropertyDescription("ID do produto, exatamente como informado")
+        long productId,
+        
+        @JsonProperty(required = true)
+        @JsonPropertyDescription("Descrição atrativa e persuasiva do produto, em português, destacando benefícios")
+        String description) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Projeção leve de produto para listagens, sem as descrições. */
+@Data
+@AllArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private Double price;
+    private String category;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+/** Mensagem encontrada na busca semântica, com os campos da mensagem e a similaridade. */
+@Data
+@AllArgsConstructor
+public class SemanticSearchHit {
+    @JsonUnwrapped
+    private ChatMessage message;
+    
+    private float score;
+}
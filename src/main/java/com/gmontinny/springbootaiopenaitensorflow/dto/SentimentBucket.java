@@ -0,0 +1,25 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Distribuição de sentimento de um intervalo; score médio e percentis são {@code null} sem mensagens. */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SentimentBucket {
+    private LocalDateTime start;
+    private long total;
+    private long positive;
+    private long negative;
+    private long neutral;
+    private Double averageScore;
+    private Double p50;
+    private Double p90;
+    private Double p99;
+    /** Contagem por faixa de score de largura 0,01; só quando pedido. */
+    private long[] scoreHistogram;
+}
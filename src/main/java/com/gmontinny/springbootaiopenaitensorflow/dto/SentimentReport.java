@@ -0,0 +1,22 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Série temporal de sentimento em {@code [from, to)} e o agregado do período inteiro. */
+@Data
+@AllArgsConstructor
+public class SentimentReport {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Granularity granularity;
+    private SentimentBucket overall;
+    private List<SentimentBucket> buckets;
+    
+    public enum Granularity {
+        HOUR, DAY
+    }
+}
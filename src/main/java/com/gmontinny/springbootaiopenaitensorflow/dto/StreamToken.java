@@ -0,0 +1,14 @@
+package com.gmontinny.springbootaiopenaitensorflow.dto;
+
+import org.springframework.http.codec.ServerSentEvent;
+
+/**
+ * Trecho de texto enviado num evento SSE. Vai como JSON ({@code {"t":" mundo"}}) porque os clientes
+ * SSE descartam o espaço logo após {@code data:}, e a maioria dos tokens do modelo começa com espaço.
+ */
+public record StreamToken(String t) {
+    
+    public static ServerSentEvent<Object> event(String name, String token) {
+        return ServerSentEvent.<Object>builder().event(name).data(new StreamToken(token)).build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.gmontinny.springbootaiopenaitensorflow.embedding;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+
+import java.util.List;
+
+/** Gera embeddings de textos; {@link #embedAll} processa vários textos numa única operação. */
+public interface EmbeddingProvider {
+    
+    int dimension();
+    
+    /** Embeddings na mesma ordem dos textos. */
+    List<Embedding> embedAll(List<String> texts);
+    
+    default Embedding embed(String text) {
+        return embedAll(List.of(text)).get(0);
+    }
+}
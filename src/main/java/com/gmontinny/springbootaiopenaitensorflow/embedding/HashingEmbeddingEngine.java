@@ -0,0 +1,115 @@
+package com.gmontinny.springbootaiopenaitensorflow.embedding;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMath;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embeddings locais, em CPU e sem rede, por feature hashing: palavras, pares de palavras
+ * vizinhas e n-gramas de caracteres (3 a 5, com marcas de início e fim de palavra) são
+ * espalhados por hash nas {@code dimension} posições do vetor, com sinal também dado pelo hash
+ * para que as colisões se cancelem em média. O vetor sai com norma L2 unitária.
+ * <p>
+ * Textos com palavras e radicais em comum ficam próximos no cosseno (os n-gramas aproximam
+ * flexões como "entrega"/"entregue"), o que basta para avaliar a busca semântica offline. Não
+ * captura sinônimos: para isso, o provedor remoto.
+ */
+public class HashingEmbeddingEngine implements EmbeddingProvider {
+    
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int MIN_NGRAM = 3;
+    private static final int MAX_NGRAM = 5;
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final float NGRAM_WEIGHT = 0.25f;
+    // Sementes distintas separam os tipos de feature: "casa" palavra e "casa" n-grama não colidem
+    private static final long WORD_SEED = 0x9E3779B97F4A7C15L;
+    private static final long BIGRAM_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long NGRAM_SEED = 0x165667B19E3779F9L;
+    
+    private final int dimension;
+    
+    public HashingEmbeddingEngine(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimensão deve ser positiva");
+        }
+        this.dimension = dimension;
+    }
+    
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+    
+    @Override
+    public List<Embedding> embedAll(List<String> texts) {
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(embed(text));
+        }
+        return embeddings;
+    }
+    
+    @Override
+    public Embedding embed(String text) {
+        float[] vector = new float[dimension];
+        String previous = null;
+        Matcher tokens = TOKEN.matcher(normalize(text));
+        while (tokens.find()) {
+            String token = tokens.group();
+            add(vector, hash(WORD_SEED, token, 0, token.length()), WORD_WEIGHT);
+            if (previous != null) {
+                add(vector, hash(hash(BIGRAM_SEED, previous, 0, previous.length()), token, 0, token.length()), BIGRAM_WEIGHT);
+            }
+            addNgrams(vector, token);
+            previous = token;
+        }
+        VectorMath.normalizeInPlace(vector);
+        return new Embedding(vector);
+    }
+    
+    private void addNgrams(float[] vector, String token) {
+        String padded = "<" + token + ">";
+        for (int n = MIN_NGRAM; n <= MAX_NGRAM; n++) {
+            for (int start = 0; start + n <= padded.length(); start++) {
+                add(vector, hash(NGRAM_SEED, padded, start, start + n), NGRAM_WEIGHT);
+            }
+        }
+    }
+    
+    private void add(float[] vector, long hash, float weight) {
+        int bucket = (int) Long.remainderUnsigned(hash >>> 1, dimension);
+        vector[bucket] += (hash & 1) == 0 ? weight : -weight;
+    }
+    
+    // Minúsculas e sem acentos: "Não" e "nao" viram a mesma feature
+    private static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+    
+    // FNV-1a sobre os caracteres do intervalo, finalizado com o mix do MurmurHash3 para espalhar os bits
+    private static long hash(long seed, String text, int from, int to) {
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,50 @@
+package com.gmontinny.springbootaiopenaitensorflow.embedding;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Embeddings de um modelo remoto, vários textos por requisição: a lista é dividida em lotes de
+ * até {@code maxBatchSize} e cada lote vira uma única chamada a {@code batchCall} (que aplica
+ * os limites de chamadas ao provedor).
+ */
+public class RemoteEmbeddingProvider implements EmbeddingProvider {
+    
+    private final Function<List<String>, List<float[]>> batchCall;
+    private final int maxBatchSize;
+    private final int dimension;
+    
+    public RemoteEmbeddingProvider(Function<List<String>, List<float[]>> batchCall, int maxBatchSize, int dimension) {
+        this.batchCall = batchCall;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.dimension = dimension;
+    }
+    
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+    
+    @Override
+    public List<Embedding> embedAll(List<String> texts) {
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += maxBatchSize) {
+            // A API rejeita entradas vazias
+            List<String> batch = texts.subList(from, Math.min(texts.size(), from + maxBatchSize)).stream()
+                .map(text -> text == null || text.isBlank() ? " " : text)
+                .toList();
+            List<float[]> vectors = batchCall.apply(batch);
+            if (vectors.size() != batch.size()) {
+                throw new IllegalStateException(
+                    "Provedor de embeddings devolveu " + vectors.size() + " vetores para " + batch.size() + " textos");
+            }
+            for (float[] vector : vectors) {
+                embeddings.add(new Embedding(vector).requireDimension(dimension));
+            }
+        }
+        return embeddings;
+    }
+}
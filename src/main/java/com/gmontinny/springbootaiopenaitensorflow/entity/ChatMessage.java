@@ -7,7 +7,11 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+    // Keyset das listagens: (created_at, id), com e sem filtro de sentimento
+    @Index(name = "idx_chat_messages_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_chat_messages_sentiment_created_at_id", columnList = "sentiment, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,72 @@
+package com.gmontinny.springbootaiopenaitensorflow.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/** Geração pendente (ou concluída) da descrição de um produto; um job por produto. */
+@Entity
+@Table(name = "product_description_jobs", indexes = {
+    // Fila: próximos pendentes em ordem de chegada
+    @Index(name = "idx_description_jobs_status_product", columnList = "status, product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDescriptionJob implements Persistable<Long> {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+    
+    private int attempts;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    // O ID vem do produto: sem isto o save trataria todo job novo como existente e faria um SELECT antes do INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean fresh = true;
+    
+    public ProductDescriptionJob(Long productId) {
+        this.productId = productId;
+    }
+    
+    @Override
+    public Long getId() {
+        return productId;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+    
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package com.gmontinny.springbootaiopenaitensorflow.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/** Agregado de sentimento de uma hora: contagens, soma dos scores e histograma dos scores. */
+@Entity
+@Table(name = "sentiment_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentimentRollup {
+    
+    @Id
+    private LocalDateTime bucketStart;
+    
+    private long positiveCount;
+    
+    private long negativeCount;
+    
+    private long neutralCount;
+    
+    private double scoreSum;
+    
+    /** Contagens das faixas de score separadas por vírgula (ver SentimentTally). */
+    @Column(columnDefinition = "TEXT")
+    private String scoreHistogram;
+}
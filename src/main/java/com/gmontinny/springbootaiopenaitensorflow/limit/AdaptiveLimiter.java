@@ -0,0 +1,212 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de concorrência adaptativo com fila de espera limitada.
+ * <p>
+ * O limite segue a latência observada (gradiente): enquanto a latência fica abaixo de
+ * {@code tolerance} vezes a menor latência recente (a latência sem fila no provedor), ele cresce
+ * cerca de {@code sqrt(limite)} a cada ciclo de chamadas; acima disso, encolhe na proporção do
+ * excesso, até a metade por ciclo. Sinais explícitos de sobrecarga (429, timeout) cortam o
+ * limite multiplicativamente (AIMD).
+ * <p>
+ * Quem encontra o limite ocupado espera na fila até o prazo; com a fila cheia, é recusado
+ * na hora.
+ */
+public final class AdaptiveLimiter {
+    
+    private static final double BACKOFF = 0.9;
+    private static final int BASELINE_WINDOW = 500;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final double tolerance;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private long baselineRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, maxQueue, tolerance, System::nanoTime);
+    }
+    
+    // Relógio em nanossegundos substituível nos testes
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue, double tolerance, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limites inválidos: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.tolerance = tolerance;
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+    
+    /**
+     * Obtém uma vaga, esperando até {@code deadlineNanos} ({@link System#nanoTime()}).
+     *
+     * @throws LimitExceeded com a fila cheia ou o prazo esgotado
+     */
+    public Permit acquire(long deadlineNanos) throws LimitExceeded {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                return grant();
+            }
+            if (queued >= maxQueue) {
+                throw new LimitExceeded(true);
+            }
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    long remaining = deadlineNanos - clock.getAsLong();
+                    if (remaining <= 0) {
+                        throw new LimitExceeded(true);
+                    }
+                    released.awaitNanos(remaining);
+                }
+                return grant();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LimitExceeded(true);
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int limit() {
+        return (int) limit;
+    }
+    
+    public int inFlight() {
+        return inFlight;
+    }
+    
+    public int queued() {
+        return queued;
+    }
+    
+    private Permit grant() {
+        inFlight++;
+        return new Permit(clock.getAsLong(), inFlight);
+    }
+    
+    private void release(long rttNanos, int inFlightAtStart, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            double previous = limit;
+            if (outcome == Outcome.DROPPED) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (outcome == Outcome.SUCCESS && rttNanos > 0) {
+                adjust(rttNanos, inFlightAtStart);
+            }
+            if ((int) limit > (int) previous) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void adjust(long rttNanos, int inFlightAtStart) {
+        // Menor latência da janela anterior; na primeira janela, a menor até agora
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        if (++windowSamples == BASELINE_WINDOW || baselineRttNanos == Long.MAX_VALUE) {
+            baselineRttNanos = windowMinRttNanos;
+        }
+        if (windowSamples == BASELINE_WINDOW) {
+            windowSamples = 0;
+            windowMinRttNanos = Long.MAX_VALUE;
+        }
+        double gradient = Math.clamp(tolerance * baselineRttNanos / rttNanos, 0.5, 1.0);
+        // Só cresce se o limite atual estava de fato sendo usado
+        if (gradient == 1.0 && inFlightAtStart < limit / 2) {
+            return;
+        }
+        // Cada amostra aplica 1/limite do ajuste: um ajuste completo por ciclo de chamadas
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit + (target - limit) / limit, minLimit, maxLimit);
+    }
+    
+    private enum Outcome {
+        SUCCESS, DROPPED, IGNORED
+    }
+    
+    /** Vaga obtida; deve ser liberada exatamente uma vez por um dos métodos de resultado. */
+    public final class Permit {
+        
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long respondedNanos;
+        
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+        
+        /** Marca a primeira resposta (streaming): a latência usada no ajuste vai até aqui. */
+        public void responded() {
+            if (respondedNanos == 0) {
+                respondedNanos = clock.getAsLong();
+            }
+        }
+        
+        public void success() {
+            finish(Outcome.SUCCESS);
+        }
+        
+        /** A chamada indicou sobrecarga do provedor. */
+        public void dropped() {
+            finish(Outcome.DROPPED);
+        }
+        
+        /** Resultado que não diz nada sobre a carga (erro do cliente, cancelamento). */
+        public void ignore() {
+            finish(Outcome.IGNORED);
+        }
+        
+        // Sem synchronized: com virtual threads, esperar o lock do limitador dentro de um bloco
+        // synchronized prende a thread da plataforma
+        private void finish(Outcome outcome) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            long end = respondedNanos != 0 ? respondedNanos : clock.getAsLong();
+            release(end - startNanos, inFlightAtStart, outcome);
+        }
+    }
+    
+    public static final class LimitExceeded extends Exception {
+        
+        private final boolean deadline;
+        
+        LimitExceeded(boolean deadline) {
+            super(null, null, false, false);
+            this.deadline = deadline;
+        }
+        
+        /** {@code true} se esperou até o prazo; {@code false} se a fila estava cheia. */
+        public boolean isDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Chamada ao modelo recusada localmente, antes de chegar ao provedor. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LlmOverloadedException extends RuntimeException {
+    
+    private final Reason reason;
+    
+    public LlmOverloadedException(LlmWorkload workload, Reason reason) {
+        super("Modelo sobrecarregado (" + workload.name().toLowerCase() + "): " + reason.description);
+        this.reason = reason;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+    
+    public enum Reason {
+        QUEUE_FULL("fila cheia"),
+        DEADLINE("tempo de espera esgotado"),
+        RATE_LIMITED("limite de requisições por segundo");
+        
+        private final String description;
+        
+        Reason(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+/** Grupos de chamadas ao modelo, cada um com seu próprio limite de concorrência e fila. */
+public enum LlmWorkload {
+    /** Resumo e resposta automática do processamento de mensagens de chat. */
+    CHAT,
+    /** Endpoints utilitários de {@code /api/ai/*} (resumo, tradução, código). */
+    UTILITY,
+    /** Descrições geradas de produtos. */
+    PRODUCT,
+    /** Lotes de embeddings do provedor remoto. */
+    EMBEDDING
+}
@@ -0,0 +1,58 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de taxa por token bucket: {@code ratePerSecond} tokens por segundo, acumulando até
+ * {@code burst}. Quem chega com o balde vazio reserva o próximo token e espera por ele, desde
+ * que a espera termine antes do prazo.
+ */
+public final class TokenBucket {
+    
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier clock;
+    private double tokens;
+    private long refilledAt;
+    
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+    
+    // Relógio em nanossegundos substituível nos testes
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Taxa e rajada devem ser positivas");
+        }
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.capacity = burst;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.getAsLong();
+    }
+    
+    /**
+     * Reserva um token. Retorna quantos nanossegundos esperar por ele (0 se disponível), ou
+     * {@code -1} sem reservar nada se a espera passaria de {@code deadlineNanos}.
+     */
+    public synchronized long reserve(long deadlineNanos) {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long wait = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (now + wait - deadlineNanos > 0) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+    
+    public synchronized double available() {
+        long now = clock.getAsLong();
+        return Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+    }
+}
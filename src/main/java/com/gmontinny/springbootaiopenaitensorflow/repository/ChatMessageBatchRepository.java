@@ -0,0 +1,13 @@
+package com.gmontinny.springbootaiopenaitensorflow.repository;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import java.util.List;
+
+public interface ChatMessageBatchRepository {
+    
+    /**
+     * Insere as mensagens com um único JDBC batch e preenche os IDs gerados. O save do JPA
+     * não agrupa inserts com {@code GenerationType.IDENTITY}, por isso o caminho em lote é JDBC.
+     */
+    List<ChatMessage> insertAll(List<ChatMessage> messages);
+}
@@ -0,0 +1,60 @@
+package com.gmontinny.springbootaiopenaitensorflow.repository;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ChatMessageBatchRepositoryImpl implements ChatMessageBatchRepository {
+    
+    private static final String INSERT_SQL = """
+        INSERT INTO chat_messages (original_message, summary, auto_response, sentiment, sentiment_score, created_at)
+        VALUES (?, ?, ?, ?, ?, ?)""";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    @Transactional
+    public List<ChatMessage> insertAll(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    ChatMessage message = messages.get(i);
+                    statement.setString(1, message.getOriginalMessage());
+                    statement.setString(2, message.getSummary());
+                    statement.setString(3, message.getAutoResponse());
+                    statement.setString(4, message.getSentiment() != null ? message.getSentiment().name() : null);
+                    statement.setObject(5, message.getSentimentScore());
+                    statement.setTimestamp(6, Timestamp.valueOf(message.getCreatedAt()));
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return messages.size();
+                }
+            },
+            keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < messages.size(); i++) {
+            messages.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        return messages;
+    }
+}
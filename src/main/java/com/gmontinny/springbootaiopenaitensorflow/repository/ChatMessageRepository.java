@@ -1,12 +1,55 @@
 package com.gmontinny.springbootaiopenaitensorflow.repository;
 
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatMessageSummary;
 import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Listagens paginadas por keyset em {@code (createdAt, id)} decrescente, servidas pelos índices
+ * compostos de {@link ChatMessage}. O {@code createdAt <= :createdAt} redundante deixa a faixa
+ * explícita para o otimizador usar o índice.
+ */
 @Repository
-public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    List<ChatMessage> findBySentiment(ChatMessage.SentimentType sentiment);
-    List<ChatMessage> findByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>, ChatMessageBatchRepository {
+    
+    @Query("""
+        SELECT new com.gmontinny.springbootaiopenaitensorflow.dto.ChatMessageSummary(
+            m.id, SUBSTRING(m.originalMessage, 1, 120), m.sentiment, m.sentimentScore, m.createdAt)
+        FROM ChatMessage m
+        WHERE m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC""")
+    List<ChatMessageSummary> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") long id, Limit limit);
+    
+    @Query("""
+        SELECT new com.gmontinny.springbootaiopenaitensorflow.dto.ChatMessageSummary(
+            m.id, SUBSTRING(m.originalMessage, 1, 120), m.sentiment, m.sentimentScore, m.createdAt)
+        FROM ChatMessage m
+        WHERE m.sentiment = :sentiment
+          AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC""")
+    List<ChatMessageSummary> findSummariesBySentimentBefore(@Param("sentiment") ChatMessage.SentimentType sentiment,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") long id, Limit limit);
+    
+    @Query("""
+        SELECT m FROM ChatMessage m
+        WHERE m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC""")
+    List<ChatMessage> findBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
+    
+    @Query("""
+        SELECT m FROM ChatMessage m
+        WHERE m.sentiment = :sentiment
+          AND m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)
+        ORDER BY m.createdAt DESC, m.id DESC""")
+    List<ChatMessage> findBySentimentBefore(@Param("sentiment") ChatMessage.SentimentType sentiment,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") long id, Limit limit);
+}
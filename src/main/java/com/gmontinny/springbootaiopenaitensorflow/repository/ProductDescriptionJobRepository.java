@@ -0,0 +1,26 @@
+package com.gmontinny.springbootaiopenaitensorflow.repository;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ProductDescriptionJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductDescriptionJobRepository extends JpaRepository<ProductDescriptionJob, Long> {
+    
+    List<ProductDescriptionJob> findByStatusOrderByProductId(ProductDescriptionJob.Status status, Limit limit);
+    
+    long countByStatus(ProductDescriptionJob.Status status);
+    
+    @Modifying
+    @Query("""
+        UPDATE ProductDescriptionJob j SET j.status = :to, j.updatedAt = :now
+        WHERE j.status = :from""")
+    int updateStatus(@Param("from") ProductDescriptionJob.Status from, @Param("to") ProductDescriptionJob.Status to,
+                     @Param("now") LocalDateTime now);
+}
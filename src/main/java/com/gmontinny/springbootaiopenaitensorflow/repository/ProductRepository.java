@@ -1,11 +1,24 @@
 package com.gmontinny.springbootaiopenaitensorflow.repository;
 
 import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Leitura por keyset em {@code (createdAt, id)} decrescente (ver {@link ChatMessageRepository}), usada
+ * para carregar o catálogo em memória; as listagens da API saem do catálogo.
+ */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByCategory(String category);
-}
\ No newline at end of file
+    
+    @Query("""
+        SELECT p FROM Product p
+        WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id)
+        ORDER BY p.createdAt DESC, p.id DESC""")
+    List<Product> findBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id, Limit limit);
+}
@@ -0,0 +1,14 @@
+package com.gmontinny.springbootaiopenaitensorflow.repository;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.SentimentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SentimentRollupRepository extends JpaRepository<SentimentRollup, LocalDateTime> {
+    
+    List<SentimentRollup> findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(
+        LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,349 @@
+package com.gmontinny.springbootaiopenaitensorflow.search;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.TopKCollector;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória com ranking BM25.
+ * <p>
+ * Inserções são serializadas por um lock; buscas não usam lock. Cada documento recebe um
+ * número sequencial e as listas de postings só crescem no fim: o escritor grava os dados e
+ * depois publica o novo total em campos voláteis, e o leitor ignora o que estiver além do
+ * total que leu no início da busca. Cada documento guarda uma etiqueta inteira e um
+ * timestamp, usados pelos filtros durante a própria varredura dos postings.
+ */
+public class Bm25Index {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BLOCK_SHIFT = 6;
+
+    private final float k1;
+    private final float b;
+    private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> docById = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Documents documents = new Documents(INITIAL_CAPACITY);
+    private volatile long totalLength;
+    private volatile int count;
+
+    public Bm25Index() {
+        this(1.2f, 0.75f);
+    }
+
+    public Bm25Index(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /** Indexa um documento; IDs já indexados são ignorados. */
+    public void add(long id, String text, int tag, long timestamp) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        writeLock.lock();
+        try {
+            if (docById.containsKey(id)) {
+                return;
+            }
+            int doc = count;
+            Documents docs = documents;
+            if (doc == docs.ids.length) {
+                docs = docs.grow(doc * 2);
+                documents = docs;
+            }
+            docs.ids[doc] = id;
+            docs.lengths[doc] = length;
+            docs.tags[doc] = tag;
+            docs.timestamps[doc] = timestamp;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).append(doc, entry.getValue(), length);
+            }
+            totalLength += length;
+            // Publica o documento: leituras que virem o novo total enxergam tudo o que foi gravado acima
+            count = doc + 1;
+            docById.put(id, doc);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<VectorMatch> search(String query, int topK, Filter filter) {
+        int published = count;
+        Set<String> terms = new HashSet<>(tokenize(query));
+        if (published == 0 || terms.isEmpty() || topK <= 0) {
+            return List.of();
+        }
+        Documents docs = documents;
+        float averageLength = Math.max(1f, (float) totalLength / published);
+
+        // Postings visíveis de cada termo (doc < published), com o IDF calculado sobre o mesmo snapshot
+        List<Cursor> visible = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            int size = list.size;
+            int[] data = list.entries;
+            while (size > 0 && data[2 * (size - 1)] >= published) {
+                size--;
+            }
+            if (size > 0) {
+                float idf = (float) Math.log(1 + (published - size + 0.5) / (size + 0.5));
+                visible.add(new Cursor(data, list.blocks, size, idf, averageLength,
+                    list.maxFrequency, list.minLength));
+            }
+        }
+        if (visible.isEmpty()) {
+            return List.of();
+        }
+
+        // MaxScore: termos em ordem crescente de contribuição máxima; quando a soma das contribuições
+        // máximas de um prefixo não alcança o k-ésimo score, documentos só com esses termos são pulados
+        Cursor[] cursors = visible.toArray(Cursor[]::new);
+        Arrays.sort(cursors, Comparator.comparingDouble(cursor -> cursor.maxScore));
+        float[] prefixMaxScore = new float[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            prefixMaxScore[i] = (i == 0 ? 0 : prefixMaxScore[i - 1]) + cursors[i].maxScore;
+        }
+        float totalMaxScore = prefixMaxScore[cursors.length - 1];
+
+        TopKCollector collector = new TopKCollector(topK);
+        int firstEssential = 0;
+        while (firstEssential < cursors.length) {
+            // Blocos de postings cujo limite, somado ao máximo dos outros termos, não alcança o k-ésimo score
+            float threshold = collector.threshold();
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < cursors.length; i++) {
+                Cursor cursor = cursors[i];
+                cursor.skipBlocks(threshold - (totalMaxScore - cursor.maxScore));
+                doc = Math.min(doc, cursor.doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            if (filter != null && !filter.test(docs, doc)) {
+                for (int i = firstEssential; i < cursors.length; i++) {
+                    cursors[i].skip(doc);
+                }
+                continue;
+            }
+
+            float norm = k1 * (1 - b + b * docs.lengths[doc] / averageLength);
+            float score = 0;
+            for (int i = firstEssential; i < cursors.length; i++) {
+                if (cursors[i].doc() == doc) {
+                    score += cursors[i].score(norm);
+                    cursors[i].position++;
+                }
+            }
+            for (int i = firstEssential - 1; i >= 0 && score + prefixMaxScore[i] > threshold; i--) {
+                if (cursors[i].advanceTo(doc)) {
+                    score += cursors[i].score(norm);
+                }
+            }
+
+            if (score > threshold) {
+                collector.offer(docs.ids[doc], score);
+                threshold = collector.threshold();
+                while (firstEssential < cursors.length && prefixMaxScore[firstEssential] <= threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+        return collector.drainDescending();
+    }
+
+    /** Indica se o documento está indexado e passa no filtro; usado para filtrar outras buscas pelo mesmo critério. */
+    public boolean matches(long id, Filter filter) {
+        Integer doc = docById.get(id);
+        return doc != null && (filter == null || filter.test(documents, doc));
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+            .filter(token -> !token.isEmpty())
+            .toList();
+    }
+
+    /**
+     * Filtro aplicado durante a busca: etiqueta igual a {@code tag} (ou qualquer uma, se negativa)
+     * e timestamp em {@code [from, to)}.
+     */
+    public record Filter(int tag, long from, long to) {
+
+        public static final Filter ANY = new Filter(-1, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        boolean test(Documents docs, int doc) {
+            long timestamp = docs.timestamps[doc];
+            return (tag < 0 || docs.tags[doc] == tag) && timestamp >= from && timestamp < to;
+        }
+    }
+
+    private static final class Documents {
+
+        final long[] ids;
+        final int[] lengths;
+        final int[] tags;
+        final long[] timestamps;
+
+        Documents(int capacity) {
+            this(new long[capacity], new int[capacity], new int[capacity], new long[capacity]);
+        }
+
+        private Documents(long[] ids, int[] lengths, int[] tags, long[] timestamps) {
+            this.ids = ids;
+            this.lengths = lengths;
+            this.tags = tags;
+            this.timestamps = timestamps;
+        }
+
+        Documents grow(int capacity) {
+            return new Documents(Arrays.copyOf(ids, capacity), Arrays.copyOf(lengths, capacity),
+                Arrays.copyOf(tags, capacity), Arrays.copyOf(timestamps, capacity));
+        }
+    }
+
+    // Pares (documento, frequência) intercalados num único array, em ordem crescente de documento
+    private static final class Postings {
+
+        volatile int[] entries = new int[8];
+        // Por bloco de 2^BLOCK_SHIFT postings: maior frequência e menor documento (limite do score no bloco)
+        volatile int[] blocks = new int[2];
+        volatile int size;
+        volatile int maxFrequency;
+        volatile int minLength = Integer.MAX_VALUE;
+
+        // Chamado só com o lock de escrita
+        void append(int doc, int frequency, int length) {
+            int block = size >>> BLOCK_SHIFT;
+            int[] bounds = blocks;
+            if (2 * block + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                blocks = bounds;
+            }
+            if ((size & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+                bounds[2 * block] = frequency;
+                bounds[2 * block + 1] = length;
+            } else {
+                bounds[2 * block] = Math.max(bounds[2 * block], frequency);
+                bounds[2 * block + 1] = Math.min(bounds[2 * block + 1], length);
+            }
+            maxFrequency = Math.max(maxFrequency, frequency);
+            minLength = Math.min(minLength, length);
+            int[] data = entries;
+            if (2 * size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+                entries = data;
+            }
+            data[2 * size] = doc;
+            data[2 * size + 1] = frequency;
+            size = size + 1;
+        }
+    }
+
+    private final class Cursor {
+
+        final int[] data;
+        final int[] blocks;
+        final int size;
+        final float idf;
+        final float averageLength;
+        final float maxScore;
+        int position;
+        int boundBlock = -1;
+        float blockMaxScore;
+
+        Cursor(int[] data, int[] blocks, int size, float idf, float averageLength, int maxFrequency, int minLength) {
+            this.data = data;
+            this.blocks = blocks;
+            this.size = size;
+            this.idf = idf;
+            this.averageLength = averageLength;
+            this.maxScore = bound(maxFrequency, minLength);
+        }
+
+        // Score é crescente na frequência e decrescente no tamanho do documento
+        private float bound(int frequency, int length) {
+            return idf * frequency * (k1 + 1) / (frequency + k1 * (1 - b + b * length / averageLength));
+        }
+
+        void skipBlocks(float limit) {
+            while (position < size) {
+                int block = position >>> BLOCK_SHIFT;
+                if (block != boundBlock) {
+                    boundBlock = block;
+                    blockMaxScore = bound(blocks[2 * block], blocks[2 * block + 1]);
+                }
+                if (blockMaxScore > limit) {
+                    return;
+                }
+                position = (block + 1) << BLOCK_SHIFT;
+            }
+        }
+
+        int doc() {
+            return position < size ? data[2 * position] : Integer.MAX_VALUE;
+        }
+
+        float score(float norm) {
+            int frequency = data[2 * position + 1];
+            return idf * frequency * (k1 + 1) / (frequency + norm);
+        }
+
+        void skip(int doc) {
+            if (doc() == doc) {
+                position++;
+            }
+        }
+
+        // Busca exponencial seguida de binária a partir da posição atual (postings ordenados por documento)
+        boolean advanceTo(int doc) {
+            int step = 1;
+            int low = position;
+            int high = position;
+            while (high < size && data[2 * high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (data[2 * mid] < doc) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            position = low;
+            return position < size && data[2 * position] == doc;
+        }
+    }
+}
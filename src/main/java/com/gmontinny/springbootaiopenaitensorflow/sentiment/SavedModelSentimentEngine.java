@@ -0,0 +1,192 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import lombok.extern.slf4j.Slf4j;
+import org.tensorflow.Result;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.ndarray.Shape;
+import org.tensorflow.ndarray.buffer.DataBuffers;
+import org.tensorflow.proto.framework.SignatureDef;
+import org.tensorflow.proto.framework.TensorInfo;
+import org.tensorflow.types.TFloat32;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Inferência de sentimento com um SavedModel do TensorFlow.
+ * <p>
+ * O modelo é carregado uma vez e a mesma {@link Session} é reutilizada. Chamadas
+ * concorrentes a {@link #score(String)} são agrupadas por uma thread despachante em
+ * execuções de lote (até {@code maxBatchSize} textos ou {@code maxWait} após o primeiro).
+ * <p>
+ * Contrato do modelo (assinatura {@code serving_default}): entrada float
+ * {@code [lote, features]} com a contagem de tokens por índice de hashing
+ * ({@code floorMod(token.hashCode(), features)}) e saída float {@code [lote, 1]} com o
+ * score em [0, 1].
+ */
+@Slf4j
+public class SavedModelSentimentEngine implements AutoCloseable {
+    
+    private static final String SERVING_SIGNATURE = "serving_default";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private final SavedModelBundle bundle;
+    private final Session session;
+    private final String inputName;
+    private final String outputName;
+    private final int featureCount;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final BlockingQueue<PendingScore> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    
+    public SavedModelSentimentEngine(String modelPath, int maxBatchSize, Duration maxWait, int warmupRuns) {
+        this.bundle = SavedModelBundle.load(modelPath, "serve");
+        this.session = bundle.session();
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        
+        SignatureDef signature = bundle.metaGraphDef().getSignatureDefMap().get(SERVING_SIGNATURE);
+        if (signature == null || signature.getInputsCount() != 1 || signature.getOutputsCount() != 1) {
+            bundle.close();
+            throw new IllegalArgumentException(
+                "SavedModel sem assinatura '" + SERVING_SIGNATURE + "' com uma entrada e uma saída: " + modelPath);
+        }
+        TensorInfo input = signature.getInputsMap().values().iterator().next();
+        this.inputName = input.getName();
+        this.outputName = signature.getOutputsMap().values().iterator().next().getName();
+        this.featureCount = (int) input.getTensorShape().getDim(1).getSize();
+        
+        warmUp(warmupRuns);
+        this.dispatcher = Thread.ofPlatform()
+            .name("sentiment-batcher")
+            .daemon(true)
+            .start(this::dispatch);
+        log.info("Modelo de sentimento carregado de {} ({} features, lote máximo {})",
+            modelPath, featureCount, maxBatchSize);
+    }
+    
+    public double score(String text) {
+        return scoreAsync(text).join();
+    }
+    
+    public CompletableFuture<Double> scoreAsync(String text) {
+        if (!running) {
+            throw new RejectedExecutionException("Motor de sentimento encerrado");
+        }
+        PendingScore pending = new PendingScore(text, new CompletableFuture<>());
+        queue.add(pending);
+        return pending.result();
+    }
+    
+    /** Executa um lote diretamente na sessão, sem passar pela fila de agrupamento. */
+    public double[] scoreAll(List<String> texts) {
+        double[] scores = new double[texts.size()];
+        for (int from = 0; from < texts.size(); from += maxBatchSize) {
+            List<String> chunk = texts.subList(from, Math.min(from + maxBatchSize, texts.size()));
+            float[] chunkScores = run(chunk);
+            for (int i = 0; i < chunkScores.length; i++) {
+                scores[from + i] = chunkScores[i];
+            }
+        }
+        return scores;
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(maxWait.toMillis() + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingScore pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new RejectedExecutionException("Motor de sentimento encerrado"));
+        }
+        bundle.close();
+    }
+    
+    private void warmUp(int runs) {
+        // As primeiras execuções alocam kernels e memória nativa; melhor pagar isso no startup
+        List<String> sample = List.of("mensagem de aquecimento do modelo");
+        for (int i = 0; i < runs; i++) {
+            run(sample);
+        }
+    }
+    
+    private void dispatch() {
+        List<PendingScore> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingScore next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+                return;
+            }
+            
+            try {
+                float[] scores = run(batch.stream().map(PendingScore::text).toList());
+                for (int i = 0; i < scores.length; i++) {
+                    batch.get(i).result().complete((double) scores[i]);
+                }
+            } catch (RuntimeException e) {
+                log.error("Falha na inferência de sentimento para lote de {}", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+    
+    private float[] run(List<String> texts) {
+        int batchSize = texts.size();
+        float[] features = new float[batchSize * featureCount];
+        for (int row = 0; row < batchSize; row++) {
+            for (String token : TOKEN_SEPARATOR.split(texts.get(row).toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    features[row * featureCount + Math.floorMod(token.hashCode(), featureCount)] += 1f;
+                }
+            }
+        }
+        
+        // Tensores nativos são liberados ao fim do bloco, inclusive os resultados
+        try (TFloat32 input = TFloat32.tensorOf(Shape.of(batchSize, featureCount),
+                DataBuffers.of(features, true, false));
+             Result result = session.runner().feed(inputName, input).fetch(outputName).run()) {
+            TFloat32 output = (TFloat32) result.get(0);
+            float[] scores = new float[batchSize];
+            for (int row = 0; row < batchSize; row++) {
+                scores[row] = output.getFloat(row, 0);
+            }
+            return scores;
+        }
+    }
+    
+    private record PendingScore(String text, CompletableFuture<Double> result) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de sentimento em memória por hora, atualizados a cada mensagem salva sem lock
+ * (cada contador é um {@link LongAdder}, com células separadas por thread sob contenção).
+ * <p>
+ * Os contadores só crescem. Cada hora guarda também o total já gravado na tabela de
+ * agregados; a diferença entre os dois é o que falta gravar. Zerar os contadores na
+ * gravação perderia incrementos concorrentes.
+ */
+public final class SentimentCounters {
+    
+    private static final int TYPES = ChatMessage.SentimentType.values().length;
+    
+    private final ConcurrentHashMap<LocalDateTime, Bucket> buckets = new ConcurrentHashMap<>();
+    
+    public static LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+    
+    public void record(LocalDateTime createdAt, ChatMessage.SentimentType type, double score) {
+        buckets.computeIfAbsent(bucketOf(createdAt), ignored -> new Bucket()).record(type, score);
+    }
+    
+    /** Incrementos ainda não gravados, por hora em ordem crescente. */
+    public List<Pending> pending() {
+        List<Pending> pending = new ArrayList<>();
+        new TreeMap<>(buckets).forEach((start, bucket) -> {
+            SentimentTally current = bucket.snapshot();
+            SentimentTally delta = current.minus(bucket.flushed);
+            if (!delta.isEmpty()) {
+                pending.add(new Pending(start, delta, bucket, current));
+            }
+        });
+        return pending;
+    }
+    
+    /** Incrementos ainda não gravados das horas em {@code [from, to)}. */
+    public List<Pending> pending(LocalDateTime from, LocalDateTime to) {
+        return pending().stream()
+            .filter(p -> !p.start().isBefore(bucketOf(from)) && p.start().isBefore(to))
+            .toList();
+    }
+    
+    /** Registra que os incrementos de {@code pending} foram gravados. Chamado por um único escritor. */
+    public void markFlushed(List<Pending> pending) {
+        pending.forEach(p -> p.bucket.flushed = p.snapshot);
+    }
+    
+    /**
+     * Descarta horas encerradas antes de {@code cutoff} sem nada pendente. Mensagens recebem a
+     * hora de criação ao serem salvas, então uma hora antiga não recebe novos incrementos.
+     */
+    public void evictBefore(LocalDateTime cutoff) {
+        buckets.entrySet().removeIf(entry -> entry.getKey().plusHours(1).isBefore(cutoff)
+            && entry.getValue().snapshot().minus(entry.getValue().flushed).isEmpty());
+    }
+    
+    public int size() {
+        return buckets.size();
+    }
+    
+    public record Pending(LocalDateTime start, SentimentTally delta, Bucket bucket, SentimentTally snapshot) {
+    }
+    
+    public static final class Bucket {
+        
+        private final LongAdder[] counts = new LongAdder[TYPES];
+        private final LongAdder[] bins = new LongAdder[SentimentTally.BINS];
+        private final DoubleAdder scoreSum = new DoubleAdder();
+        private volatile SentimentTally flushed = new SentimentTally();
+        
+        Bucket() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+            for (int i = 0; i < bins.length; i++) {
+                bins[i] = new LongAdder();
+            }
+        }
+        
+        void record(ChatMessage.SentimentType type, double score) {
+            // Contagem por último: quem lê a contagem já enxerga o score e a faixa (ver snapshot)
+            scoreSum.add(score);
+            bins[SentimentTally.bin(score)].increment();
+            counts[type.ordinal()].increment();
+        }
+        
+        SentimentTally snapshot() {
+            long[] countValues = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                countValues[i] = counts[i].sum();
+            }
+            long[] binValues = new long[bins.length];
+            for (int i = 0; i < bins.length; i++) {
+                binValues[i] = bins[i].sum();
+            }
+            return new SentimentTally(countValues, scoreSum.sum(), binValues);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Léxico de sentimento com pesos, casado em uma única passada sobre o texto por um
+ * autômato de Aho-Corasick. O custo do casamento cresce com o tamanho do texto, não
+ * com o número de termos do léxico.
+ * <p>
+ * Cada termo conta uma vez por texto (presença), como no casamento por {@code contains}
+ * usado anteriormente. O score é {@code positivo / (positivo + negativo)}, ou 0,5 quando
+ * nenhum termo aparece. O casamento ignora maiúsculas/minúsculas e é por substring.
+ */
+public final class SentimentLexicon {
+    
+    private static final long EMPTY = -1L;
+    
+    private final String[] terms;
+    private final double[] weights;
+    private final int[] fail;
+    private final int[] outputLink;
+    private final int[] terminal;
+    private final long[] transitionKeys;
+    private final int[] transitionTargets;
+    private final int mask;
+    
+    private SentimentLexicon(Map<String, Double> lexicon) {
+        terms = lexicon.keySet().toArray(String[]::new);
+        weights = lexicon.values().stream().mapToDouble(Double::doubleValue).toArray();
+        
+        // 1. Trie dos termos (estrutura temporária, só para a construção)
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminals.add(-1);
+        int transitions = 0;
+        for (int pattern = 0; pattern < terms.length; pattern++) {
+            int state = 0;
+            for (int i = 0; i < terms[pattern].length(); i++) {
+                char ch = terms[pattern].charAt(i);
+                Integer next = children.get(state).get(ch);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(ch, next);
+                    children.add(new HashMap<>());
+                    terminals.add(-1);
+                    transitions++;
+                }
+                state = next;
+            }
+            terminals.set(state, pattern);
+        }
+        
+        int states = children.size();
+        terminal = terminals.stream().mapToInt(Integer::intValue).toArray();
+        fail = new int[states];
+        outputLink = new int[states];
+        
+        // 2. Links de falha e de saída em largura a partir da raiz
+        ArrayDeque<Integer> queue = new ArrayDeque<>(children.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                char ch = edge.getKey();
+                int target = edge.getValue();
+                int fallback = fail[state];
+                while (fallback != 0 && !children.get(fallback).containsKey(ch)) {
+                    fallback = fail[fallback];
+                }
+                Integer candidate = state == 0 ? null : children.get(fallback).get(ch);
+                fail[target] = candidate == null ? 0 : candidate;
+                outputLink[target] = terminal[fail[target]] >= 0 ? fail[target] : outputLink[fail[target]];
+                queue.add(target);
+            }
+        }
+        
+        // 3. Transições achatadas numa tabela hash de endereçamento aberto (estado, char) -> estado
+        int capacity = Integer.highestOneBit(Math.max(transitions, 8) * 2) * 2;
+        mask = capacity - 1;
+        transitionKeys = new long[capacity];
+        transitionTargets = new int[capacity];
+        Arrays.fill(transitionKeys, EMPTY);
+        for (int state = 0; state < states; state++) {
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                long key = key(state, edge.getKey());
+                int slot = slot(key);
+                while (transitionKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                transitionKeys[slot] = key;
+                transitionTargets[slot] = edge.getValue();
+            }
+        }
+    }
+    
+    public static SentimentLexicon of(Map<String, Double> termWeights) {
+        Map<String, Double> normalized = new LinkedHashMap<>();
+        termWeights.forEach((term, weight) -> {
+            String lower = lowerCase(term.strip());
+            if (!lower.isEmpty() && weight != 0.0) {
+                normalized.put(lower, weight);
+            }
+        });
+        return new SentimentLexicon(normalized);
+    }
+    
+    /**
+     * Lê um léxico no formato {@code termo<TAB>peso}, um por linha. Pesos positivos indicam
+     * sentimento positivo e negativos, negativo. Linhas vazias ou iniciadas por {@code #} são ignoradas.
+     */
+    public static SentimentLexicon load(Reader source) throws IOException {
+        Map<String, Double> termWeights = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                int separator = trimmed.lastIndexOf('\t');
+                if (separator < 0) {
+                    separator = trimmed.lastIndexOf(' ');
+                }
+                if (separator <= 0) {
+                    throw new IOException("Linha " + lineNumber + " do léxico sem peso: " + line);
+                }
+                try {
+                    termWeights.put(trimmed.substring(0, separator),
+                        Double.parseDouble(trimmed.substring(separator + 1).strip()));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Peso inválido na linha " + lineNumber + " do léxico: " + line, e);
+                }
+            }
+        }
+        return of(termWeights);
+    }
+    
+    public int size() {
+        return terms.length;
+    }
+    
+    public double score(CharSequence text) {
+        long[] seen = new long[(terms.length + 63) >>> 6];
+        double positive = 0;
+        double negative = 0;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = transition(state, ch)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+            
+            for (int match = terminal[state] >= 0 ? state : outputLink[state]; match != 0; match = outputLink[match]) {
+                int pattern = terminal[match];
+                long bit = 1L << pattern;
+                if ((seen[pattern >>> 6] & bit) != 0) {
+                    continue;
+                }
+                seen[pattern >>> 6] |= bit;
+                double weight = weights[pattern];
+                if (weight > 0) {
+                    positive += weight;
+                } else {
+                    negative -= weight;
+                }
+            }
+        }
+        double total = positive + negative;
+        return total == 0 ? 0.5 : positive / total;
+    }
+    
+    private int transition(int state, char ch) {
+        long key = key(state, ch);
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long candidate = transitionKeys[slot];
+            if (candidate == key) {
+                return transitionTargets[slot];
+            }
+            if (candidate == EMPTY) {
+                return -1;
+            }
+        }
+    }
+    
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+    
+    private static long key(int state, char ch) {
+        return ((long) state << 16) | ch;
+    }
+    
+    private static String lowerCase(String term) {
+        char[] chars = term.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,24 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+
+/** Rótulo e score de sentimento calculados numa única passada. */
+public record SentimentResult(ChatMessage.SentimentType type, double score) {
+    
+    private static final double POSITIVE_THRESHOLD = 0.6;
+    private static final double NEGATIVE_THRESHOLD = 0.4;
+    
+    public static SentimentResult fromScore(double score) {
+        if (score > POSITIVE_THRESHOLD) {
+            return new SentimentResult(ChatMessage.SentimentType.POSITIVE, score);
+        } else if (score < NEGATIVE_THRESHOLD) {
+            return new SentimentResult(ChatMessage.SentimentType.NEGATIVE, score);
+        } else {
+            return new SentimentResult(ChatMessage.SentimentType.NEUTRAL, score);
+        }
+    }
+    
+    public static SentimentResult neutral() {
+        return new SentimentResult(ChatMessage.SentimentType.NEUTRAL, 0.5);
+    }
+}
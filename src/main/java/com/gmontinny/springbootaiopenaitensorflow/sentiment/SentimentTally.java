@@ -0,0 +1,115 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+
+import java.util.Arrays;
+
+/**
+ * Agregado de sentimento de um intervalo: contagem por rótulo, soma dos scores e um
+ * histograma dos scores em {@value #BINS} faixas iguais de [0, 1]. O histograma é um
+ * sketch combinável: somar os agregados de vários intervalos dá o agregado da união, e
+ * os percentis saem dele com erro máximo de {@code 1 / BINS}.
+ */
+public final class SentimentTally {
+    
+    public static final int BINS = 100;
+    
+    private static final ChatMessage.SentimentType[] TYPES = ChatMessage.SentimentType.values();
+    
+    private final long[] counts;
+    private final long[] bins;
+    private double scoreSum;
+    
+    public SentimentTally() {
+        this(new long[TYPES.length], 0, new long[BINS]);
+    }
+    
+    public SentimentTally(long[] counts, double scoreSum, long[] bins) {
+        if (counts.length != TYPES.length || bins.length != BINS) {
+            throw new IllegalArgumentException("Agregado com " + counts.length + " rótulos e " + bins.length + " faixas");
+        }
+        this.counts = counts;
+        this.scoreSum = scoreSum;
+        this.bins = bins;
+    }
+    
+    public static int bin(double score) {
+        return (int) Math.clamp(Math.floor(score * BINS), 0, BINS - 1);
+    }
+    
+    public void record(ChatMessage.SentimentType type, double score) {
+        counts[type.ordinal()]++;
+        scoreSum += score;
+        bins[bin(score)]++;
+    }
+    
+    public SentimentTally add(SentimentTally other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = 0; i < BINS; i++) {
+            bins[i] += other.bins[i];
+        }
+        scoreSum += other.scoreSum;
+        return this;
+    }
+    
+    /** Diferença {@code this - other}, sem alterar nenhum dos dois. */
+    public SentimentTally minus(SentimentTally other) {
+        long[] countDelta = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            countDelta[i] = counts[i] - other.counts[i];
+        }
+        long[] binDelta = new long[BINS];
+        for (int i = 0; i < BINS; i++) {
+            binDelta[i] = bins[i] - other.bins[i];
+        }
+        return new SentimentTally(countDelta, scoreSum - other.scoreSum, binDelta);
+    }
+    
+    public long count(ChatMessage.SentimentType type) {
+        return counts[type.ordinal()];
+    }
+    
+    public long total() {
+        return Arrays.stream(counts).sum();
+    }
+    
+    public double scoreSum() {
+        return scoreSum;
+    }
+    
+    public boolean isEmpty() {
+        return total() == 0;
+    }
+    
+    public Double averageScore() {
+        long total = total();
+        return total == 0 ? null : scoreSum / total;
+    }
+    
+    /** Percentil {@code q} (0 a 1) do score, pelo centro da faixa onde ele cai; {@code null} sem amostras. */
+    public Double percentile(double q) {
+        long total = Arrays.stream(bins).sum();
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen >= rank) {
+                return (i + 0.5) / BINS;
+            }
+        }
+        return (BINS - 0.5) / BINS;
+    }
+    
+    public long[] counts() {
+        return counts.clone();
+    }
+    
+    public long[] bins() {
+        return bins.clone();
+    }
+}
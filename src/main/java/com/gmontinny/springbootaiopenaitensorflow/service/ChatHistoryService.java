@@ -0,0 +1,55 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatMessageSummary;
+import com.gmontinny.springbootaiopenaitensorflow.dto.CursorPage;
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/** Histórico de mensagens paginado por keyset, do mais recente para o mais antigo. */
+@Service
+@RequiredArgsConstructor
+public class ChatHistoryService {
+    
+    private final ChatMessageRepository chatMessageRepository;
+    private final KeysetPaginator paginator;
+    
+    /** Projeção leve; {@code sentiment} opcional. */
+    public CursorPage<ChatMessageSummary> summaries(ChatMessage.SentimentType sentiment, String cursor, int size) {
+        return paginator.page(cursor, size,
+            (position, limit) -> sentiment == null
+                ? chatMessageRepository.findSummariesBefore(position.createdAt(), position.id(), limit)
+                : chatMessageRepository.findSummariesBySentimentBefore(sentiment, position.createdAt(), position.id(), limit),
+            summary -> new PageCursor(summary.getCreatedAt(), summary.getId()));
+    }
+    
+    /** Mensagens completas, com resumo e resposta automática. */
+    public CursorPage<ChatMessage> messages(ChatMessage.SentimentType sentiment, String cursor, int size) {
+        return paginator.page(cursor, size,
+            (position, limit) -> findBefore(sentiment, position, limit),
+            ChatHistoryService::positionOf);
+    }
+    
+    public void export(ChatMessage.SentimentType sentiment, OutputStream output) throws IOException {
+        paginator.exportJsonArray(output,
+            (position, limit) -> findBefore(sentiment, position, limit),
+            ChatHistoryService::positionOf);
+    }
+    
+    private List<ChatMessage> findBefore(ChatMessage.SentimentType sentiment, PageCursor position, Limit limit) {
+        return sentiment == null
+            ? chatMessageRepository.findBefore(position.createdAt(), position.id(), limit)
+            : chatMessageRepository.findBySentimentBefore(sentiment, position.createdAt(), position.id(), limit);
+    }
+    
+    private static PageCursor positionOf(ChatMessage message) {
+        return new PageCursor(message.getCreatedAt(), message.getId());
+    }
+}
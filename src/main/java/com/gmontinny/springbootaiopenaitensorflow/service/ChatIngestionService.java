@@ -0,0 +1,311 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatIngestionResult;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatRequest;
+import com.gmontinny.springbootaiopenaitensorflow.dto.MessageAnalysis;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentResult;
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ingestão em lote de mensagens de chat (NDJSON ou array JSON) num pipeline por etapas:
+ * LLM com concorrência limitada → sentimento em lote → insert JDBC em lote → embeddings e vetores em lote.
+ * <p>
+ * Cada etapa tem sua própria fila limitada (prefetch do Reactor); quando uma etapa atrasa,
+ * a demanda para de subir e a leitura do corpo da requisição pausa. Falhas são registradas
+ * no item e o lote continua; o resultado de cada item é emitido assim que ele sai do pipeline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatIngestionService {
+    
+    private final OpenAIService openAIService;
+    private final TensorFlowService tensorFlowService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MilvusService milvusService;
+    private final SemanticSearchService semanticSearchService;
+    private final SentimentAnalyticsService sentimentAnalyticsService;
+    private final ObjectMapper objectMapper;
+    private final PipelineObservations observations;
+    private final ExecutorService aiTaskExecutor;
+    
+    @Value("${app.chat.ingestion.llm-concurrency:8}")
+    private int llmConcurrency;
+    
+    @Value("${app.chat.ingestion.stage-buffer:256}")
+    private int stageBuffer;
+    
+    @Value("${app.chat.ingestion.sentiment-batch-size:64}")
+    private int sentimentBatchSize;
+    
+    @Value("${app.chat.ingestion.db-batch-size:200}")
+    private int dbBatchSize;
+    
+    @Value("${app.chat.ingestion.flush-interval:200ms}")
+    private Duration flushInterval;
+    
+    @Value("${app.chat.pipeline.llm-timeout:30s}")
+    private Duration llmTimeout;
+    
+    private Scheduler readerScheduler;
+    
+    @PostConstruct
+    public void init() {
+        readerScheduler = Schedulers.fromExecutorService(aiTaskExecutor, "chat-ingestion");
+    }
+    
+    public Flux<ChatIngestionResult> ingest(InputStream body) {
+        return readItems(body)
+            // 1. LLM: resumo e resposta automática, até llmConcurrency itens em paralelo
+            .flatMapSequential(this::enrich, llmConcurrency, stageBuffer)
+            // 2. Sentimento em lotes (uma execução da sessão do TensorFlow por lote)
+            .bufferTimeout(sentimentBatchSize, flushInterval, true)
+            .concatMap(batch -> stage("sentiment-batch", () -> scoreSentiment(batch)), prefetch(sentimentBatchSize))
+            .flatMapIterable(batch -> batch)
+            // 3. Insert JDBC em lote e 4. embeddings e vetores em lote, cada um com sua fila
+            .bufferTimeout(dbBatchSize, flushInterval, true)
+            .concatMap(batch -> stage("db-batch", () -> insertRows(batch)), prefetch(dbBatchSize))
+            .concatMap(batch -> stage("vector-batch", () -> indexEmbeddings(batch)), prefetch(dbBatchSize))
+            .flatMapIterable(batch -> batch)
+            .map(Item::toResult);
+    }
+    
+    // O corpo é lido sob demanda: NDJSON (objetos na raiz) ou um array JSON
+    private Flux<Item> readItems(InputStream body) {
+        AtomicLong index = new AtomicLong();
+        return Flux.using(
+                () -> objectMapper.readerFor(ChatRequest.class).<ChatRequest>readValues(body),
+                iterator -> Flux.fromIterable(() -> iterator),
+                ChatIngestionService::closeQuietly)
+            .map(request -> new Item(index.getAndIncrement(), request.getMessage()))
+            .onErrorResume(e -> {
+                // JSON malformado: o restante do corpo não pode ser lido, mas os itens anteriores seguem
+                log.warn("Ingestão interrompida no item {}: {}", index.get(), e.getMessage());
+                Item invalid = new Item(index.getAndIncrement(), null);
+                invalid.fail("JSON inválido: " + e.getMessage());
+                return Mono.just(invalid);
+            })
+            .subscribeOn(readerScheduler);
+    }
+    
+    private Mono<Item> enrich(Item item) {
+        if (item.message == null || item.message.isBlank()) {
+            if (item.status != ChatIngestionResult.Status.FAILED) {
+                item.fail("Mensagem não pode estar vazia");
+            }
+            return Mono.just(item);
+        }
+        CompletableFuture<Optional<MessageAnalysis>> analysis = openAIService.isCombinedAnalysis(item.message)
+            ? runStep("analysis", () -> openAIService.analyzeMessage(item.message), llmTimeout)
+            : null;
+        CompletableFuture<String> summary = llmStep(analysis, MessageAnalysis::summary,
+            "summary", () -> openAIService.summarizeText(item.message));
+        CompletableFuture<String> autoResponse = llmStep(analysis, MessageAnalysis::autoResponse,
+            "auto-response", () -> openAIService.generateAutoResponse(item.message));
+        
+        return Mono.fromFuture(CompletableFuture.allOf(summary, autoResponse)
+            .handle((ignored, e) -> {
+                item.summary = item.resultOrFallback("resumo", summary,
+                    () -> ChatService.fallbackSummary(item.message));
+                item.autoResponse = item.resultOrFallback("resposta automática", autoResponse,
+                    () -> ChatService.FALLBACK_AUTO_RESPONSE);
+                // Sentimento já vindo da análise combinada dispensa o item do lote do TensorFlow
+                if (analysis != null && !analysis.isCompletedExceptionally()) {
+                    item.sentiment = analysis.join().flatMap(MessageAnalysis::sentimentResult).orElse(null);
+                }
+                return item;
+            }));
+    }
+    
+    private List<Item> scoreSentiment(List<Item> batch) {
+        List<Item> active = batch.stream().filter(item -> item.isActive() && item.sentiment == null).toList();
+        if (active.isEmpty()) {
+            return batch;
+        }
+        try {
+            List<SentimentResult> results = tensorFlowService.analyzeAll(active.stream().map(item -> item.message).toList());
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).sentiment = results.get(i);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Sentimento em lote falhou para {} itens: {}", active.size(), e.getMessage());
+            active.forEach(item -> {
+                item.sentiment = SentimentResult.neutral();
+                item.degrade("sentimento: " + e.getMessage());
+            });
+        }
+        return batch;
+    }
+    
+    private List<Item> insertRows(List<Item> batch) {
+        List<Item> active = batch.stream().filter(Item::isActive).toList();
+        if (active.isEmpty()) {
+            return batch;
+        }
+        try {
+            List<ChatMessage> saved = chatMessageRepository.insertAll(active.stream().map(Item::toEntity).toList());
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).messageId = saved.get(i).getId();
+            }
+            saved.forEach(semanticSearchService::index);
+            saved.forEach(sentimentAnalyticsService::record);
+        } catch (RuntimeException e) {
+            // Refaz item a item para isolar as linhas problemáticas sem perder o resto do lote
+            log.warn("Insert em lote de {} mensagens falhou, repetindo individualmente: {}", active.size(), e.getMessage());
+            for (Item item : active) {
+                try {
+                    ChatMessage saved = chatMessageRepository.insertAll(List.of(item.toEntity())).get(0);
+                    item.messageId = saved.getId();
+                    semanticSearchService.index(saved);
+                    sentimentAnalyticsService.record(saved);
+                } catch (RuntimeException itemError) {
+                    item.fail("banco de dados: " + itemError.getMessage());
+                }
+            }
+        }
+        log.info("Ingestão: {} mensagens salvas até o item {}",
+            active.stream().filter(item -> item.messageId != null).count(), batch.get(batch.size() - 1).index);
+        return batch;
+    }
+    
+    // Um único pedido de embeddings para o lote inteiro (o provedor remoto agrupa vários textos por requisição)
+    private List<Item> indexEmbeddings(List<Item> batch) {
+        List<Item> indexable = batch.stream()
+            .filter(item -> item.isActive() && item.messageId != null)
+            .toList();
+        if (indexable.isEmpty()) {
+            return batch;
+        }
+        try {
+            List<Embedding> embeddings = openAIService.generateEmbeddings(
+                indexable.stream().map(item -> item.message).toList());
+            milvusService.storeEmbeddings(indexable.stream().map(item -> item.messageId).toList(), embeddings);
+        } catch (RuntimeException e) {
+            log.warn("Embeddings em lote de {} mensagens falharam: {}", indexable.size(), e.getMessage());
+            indexable.forEach(item -> item.degrade("embedding: " + e.getMessage()));
+        }
+        return batch;
+    }
+    
+    // Com a análise combinada, a chamada separada só acontece se a saída estruturada veio inválida
+    private CompletableFuture<String> llmStep(CompletableFuture<Optional<MessageAnalysis>> analysis,
+                                              Function<MessageAnalysis, String> field, String stage,
+                                              Supplier<String> separateCall) {
+        if (analysis == null) {
+            return runStep(stage, separateCall, llmTimeout);
+        }
+        return analysis.thenCompose(result -> result
+            .map(field)
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> runStep(stage, separateCall, llmTimeout)));
+    }
+    
+    // Etapas bloqueantes rodam no executor de virtual threads, fora das threads do Reactor
+    private <T> Mono<T> stage(String stage, Supplier<T> work) {
+        return Mono.fromFuture(() -> CompletableFuture.supplyAsync(
+            () -> observations.stage(stage, work), aiTaskExecutor));
+    }
+    
+    private <T> CompletableFuture<T> runStep(String stage, Supplier<T> step, Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> observations.stage(stage, step), aiTaskExecutor)
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    // Fila de cada etapa em lotes, equivalente a ~stageBuffer itens
+    private int prefetch(int batchSize) {
+        return Math.max(1, stageBuffer / batchSize);
+    }
+    
+    private static void closeQuietly(MappingIterator<ChatRequest> iterator) {
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            log.debug("Falha ao fechar leitura da ingestão: {}", e.getMessage());
+        }
+    }
+    
+    private static final class Item {
+        
+        final long index;
+        final String message;
+        final List<String> errors = new ArrayList<>();
+        ChatIngestionResult.Status status = ChatIngestionResult.Status.PROCESSED;
+        String summary;
+        String autoResponse;
+        SentimentResult sentiment;
+        Long messageId;
+        
+        Item(long index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+        
+        boolean isActive() {
+            return status != ChatIngestionResult.Status.FAILED;
+        }
+        
+        void fail(String error) {
+            status = ChatIngestionResult.Status.FAILED;
+            errors.add(error);
+        }
+        
+        void degrade(String error) {
+            if (isActive()) {
+                status = ChatIngestionResult.Status.DEGRADED;
+            }
+            errors.add(error);
+        }
+        
+        <T> T resultOrFallback(String step, CompletableFuture<T> future, Supplier<T> fallback) {
+            try {
+                return future.join();
+            } catch (Exception e) {
+                degrade(step + ": " + e.getMessage());
+                return fallback.get();
+            }
+        }
+        
+        ChatMessage toEntity() {
+            ChatMessage chatMessage = new ChatMessage();
+            chatMessage.setOriginalMessage(message);
+            chatMessage.setSummary(summary);
+            chatMessage.setAutoResponse(autoResponse);
+            chatMessage.setSentiment(sentiment.type());
+            chatMessage.setSentimentScore(sentiment.score());
+            return chatMessage;
+        }
+        
+        ChatIngestionResult toResult() {
+            return new ChatIngestionResult(index, status, messageId,
+                sentiment != null ? sentiment.type() : null,
+                sentiment != null ? sentiment.score() : null,
+                errors.isEmpty() ? null : List.copyOf(errors));
+        }
+    }
+}
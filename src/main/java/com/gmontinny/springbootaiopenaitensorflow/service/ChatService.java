@@ -1,59 +1,281 @@
 package com.gmontinny.springbootaiopenaitensorflow.service;
 
+import com.gmontinny.springbootaiopenaitensorflow.cache.SemanticResponseCache;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ChatRequest;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ChatResponse;
+import com.gmontinny.springbootaiopenaitensorflow.dto.MessageAnalysis;
+import com.gmontinny.springbootaiopenaitensorflow.dto.StreamToken;
 import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
 import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentResult;
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatService {
     
+    static final String FALLBACK_AUTO_RESPONSE =
+        "Recebemos sua mensagem e retornaremos em breve.";
+    private static final int FALLBACK_SUMMARY_LENGTH = 200;
+    
     private final OpenAIService openAIService;
     private final TensorFlowService tensorFlowService;
     private final ChatMessageRepository chatMessageRepository;
     private final MilvusService milvusService;
+    private final SemanticSearchService semanticSearchService;
+    private final SentimentAnalyticsService sentimentAnalyticsService;
+    private final SemanticResponseCache semanticCache;
+    private final PipelineObservations observations;
+    private final ExecutorService aiTaskExecutor;
+    
+    @Value("${app.chat.pipeline.llm-timeout:30s}")
+    private Duration llmTimeout;
+    
+    @Value("${app.chat.pipeline.sentiment-timeout:2s}")
+    private Duration sentimentTimeout;
     
-    @Transactional
+    @Value("${app.chat.pipeline.embedding-timeout:10s}")
+    private Duration embeddingTimeout;
+    
+    // Sem @Transactional: a conexão JDBC só é usada no save, depois que todas as etapas terminam
     public ChatResponse processMessage(ChatRequest request) {
-        log.info("Processando mensagem: {}", request.getMessage());
+        String message = request.getMessage();
+        log.info("Processando mensagem: {}", message);
+        
+        // 1. Disparar as etapas independentes em paralelo (fan-out)
+        CompletableFuture<SentimentResult> sentimentFuture = runStep("sentiment",
+            () -> tensorFlowService.analyze(message), sentimentTimeout);
+        
+        CompletableFuture<Embedding> embeddingFuture = runStep("embedding",
+            () -> openAIService.generateEmbedding(message), embeddingTimeout);
+        
+        // 2. Mensagem semanticamente equivalente a uma já respondida dispensa as chamadas ao LLM
+        Optional<SemanticResponseCache.Hit> cached = semanticCache.isEnabled()
+            ? lookupSemanticCache(embeddingFuture)
+            : Optional.empty();
+        
+        // Modo combinado: resumo e resposta automática (e o sentimento, se configurado) numa só chamada;
+        // mensagens longas demais para uma chamada vão para o resumo em trechos
+        CompletableFuture<Optional<MessageAnalysis>> analysisFuture =
+            cached.isEmpty() && openAIService.isCombinedAnalysis(message)
+                ? runStep("analysis", () -> openAIService.analyzeMessage(message), llmTimeout)
+                : null;
+        
+        CompletableFuture<String> summaryFuture = cached
+            .map(hit -> CompletableFuture.completedFuture(hit.summary()))
+            .orElseGet(() -> llmStep(analysisFuture, MessageAnalysis::summary,
+                "summary", () -> openAIService.summarizeText(message)));
+        
+        CompletableFuture<String> autoResponseFuture = cached
+            .map(hit -> CompletableFuture.completedFuture(hit.autoResponse()))
+            .orElseGet(() -> llmStep(analysisFuture, MessageAnalysis::autoResponse,
+                "auto-response", () -> openAIService.generateAutoResponse(message)));
+        
+        // 3. Aguardar todos os resultados (fan-in)
+        CompletableFuture.allOf(summaryFuture, autoResponseFuture, sentimentFuture, embeddingFuture)
+            .exceptionally(e -> null)
+            .join();
+        
+        boolean llmSucceeded = !summaryFuture.isCompletedExceptionally()
+            && !autoResponseFuture.isCompletedExceptionally();
+        String summary = resultOrFallback("resumo", summaryFuture, () -> fallbackSummary(message));
+        String autoResponse = resultOrFallback("resposta automática", autoResponseFuture,
+            () -> FALLBACK_AUTO_RESPONSE);
+        SentimentResult sentiment = llmSentiment(analysisFuture)
+            .orElseGet(() -> resultOrFallback("sentimento", sentimentFuture, () -> SentimentResult.neutral()));
+        Embedding embedding = resultOrFallback("embedding", embeddingFuture, () -> null);
         
-        // 1. Resumir usando OpenAI
-        String summary = openAIService.summarizeText(request.getMessage());
+        saveAndIndex(message, summary, autoResponse, sentiment, embedding, cached.isEmpty() && llmSucceeded);
         
-        // 2. Gerar resposta automática usando OpenAI
-        String autoResponse = openAIService.generateAutoResponse(request.getMessage());
+        return new ChatResponse(summary, autoResponse, sentiment.type(), sentiment.score());
+    }
+    
+    /**
+     * Variante em streaming: os tokens de resumo e resposta automática são emitidos como
+     * eventos SSE ({@code summary} / {@code auto-response}) conforme chegam do modelo. A
+     * mensagem é montada incrementalmente e persistida ao final, no evento {@code done}.
+     */
+    public Flux<ServerSentEvent<Object>> processMessageStream(ChatRequest request) {
+        String message = request.getMessage();
+        log.info("Processando mensagem em streaming: {}", message);
+        
+        Mono<SentimentResult> sentimentMono = Mono.fromFuture(() -> runStep("sentiment",
+                () -> tensorFlowService.analyze(message), sentimentTimeout))
+            .onErrorResume(e -> {
+                log.warn("Etapa 'sentimento' falhou, usando fallback: {}", e.getMessage());
+                return Mono.just(SentimentResult.neutral());
+            })
+            .cache();
+        
+        Mono<Optional<Embedding>> embeddingMono = Mono.fromFuture(() -> runStep("embedding",
+                () -> openAIService.generateEmbedding(message), embeddingTimeout))
+            .map(Optional::of)
+            .onErrorResume(e -> {
+                log.warn("Etapa 'embedding' falhou: {}", e.getMessage());
+                return Mono.just(Optional.empty());
+            })
+            .cache();
         
-        // 3. Analisar sentimento usando TensorFlow
-        ChatMessage.SentimentType sentiment = tensorFlowService.analyzeSentiment(request.getMessage());
-        double sentimentScore = tensorFlowService.calculateSentimentScore(request.getMessage());
+        Mono<Optional<SemanticResponseCache.Hit>> cacheMono = semanticCache.isEnabled()
+            ? embeddingMono.map(embedding -> embedding.flatMap(this::lookupSemanticCache))
+            : Mono.just(Optional.empty());
         
-        // 4. Salvar no banco de dados
+        return cacheMono.flatMapMany(cached -> {
+            StringBuilder summary = new StringBuilder();
+            StringBuilder autoResponse = new StringBuilder();
+            AtomicBoolean degraded = new AtomicBoolean();
+            
+            Flux<ServerSentEvent<Object>> summaryEvents = cached
+                .map(hit -> Flux.just(hit.summary()))
+                .orElseGet(() -> streamStep("resumo", openAIService.summarizeTextStream(message),
+                    () -> fallbackSummary(message), degraded))
+                .doOnNext(summary::append)
+                .map(token -> StreamToken.event("summary", token));
+            
+            Flux<ServerSentEvent<Object>> autoResponseEvents = cached
+                .map(hit -> Flux.just(hit.autoResponse()))
+                .orElseGet(() -> streamStep("resposta automática", openAIService.generateAutoResponseStream(message),
+                    () -> FALLBACK_AUTO_RESPONSE, degraded))
+                .doOnNext(autoResponse::append)
+                .map(token -> StreamToken.event("auto-response", token));
+            
+            // O save é bloqueante: roda no executor de virtual threads, fora das threads do Reactor
+            Mono<ServerSentEvent<Object>> done = Mono.zip(sentimentMono, embeddingMono)
+                .flatMap(results -> Mono.fromFuture(CompletableFuture.supplyAsync(() -> saveAndIndex(
+                    message, summary.toString(), autoResponse.toString(), results.getT1(),
+                    results.getT2().orElse(null), cached.isEmpty() && !degraded.get()), aiTaskExecutor))
+                    .map(saved -> ServerSentEvent.<Object>builder()
+                        .event("done")
+                        .id(String.valueOf(saved.getId()))
+                        .data(new ChatResponse(saved.getSummary(), saved.getAutoResponse(),
+                            saved.getSentiment(), saved.getSentimentScore()))
+                        .build()));
+            
+            return Flux.merge(summaryEvents, autoResponseEvents).concatWith(done);
+        });
+    }
+    
+    private ChatMessage saveAndIndex(String message, String summary, String autoResponse,
+                                     SentimentResult sentiment, Embedding embedding, boolean cacheable) {
+        // Respostas de fallback não entram no cache semântico
+        if (cacheable && embedding != null) {
+            semanticCache.put(embedding, summary, autoResponse);
+        }
+        
+        // Salvar no banco de dados (transação curta do próprio repositório)
         ChatMessage chatMessage = new ChatMessage();
-        chatMessage.setOriginalMessage(request.getMessage());
+        chatMessage.setOriginalMessage(message);
         chatMessage.setSummary(summary);
         chatMessage.setAutoResponse(autoResponse);
-        chatMessage.setSentiment(sentiment);
-        chatMessage.setSentimentScore(sentimentScore);
+        chatMessage.setSentiment(sentiment.type());
+        chatMessage.setSentimentScore(sentiment.score());
         
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
+        ChatMessage savedMessage = observations.stage("db-save", () -> chatMessageRepository.save(chatMessage));
+        semanticSearchService.index(savedMessage);
+        sentimentAnalyticsService.record(savedMessage);
         
-        // 5. Gerar e armazenar embedding no Milvus para busca semântica
-        try {
-            List<Float> embedding = openAIService.generateEmbedding(request.getMessage());
-            milvusService.storeEmbedding(savedMessage.getId(), embedding);
-        } catch (Exception e) {
-            log.warn("Falha ao armazenar embedding: {}", e.getMessage());
+        // Armazenar embedding no Milvus para busca semântica
+        if (embedding != null) {
+            try {
+                observations.stage("vector-store", () -> milvusService.storeEmbedding(savedMessage.getId(), embedding));
+            } catch (Exception e) {
+                log.warn("Falha ao armazenar embedding: {}", e.getMessage());
+            }
         }
         
         log.info("Mensagem processada e salva com ID: {}", savedMessage.getId());
-        
-        return new ChatResponse(summary, autoResponse, sentiment, sentimentScore);
+        return savedMessage;
+    }
+    
+    private Flux<String> streamStep(String name, Flux<String> tokens, Supplier<String> fallback,
+                                    AtomicBoolean degraded) {
+        AtomicBoolean emitted = new AtomicBoolean();
+        return tokens
+            .timeout(llmTimeout)
+            .doOnNext(token -> emitted.set(true))
+            .onErrorResume(e -> {
+                log.warn("Etapa '{}' falhou no streaming: {}", name, e.getMessage());
+                degraded.set(true);
+                // Tokens já enviados ao cliente não são repetidos
+                return emitted.get() ? Flux.empty() : Flux.just(fallback.get());
+            });
+    }
+    
+    private Optional<SemanticResponseCache.Hit> lookupSemanticCache(CompletableFuture<Embedding> embeddingFuture) {
+        try {
+            return lookupSemanticCache(embeddingFuture.join());
+        } catch (Exception e) {
+            log.warn("Cache semântico indisponível para esta mensagem: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    private Optional<SemanticResponseCache.Hit> lookupSemanticCache(Embedding embedding) {
+        try {
+            return semanticCache.lookup(embedding);
+        } catch (Exception e) {
+            log.warn("Cache semântico indisponível para esta mensagem: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    // Sem análise combinada (modo separate ou resposta do cache semântico) cada texto tem sua chamada;
+    // com ela, a chamada separada só acontece se a saída estruturada veio inválida
+    private CompletableFuture<String> llmStep(CompletableFuture<Optional<MessageAnalysis>> analysisFuture,
+                                              Function<MessageAnalysis, String> field, String stage,
+                                              Supplier<String> separateCall) {
+        if (analysisFuture == null) {
+            return runStep(stage, separateCall, llmTimeout);
+        }
+        return analysisFuture.thenCompose(analysis -> analysis
+            .map(field)
+            .map(CompletableFuture::completedFuture)
+            .orElseGet(() -> runStep(stage, separateCall, llmTimeout)));
+    }
+    
+    // Sentimento do modelo, quando pedido na análise combinada e válido; senão vale o do TensorFlow
+    private static Optional<SentimentResult> llmSentiment(CompletableFuture<Optional<MessageAnalysis>> analysisFuture) {
+        if (analysisFuture == null || !analysisFuture.isDone() || analysisFuture.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return analysisFuture.join().flatMap(MessageAnalysis::sentimentResult);
+    }
+    
+    // Cada etapa vira um timer/span "ai.pipeline.stage" com a tag stage
+    private <T> CompletableFuture<T> runStep(String stage, Supplier<T> step, Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> observations.stage(stage, step), aiTaskExecutor)
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    private static <T> T resultOrFallback(String name, CompletableFuture<T> future, Supplier<T> fallback) {
+        try {
+            return future.join();
+        } catch (Exception e) {
+            log.warn("Etapa '{}' falhou, usando fallback: {}", name, e.getMessage());
+            return fallback.get();
+        }
+    }
+    
+    static String fallbackSummary(String message) {
+        return message.length() <= FALLBACK_SUMMARY_LENGTH
+            ? message
+            : message.substring(0, FALLBACK_SUMMARY_LENGTH) + "...";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gmontinny.springbootaiopenaitensorflow.embedding.EmbeddingProvider;
+import com.gmontinny.springbootaiopenaitensorflow.embedding.HashingEmbeddingEngine;
+import com.gmontinny.springbootaiopenaitensorflow.embedding.RemoteEmbeddingProvider;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmWorkload;
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Embeddings de mensagens e consultas. {@code app.embedding.provider} escolhe o motor: local
+ * (n-gramas com hashing, em CPU, sem rede) ou remote (modelo de embeddings do Spring AI, vários
+ * textos por requisição). Os vetores de textos recentes ficam num cache em memória, na frente
+ * dos dois.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddingService implements MeterBinder {
+    
+    private final LlmGovernor governor;
+    private final PipelineObservations observations;
+    private final ObjectProvider<EmbeddingModel> embeddingModel;
+    
+    @Value("${app.embedding.provider:local}")
+    private ProviderType providerType = ProviderType.LOCAL;
+    
+    @Value("${app.vector-store.dimension:1536}")
+    private int dimension = 1536;
+    
+    @Value("${app.embedding.remote.max-batch-size:256}")
+    private int maxBatchSize = 256;
+    
+    @Value("${app.embedding.cache.enabled:true}")
+    private boolean cacheEnabled = true;
+    
+    @Value("${app.embedding.cache.maximum-size:10000}")
+    private long cacheMaximumSize = 10000;
+    
+    private EmbeddingProvider provider;
+    private Cache<String, Embedding> cache;
+    
+    @PostConstruct
+    public void init() {
+        provider = switch (providerType) {
+            case LOCAL -> new HashingEmbeddingEngine(dimension);
+            case REMOTE -> {
+                EmbeddingModel model = embeddingModel.getIfAvailable();
+                if (model == null) {
+                    throw new IllegalStateException("app.embedding.provider=remote exige um EmbeddingModel configurado");
+                }
+                yield new RemoteEmbeddingProvider(batch -> governor.call(LlmWorkload.EMBEDDING,
+                    () -> observations.llmCall("embed", "embedding", () -> model.embed(batch))), maxBatchSize, dimension);
+            }
+        };
+        if (cacheEnabled) {
+            cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .recordStats()
+                .build();
+        }
+        log.info("Embeddings: provedor {} com {} dimensões", providerType.name().toLowerCase(), dimension);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "embeddings");
+        }
+    }
+    
+    public Embedding embed(String text) {
+        String key = Objects.requireNonNullElse(text, "");
+        return cache == null ? provider.embed(key) : cache.get(key, provider::embed);
+    }
+    
+    /**
+     * Embeddings na ordem dos textos. Só os que não estão no cache vão ao provedor, todos numa
+     * única chamada de lote (repetidos contam uma vez).
+     */
+    public List<Embedding> embedAll(List<String> texts) {
+        List<String> keys = texts.stream().map(text -> Objects.requireNonNullElse(text, "")).toList();
+        if (cache == null) {
+            return provider.embedAll(keys);
+        }
+        Map<String, Embedding> embeddings = cache.getAll(keys, missing -> {
+            List<String> pending = List.copyOf(missing);
+            List<Embedding> computed = provider.embedAll(pending);
+            Map<String, Embedding> loaded = new HashMap<>(pending.size() * 2);
+            for (int i = 0; i < pending.size(); i++) {
+                loaded.put(pending.get(i), computed.get(i));
+            }
+            return loaded;
+        });
+        List<Embedding> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            result.add(embeddings.get(key));
+        }
+        return result;
+    }
+    
+    public int dimension() {
+        return dimension;
+    }
+    
+    public enum ProviderType {
+        LOCAL, REMOTE
+    }
+}
@@ -0,0 +1,84 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gmontinny.springbootaiopenaitensorflow.dto.CursorPage;
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Monta páginas por keyset a partir de consultas "antes do cursor" e exporta listagens
+ * inteiras como um array JSON escrito lote a lote, sem manter o resultado em memória.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetPaginator {
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.pagination.max-size:500}")
+    private int maxPageSize;
+    
+    @Value("${app.pagination.export-batch-size:500}")
+    private int exportBatchSize;
+    
+    /**
+     * Busca {@code size + 1} linhas: a linha extra só indica se há próxima página, sem uma
+     * consulta de contagem.
+     */
+    public <T> CursorPage<T> page(String cursor, int size, BiFunction<PageCursor, Limit, List<T>> query,
+                                  Function<T, PageCursor> positionOf) {
+        int pageSize = pageSize(size);
+        List<T> rows = query.apply(parse(cursor), Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, positionOf.apply(items.get(pageSize - 1)).encode());
+    }
+    
+    /** Tamanho de página pedido, limitado a {@code app.pagination.max-size}. */
+    public int pageSize(int size) {
+        return Math.clamp(size, 1, maxPageSize);
+    }
+    
+    public <T> void exportJsonArray(OutputStream output, BiFunction<PageCursor, Limit, List<T>> query,
+                                    Function<T, PageCursor> positionOf) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            PageCursor position = PageCursor.FIRST;
+            List<T> batch;
+            do {
+                batch = query.apply(position, Limit.of(exportBatchSize));
+                for (T item : batch) {
+                    generator.writeObject(item);
+                }
+                generator.flush();
+                if (!batch.isEmpty()) {
+                    position = positionOf.apply(batch.get(batch.size() - 1));
+                }
+            } while (batch.size() == exportBatchSize);
+            generator.writeEndArray();
+        }
+    }
+    
+    private static PageCursor parse(String cursor) {
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.limit.AdaptiveLimiter;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmOverloadedException;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmWorkload;
+import com.gmontinny.springbootaiopenaitensorflow.limit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Controla todas as chamadas ao modelo: um limite de taxa comum (token bucket) e, por grupo
+ * de chamadas ({@link LlmWorkload}), um limite de concorrência adaptativo com fila e prazo
+ * de espera. Um pico de tráfego vira espera curta ou recusa imediata
+ * ({@link LlmOverloadedException}, HTTP 503) em vez de threads bloqueadas e 429 do provedor;
+ * o processamento de chat trata a recusa como qualquer falha do LLM e usa o fallback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LlmGovernor {
+    
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService aiTaskExecutor;
+    
+    private final Map<LlmWorkload, Bulkhead> bulkheads = new EnumMap<>(LlmWorkload.class);
+    private TokenBucket rateLimiter;
+    private Scheduler permitScheduler;
+    
+    @PostConstruct
+    public void init() {
+        rateLimiter = new TokenBucket(
+            environment.getProperty("app.ai.limits.rate.permits-per-second", Double.class, 20.0),
+            environment.getProperty("app.ai.limits.rate.burst", Integer.class, 40));
+        Gauge.builder("llm.ratelimit.available", rateLimiter, TokenBucket::available)
+            .description("Tokens disponíveis no limite de taxa das chamadas ao modelo")
+            .register(meterRegistry);
+        for (LlmWorkload workload : LlmWorkload.values()) {
+            bulkheads.put(workload, createBulkhead(workload));
+        }
+        // A espera por vaga bloqueia; no streaming ela roda fora das threads do Reactor
+        permitScheduler = Schedulers.fromExecutorService(aiTaskExecutor, "llm-permits");
+    }
+    
+    public <T> T call(LlmWorkload workload, Supplier<T> call) {
+        AdaptiveLimiter.Permit permit = acquire(workload);
+        try {
+            T result = call.get();
+            permit.success();
+            return result;
+        } catch (RuntimeException e) {
+            release(permit, e);
+            throw e;
+        }
+    }
+    
+    /** A vaga fica ocupada até o fim do stream; a latência considerada é até o primeiro token. */
+    public <T> Flux<T> stream(LlmWorkload workload, Supplier<Flux<T>> call) {
+        return Mono.fromCallable(() -> acquire(workload))
+            .subscribeOn(permitScheduler)
+            .flatMapMany(permit -> Flux.defer(call)
+                .doOnNext(ignored -> permit.responded())
+                .doOnComplete(permit::success)
+                .doOnError(e -> release(permit, e))
+                .doOnCancel(permit::ignore));
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rateLimitAvailable", rateLimiter.available());
+        bulkheads.forEach((workload, bulkhead) -> stats.put(workload.name().toLowerCase(), Map.of(
+            "limit", bulkhead.limiter.limit(),
+            "inFlight", bulkhead.limiter.inFlight(),
+            "queued", bulkhead.limiter.queued(),
+            "rejected", (long) (bulkhead.queueFull.count() + bulkhead.deadline.count() + bulkhead.rateLimited.count()))));
+        return stats;
+    }
+    
+    private AdaptiveLimiter.Permit acquire(LlmWorkload workload) {
+        Bulkhead bulkhead = bulkheads.get(workload);
+        long deadline = System.nanoTime() + bulkhead.maxWait.toNanos();
+        
+        long wait = rateLimiter.reserve(deadline);
+        if (wait < 0) {
+            bulkhead.rateLimited.increment();
+            throw new LlmOverloadedException(workload, LlmOverloadedException.Reason.RATE_LIMITED);
+        }
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        try {
+            return bulkhead.limiter.acquire(deadline);
+        } catch (AdaptiveLimiter.LimitExceeded e) {
+            (e.isDeadline() ? bulkhead.deadline : bulkhead.queueFull).increment();
+            log.warn("Chamada ao modelo recusada ({}): {} em andamento, {} na fila, limite {}", workload,
+                bulkhead.limiter.inFlight(), bulkhead.limiter.queued(), bulkhead.limiter.limit());
+            throw new LlmOverloadedException(workload, e.isDeadline()
+                ? LlmOverloadedException.Reason.DEADLINE : LlmOverloadedException.Reason.QUEUE_FULL);
+        }
+    }
+    
+    // Só sinais de sobrecarga reduzem o limite; erros do cliente não dizem nada sobre a carga
+    private static void release(AdaptiveLimiter.Permit permit, Throwable error) {
+        if (isOverload(error)) {
+            permit.dropped();
+        } else {
+            permit.ignore();
+        }
+    }
+    
+    private static boolean isOverload(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof TransientAiException || e instanceof TimeoutException
+                    || e instanceof ResourceAccessException || e instanceof HttpServerErrorException
+                    || e instanceof HttpClientErrorException.TooManyRequests) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Bulkhead createBulkhead(LlmWorkload workload) {
+        String prefix = "app.ai.limits.bulkheads." + workload.name().toLowerCase() + ".";
+        AdaptiveLimiter limiter = new AdaptiveLimiter(
+            environment.getProperty(prefix + "initial-limit", Integer.class, 10),
+            environment.getProperty(prefix + "min-limit", Integer.class, 1),
+            environment.getProperty(prefix + "max-limit", Integer.class, 50),
+            environment.getProperty(prefix + "max-queue", Integer.class, 100),
+            environment.getProperty("app.ai.limits.latency-tolerance", Double.class, 1.5));
+        Duration maxWait = environment.getProperty(prefix + "max-wait", Duration.class, Duration.ofSeconds(5));
+        
+        String tag = workload.name().toLowerCase();
+        Gauge.builder("llm.limiter.limit", limiter, AdaptiveLimiter::limit)
+            .description("Limite de concorrência atual das chamadas ao modelo")
+            .tag("workload", tag).register(meterRegistry);
+        Gauge.builder("llm.limiter.inflight", limiter, AdaptiveLimiter::inFlight)
+            .tag("workload", tag).register(meterRegistry);
+        Gauge.builder("llm.limiter.queued", limiter, AdaptiveLimiter::queued)
+            .description("Chamadas esperando vaga")
+            .tag("workload", tag).register(meterRegistry);
+        log.info("Limite de chamadas ao modelo ({}): inicial {}, fila {}, espera máxima {}",
+            tag, limiter.limit(), environment.getProperty(prefix + "max-queue", Integer.class, 100), maxWait);
+        return new Bulkhead(limiter, maxWait,
+            rejections(tag, "queue_full"), rejections(tag, "deadline"), rejections(tag, "rate_limited"));
+    }
+    
+    private Counter rejections(String workload, String reason) {
+        return Counter.builder("llm.limiter.rejections")
+            .description("Chamadas ao modelo recusadas antes de chegar ao provedor")
+            .tag("workload", workload)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+    
+    private record Bulkhead(AdaptiveLimiter limiter, Duration maxWait,
+                            Counter queueFull, Counter deadline, Counter rateLimited) {
+    }
+}
@@ -1,22 +1,38 @@
 package com.gmontinny.springbootaiopenaitensorflow.service;
 
-import io.milvus.client.MilvusServiceClient;
-import io.milvus.param.ConnectParam;
-import io.milvus.param.collection.CreateCollectionParam;
-import io.milvus.param.collection.FieldType;
-import io.milvus.param.dml.InsertParam;
-import io.milvus.param.dml.SearchParam;
+import com.gmontinny.springbootaiopenaitensorflow.vector.BatchingVectorWriter;
+import com.gmontinny.springbootaiopenaitensorflow.vector.BruteForceVectorStore;
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import com.gmontinny.springbootaiopenaitensorflow.vector.HnswVectorStore;
+import com.gmontinny.springbootaiopenaitensorflow.vector.MilvusVectorStore;
+import com.gmontinny.springbootaiopenaitensorflow.vector.QuantizedVectorStore;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMatch;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.util.Arrays;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.LongPredicate;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
-public class MilvusService {
+public class MilvusService implements MeterBinder {
+    
+    private final PipelineObservations observations;
     
     @Value("${app.milvus.host}")
     private String milvusHost;
@@ -27,96 +43,248 @@ public class MilvusService {
     @Value("${app.milvus.collection-name}")
     private String collectionName;
     
-    private MilvusServiceClient milvusClient;
+    @Value("${app.vector-store.type:milvus}")
+    private String storeType;
+    
+    @Value("${app.vector-store.dimension:1536}")
+    private int dimension;
+    
+    @Value("${app.vector-store.hnsw.m:16}")
+    private int hnswM;
+    
+    @Value("${app.vector-store.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+    
+    @Value("${app.vector-store.hnsw.ef-search:64}")
+    private int hnswEfSearch;
+    
+    @Value("${app.vector-store.hnsw.snapshot-path:data/hnsw-index.bin}")
+    private Path hnswSnapshotPath;
+    
+    @Value("${app.vector-store.quantized.mode:scalar}")
+    private QuantizedVectorStore.Mode quantizedMode;
+    
+    @Value("${app.vector-store.quantized.subspaces:384}")
+    private int quantizedSubspaces;
+    
+    @Value("${app.vector-store.quantized.training-size:5000}")
+    private int quantizedTrainingSize;
+    
+    @Value("${app.vector-store.quantized.rerank-candidates:100}")
+    private int quantizedRerankCandidates;
+    
+    @Value("${app.vector-store.quantized.vectors-path:data/vectors.f32}")
+    private Path quantizedVectorsPath;
+    
+    @Value("${app.vector-store.batch.enabled:true}")
+    private boolean batchEnabled;
+    
+    @Value("${app.vector-store.batch.queue-capacity:10000}")
+    private int batchQueueCapacity;
+    
+    @Value("${app.vector-store.batch.max-size:256}")
+    private int batchMaxSize;
+    
+    @Value("${app.vector-store.batch.flush-interval:200ms}")
+    private Duration batchFlushInterval;
+    
+    @Value("${app.vector-store.batch.enqueue-timeout:50ms}")
+    private Duration batchEnqueueTimeout;
+    
+    @Value("${app.vector-store.batch.max-attempts:5}")
+    private int batchMaxAttempts;
+    
+    @Value("${app.vector-store.batch.retry-backoff:100ms}")
+    private Duration batchRetryBackoff;
+    
+    @Value("${app.vector-store.batch.drain-timeout:10s}")
+    private Duration batchDrainTimeout;
+    
+    @Value("${app.vector-store.batch.dead-letter-path:data/vector-dead-letter.ndjson}")
+    private Path batchDeadLetterPath;
+    
+    private VectorStore vectorStore;
+    private BatchingVectorWriter batchWriter;
+    private DistributionSummary searchResults;
     
     @PostConstruct
     public void init() {
-        try {
-            milvusClient = new MilvusServiceClient(
-                ConnectParam.newBuilder()
-                    .withHost(milvusHost)
-                    .withPort(milvusPort)
-                    .build()
-            );
-            createCollectionIfNotExists();
-            log.info("Milvus conectado com sucesso");
-        } catch (Exception e) {
-            log.warn("Milvus indisponível - funcionando sem busca semântica: {}", e.getMessage());
-            milvusClient = null;
+        vectorStore = createVectorStore();
+        
+        if (batchEnabled) {
+            batchWriter = new BatchingVectorWriter(vectorStore, new BatchingVectorWriter.Settings(
+                batchQueueCapacity, batchMaxSize, batchFlushInterval, batchEnqueueTimeout,
+                batchMaxAttempts, batchRetryBackoff, batchDrainTimeout, batchDeadLetterPath));
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Stores que não sabem a própria contagem (Milvus) publicam NaN em vez de -1
+        Gauge.builder("vector.store.size", this, service -> {
+                int size = service.vectorStore.size();
+                return size < 0 ? Double.NaN : size;
+            })
+            .description("Vetores no índice")
+            .tag("store", storeType).register(registry);
+        if (batchWriter != null) {
+            Gauge.builder("vector.store.queue.pending", batchWriter, BatchingVectorWriter::pending)
+                .description("Vetores aguardando gravação em lote")
+                .tag("store", storeType).register(registry);
+        }
+        if (vectorStore instanceof QuantizedVectorStore quantized) {
+            String mode = quantized.mode().name().toLowerCase();
+            Gauge.builder("vector.store.memory", quantized, QuantizedVectorStore::memoryBytes)
+                .description("Bytes em memória dos vetores quantizados (códigos, IDs e codebooks)")
+                .baseUnit("bytes")
+                .tag("store", storeType).tag("mode", mode).register(registry);
+            Gauge.builder("vector.store.mapped", quantized, QuantizedVectorStore::mappedBytes)
+                .description("Bytes do arquivo de vetores completos mapeado em memória (residentes sob demanda)")
+                .baseUnit("bytes")
+                .tag("store", storeType).tag("mode", mode).register(registry);
+            // 0 enquanto o PQ não tem codebooks: a busca ainda é exata sobre o arquivo
+            Gauge.builder("vector.store.trained", quantized, store -> store.isTrained() ? 1 : 0)
+                .description("Se a busca já usa os códigos quantizados")
+                .tag("store", storeType).tag("mode", mode).register(registry);
         }
+        searchResults = DistributionSummary.builder("vector.store.search.results")
+            .description("Resultados por busca vetorial")
+            .tag("store", storeType).register(registry);
     }
     
-    private void createCollectionIfNotExists() {
-        List<FieldType> fields = Arrays.asList(
-            FieldType.newBuilder()
-                .withName("id")
-                .withDataType(io.milvus.grpc.DataType.Int64)
-                .withPrimaryKey(true)
-                .withAutoID(true)
-                .build(),
-            FieldType.newBuilder()
-                .withName("message_id")
-                .withDataType(io.milvus.grpc.DataType.Int64)
-                .build(),
-            FieldType.newBuilder()
-                .withName("embedding")
-                .withDataType(io.milvus.grpc.DataType.FloatVector)
-                .withDimension(1536) // OpenAI embedding dimension
-                .build()
-        );
+    private VectorStore createVectorStore() {
+        if ("memory".equalsIgnoreCase(storeType)) {
+            log.info("Usando índice vetorial em memória (busca exata)");
+            return new BruteForceVectorStore(dimension);
+        }
         
-        CreateCollectionParam createParam = CreateCollectionParam.newBuilder()
-            .withCollectionName(collectionName)
-            .withDescription("Chat message embeddings")
-            .withShardsNum(2)
-            .withFieldTypes(fields)
-            .build();
+        if ("hnsw".equalsIgnoreCase(storeType)) {
+            return loadHnswIndex();
+        }
+        
+        if ("quantized".equalsIgnoreCase(storeType)) {
+            try {
+                log.info("Usando índice vetorial quantizado ({}), vetores completos em {}",
+                    quantizedMode.name().toLowerCase(), quantizedVectorsPath);
+                return new QuantizedVectorStore(dimension, quantizedMode, quantizedSubspaces,
+                    quantizedTrainingSize, quantizedRerankCandidates, quantizedVectorsPath);
+            } catch (IOException e) {
+                log.warn("Índice quantizado indisponível ({}) - usando índice vetorial em memória: {}",
+                    quantizedVectorsPath, e.getMessage());
+                return new BruteForceVectorStore(dimension);
+            }
+        }
         
         try {
-            milvusClient.createCollection(createParam);
-            log.info("Coleção {} criada", collectionName);
+            VectorStore milvus = new MilvusVectorStore(milvusHost, milvusPort, collectionName, dimension);
+            log.info("Milvus conectado com sucesso");
+            return milvus;
         } catch (Exception e) {
-            log.debug("Coleção já existe ou erro: {}", e.getMessage());
+            log.warn("Milvus indisponível - usando índice vetorial em memória: {}", e.getMessage());
+            return new BruteForceVectorStore(dimension);
         }
     }
     
-    public void storeEmbedding(Long messageId, List<Float> embedding) {
-        if (milvusClient == null) return;
-        
+    private HnswVectorStore loadHnswIndex() {
+        if (Files.exists(hnswSnapshotPath)) {
+            try {
+                HnswVectorStore store = HnswVectorStore.load(hnswSnapshotPath, dimension, hnswM,
+                    hnswEfConstruction, hnswEfSearch);
+                log.info("Índice HNSW carregado de {} com {} vetores", hnswSnapshotPath, store.size());
+                return store;
+            } catch (IOException e) {
+                log.warn("Snapshot HNSW ignorado ({}): {}", hnswSnapshotPath, e.getMessage());
+            }
+        }
+        log.info("Usando índice HNSW vazio (M={}, efConstruction={}, efSearch={})",
+            hnswM, hnswEfConstruction, hnswEfSearch);
+        return new HnswVectorStore(dimension, hnswM, hnswEfConstruction, hnswEfSearch);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.vector-store.hnsw.snapshot-interval:PT5M}",
+        initialDelayString = "${app.vector-store.hnsw.snapshot-interval:PT5M}")
+    public void snapshot() {
+        if (vectorStore instanceof HnswVectorStore hnsw) {
+            try {
+                hnsw.save(hnswSnapshotPath);
+                log.debug("Snapshot HNSW gravado com {} vetores", hnsw.size());
+            } catch (IOException e) {
+                log.error("Erro ao gravar snapshot HNSW", e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void close() throws Exception {
+        if (batchWriter != null) {
+            batchWriter.close();
+        }
+        snapshot();
+        if (vectorStore instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+    
+    public void storeEmbedding(Long messageId, Embedding embedding) {
         try {
-            InsertParam insertParam = InsertParam.newBuilder()
-                .withCollectionName(collectionName)
-                .withFields(Arrays.asList(
-                    new InsertParam.Field("message_id", Arrays.asList(messageId)),
-                    new InsertParam.Field("embedding", Arrays.asList(embedding))
-                ))
-                .build();
-            
-            milvusClient.insert(insertParam);
-            log.debug("Embedding armazenado para mensagem {}", messageId);
+            if (batchWriter != null) {
+                batchWriter.submit(messageId, embedding.requireDimension(dimension).values());
+                log.debug("Embedding enfileirado para mensagem {}", messageId);
+            } else {
+                observations.vectorStore("insert", storeType,
+                    () -> vectorStore.add(messageId, embedding.requireDimension(dimension).values()));
+                log.debug("Embedding armazenado para mensagem {}", messageId);
+            }
         } catch (Exception e) {
             log.error("Erro ao armazenar embedding", e);
         }
     }
     
-    public List<Long> searchSimilar(List<Float> queryEmbedding, int topK) {
-        if (milvusClient == null) return Arrays.asList();
-        
+    /**
+     * Armazena vários embeddings de uma vez (lote direto no store ou enfileirado no writer).
+     * Ao contrário de {@link #storeEmbedding}, propaga a falha para quem chamou.
+     */
+    public void storeEmbeddings(List<Long> messageIds, List<Embedding> embeddings) {
+        long[] ids = new long[messageIds.size()];
+        float[][] vectors = new float[messageIds.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = messageIds.get(i);
+            vectors[i] = embeddings.get(i).requireDimension(dimension).values();
+        }
+        if (batchWriter != null) {
+            for (int i = 0; i < ids.length; i++) {
+                batchWriter.submit(ids[i], vectors[i]);
+            }
+        } else {
+            observations.vectorStore("insert", storeType, () -> vectorStore.addAll(ids, vectors));
+        }
+        log.debug("{} embeddings armazenados em lote", ids.length);
+    }
+    
+    public List<Long> searchSimilar(Embedding queryEmbedding, int topK) {
+        return searchMatches(queryEmbedding, topK).stream()
+            .map(VectorMatch::id)
+            .toList();
+    }
+    
+    /** Como {@link #searchSimilar}, mas mantém a similaridade de cada resultado (ordem decrescente). */
+    public List<VectorMatch> searchMatches(Embedding queryEmbedding, int topK) {
+        return searchMatches(queryEmbedding, topK, null);
+    }
+    
+    /** Busca restrita às mensagens aceitas por {@code filter} ({@code null} para não filtrar). */
+    public List<VectorMatch> searchMatches(Embedding queryEmbedding, int topK, LongPredicate filter) {
         try {
-            SearchParam searchParam = SearchParam.newBuilder()
-                .withCollectionName(collectionName)
-                .withMetricType(io.milvus.param.MetricType.COSINE)
-                .withOutFields(Arrays.asList("message_id"))
-                .withTopK(topK)
-                .withVectors(Arrays.asList(queryEmbedding))
-                .withVectorFieldName("embedding")
-                .build();
-            
-            // Implementar busca e retornar IDs das mensagens similares
-            return Arrays.asList(); // Placeholder
+            float[] query = queryEmbedding.requireDimension(dimension).values();
+            List<VectorMatch> matches = observations.vectorStore(filter == null ? "search" : "filtered-search",
+                storeType, () -> filter == null ? vectorStore.search(query, topK) : vectorStore.search(query, topK, filter));
+            if (searchResults != null) {
+                searchResults.record(matches.size());
+            }
+            return matches;
         } catch (Exception e) {
             log.error("Erro na busca semântica", e);
-            return Arrays.asList();
+            return List.of();
         }
     }
-}
\ No newline at end of file
+}
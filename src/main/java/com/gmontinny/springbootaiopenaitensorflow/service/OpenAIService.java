@@ -1,69 +1,420 @@
 package com.gmontinny.springbootaiopenaitensorflow.service;
 
+import com.gmontinny.springbootaiopenaitensorflow.cache.LlmResponseCache;
+import com.gmontinny.springbootaiopenaitensorflow.dto.MessageAnalysis;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ProductDescriptions;
+import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmWorkload;
+import com.gmontinny.springbootaiopenaitensorflow.text.TextChunker;
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.ResponseFormat;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OpenAIService {
     
+    private static final BeanOutputConverter<MessageAnalysis> ANALYSIS_CONVERTER =
+        new BeanOutputConverter<>(MessageAnalysis.class);
+    private static final BeanOutputConverter<MessageAnalysis.Texts> TEXTS_CONVERTER =
+        new BeanOutputConverter<>(MessageAnalysis.Texts.class);
+    private static final BeanOutputConverter<ProductDescriptions> PRODUCT_DESCRIPTIONS_CONVERTER =
+        new BeanOutputConverter<>(ProductDescriptions.class);
+    // Resumos parciais que ainda não cabem numa chamada são resumidos de novo, até este limite de níveis
+    private static final int MAX_SUMMARY_LEVELS = 3;
+    
     private final ChatClient chatClient;
+    private final LlmResponseCache responseCache;
+    private final LlmGovernor governor;
+    private final PipelineObservations observations;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService aiTaskExecutor;
+    private final EmbeddingService embeddingService;
+    private final TextChunker chunker = new TextChunker(new JTokkitTokenCountEstimator()::estimate);
+    
+    /** combined: resumo e resposta automática numa única chamada; separate: uma chamada para cada. */
+    @Value("${app.ai.analysis.mode:combined}")
+    private AnalysisMode analysisMode = AnalysisMode.COMBINED;
+    
+    @Value("${app.ai.analysis.llm-sentiment:false}")
+    private boolean llmSentiment;
+    
+    // response_format com o JSON schema (OpenAI); desligado, o schema vai só nas instruções do prompt
+    @Value("${app.ai.analysis.json-schema:true}")
+    private boolean jsonSchema = true;
+    
+    // Textos acima de single-call-max-tokens são divididos em trechos de chunk-tokens, processados
+    // com até parallelism chamadas simultâneas
+    @Value("${app.ai.long-input.single-call-max-tokens:3000}")
+    private int singleCallMaxTokens = 3000;
+    
+    @Value("${app.ai.long-input.chunk-tokens:1500}")
+    private int chunkTokens = 1500;
+    
+    @Value("${app.ai.long-input.overlap-tokens:100}")
+    private int overlapTokens = 100;
+    
+    @Value("${app.ai.long-input.parallelism:4}")
+    private int longInputParallelism = 4;
+    
+    private Scheduler longInputScheduler;
+    
+    @PostConstruct
+    public void init() {
+        longInputScheduler = Schedulers.fromExecutorService(aiTaskExecutor, "long-input");
+    }
+    
+    /** Análise combinada só para mensagens que cabem numa chamada; as longas seguem pelo caminho em trechos. */
+    public boolean isCombinedAnalysis(String message) {
+        return analysisMode == AnalysisMode.COMBINED && !chunker.exceeds(message, singleCallMaxTokens);
+    }
+    
+    /**
+     * Resumo, resposta automática e, com {@code app.ai.analysis.llm-sentiment}, o sentimento numa
+     * única chamada com saída estruturada. Vazio se a resposta não for um JSON válido e completo:
+     * quem chama recorre às chamadas separadas. Falhas da chamada em si são propagadas.
+     */
+    public Optional<MessageAnalysis> analyzeMessage(String message) {
+        BeanOutputConverter<?> converter = llmSentiment ? ANALYSIS_CONVERTER : TEXTS_CONVERTER;
+        String operation = llmSentiment ? "analyze-sentiment" : "analyze";
+        String prompt = analysisPrompt(message, llmSentiment, jsonSchema ? "" : converter.getFormat());
+        ChatOptions options = jsonSchema
+            ? OpenAiChatOptions.builder()
+                .responseFormat(new ResponseFormat(ResponseFormat.Type.JSON_SCHEMA, converter.getJsonSchema()))
+                .build()
+            : null;
+        try {
+            // A validação roda dentro do carregamento: resposta inválida não entra no cache
+            String json = responseCache.get(operation, prompt, () -> {
+                String response = callModel(LlmWorkload.CHAT, operation, prompt, options);
+                parseAnalysis(response, converter);
+                return response;
+            });
+            return Optional.of(parseAnalysis(json, converter));
+        } catch (InvalidAnalysisException e) {
+            log.warn("Análise combinada inválida, usando chamadas separadas: {}", e.getMessage());
+            Counter.builder("ai.analysis.fallbacks")
+                .description("Análises combinadas descartadas por saída inválida")
+                .register(meterRegistry)
+                .increment();
+            return Optional.empty();
+        }
+    }
     
+    /** Resumo para o processamento de chat; o endpoint utilitário usa {@link LlmWorkload#UTILITY}. */
     public String summarizeText(String text) {
-        return chatClient.prompt()
-                .user("Resuma o seguinte texto em português de forma concisa: " + text)
-                .call()
-                .content();
+        return summarizeText(text, LlmWorkload.CHAT);
+    }
+    
+    /**
+     * Textos longos: resumo de cada trecho em paralelo (map) e um resumo final sobre os resumos
+     * parciais (reduce). A latência cresce com trechos / paralelismo, não com o tamanho total.
+     */
+    public String summarizeText(String text, LlmWorkload workload) {
+        if (!chunker.exceeds(text, singleCallMaxTokens)) {
+            return complete(workload, "summarize", summaryPrompt(text));
+        }
+        return complete(workload, "summarize-reduce", reducePrompt(partialSummaries(text, workload)));
+    }
+    
+    public Flux<String> summarizeTextStream(String text) {
+        return summarizeTextStream(text, LlmWorkload.CHAT);
+    }
+    
+    // Em textos longos só o reduce é transmitido token a token; o map roda antes, no executor
+    public Flux<String> summarizeTextStream(String text, LlmWorkload workload) {
+        return Mono.fromCallable(() -> chunker.exceeds(text, singleCallMaxTokens))
+            .subscribeOn(longInputScheduler)
+            .flatMapMany(longInput -> longInput
+                ? Mono.fromCallable(() -> partialSummaries(text, workload))
+                    .subscribeOn(longInputScheduler)
+                    .flatMapMany(partials -> stream(workload, "summarize-reduce", reducePrompt(partials)))
+                : stream(workload, "summarize", summaryPrompt(text)));
     }
     
     public String generateAutoResponse(String message) {
-        return chatClient.prompt()
-                .user("Gere uma resposta automática profissional e útil para: " + message)
-                .call()
-                .content();
-    }
-    
-    public String generateProductDescription(String name, String category, Double price) {
-        String prompt = String.format(
-            "Gere uma descrição atrativa para o produto '%s' da categoria '%s' com preço R$ %.2f. " +
-            "A descrição deve ser persuasiva e destacar benefícios.",
-            name, category, price
-        );
+        return complete(LlmWorkload.CHAT, "auto-response", autoResponsePrompt(message));
+    }
+    
+    public Flux<String> generateAutoResponseStream(String message) {
+        return stream(LlmWorkload.CHAT, "auto-response", autoResponsePrompt(message));
+    }
+    
+    /**
+     * Descrições de vários produtos numa única chamada com saída estruturada, por ID do produto.
+     * Produtos sem descrição válida na resposta ficam de fora do mapa; JSON inválido lança
+     * {@link IllegalStateException}. Sem cache: o lote raramente se repete.
+     */
+    public Map<Long, String> generateProductDescriptions(List<Product> products) {
+        String prompt = productDescriptionsPrompt(products, jsonSchema ? "" : PRODUCT_DESCRIPTIONS_CONVERTER.getFormat());
+        ChatOptions options = jsonSchema
+            ? OpenAiChatOptions.builder()
+                .responseFormat(new ResponseFormat(ResponseFormat.Type.JSON_SCHEMA,
+                    PRODUCT_DESCRIPTIONS_CONVERTER.getJsonSchema()))
+                .build()
+            : null;
+        String response = callModel(LlmWorkload.PRODUCT, "product-descriptions", prompt, options);
         
-        return chatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
+        ProductDescriptions parsed;
+        try {
+            parsed = PRODUCT_DESCRIPTIONS_CONVERTER.convert(response);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Descrições em lote com JSON inválido: " + e.getMessage(), e);
+        }
+        Map<Long, String> descriptions = new HashMap<>();
+        if (parsed != null && parsed.descriptions() != null) {
+            for (ProductDescriptions.Item item : parsed.descriptions()) {
+                if (item != null && !isBlank(item.description())) {
+                    descriptions.putIfAbsent(item.productId(), item.description().strip());
+                }
+            }
+        }
+        return descriptions;
     }
     
+    /** Textos longos: trechos traduzidos em paralelo e concatenados na ordem original, sem sobreposição. */
     public String translateText(String text, String targetLanguage) {
-        return chatClient.prompt()
-                .user("Traduza o seguinte texto para " + targetLanguage + ": " + text)
-                .call()
-                .content();
+        if (!chunker.exceeds(text, singleCallMaxTokens)) {
+            return complete(LlmWorkload.UTILITY, "translate", translatePrompt(text, targetLanguage));
+        }
+        List<String> chunks = chunker.split(text, chunkTokens, 0);
+        List<String> translations = mapInParallel(chunks,
+            chunk -> complete(LlmWorkload.UTILITY, "translate", translatePrompt(chunk, targetLanguage)));
+        StringBuilder translation = new StringBuilder();
+        for (int i = 0; i < chunks.size(); i++) {
+            translation.append(translations.get(i).strip()).append(trailingWhitespace(chunks.get(i)));
+        }
+        return translation.toString().strip();
+    }
+    
+    // Trechos traduzidos em paralelo, mas emitidos em ordem: os seguintes ficam em buffer até os anteriores terminarem
+    public Flux<String> translateTextStream(String text, String targetLanguage) {
+        return Mono.fromCallable(() -> chunker.exceeds(text, singleCallMaxTokens)
+                ? chunker.split(text, chunkTokens, 0)
+                : List.of(text))
+            .subscribeOn(longInputScheduler)
+            .flatMapMany(chunks -> chunks.size() == 1
+                ? stream(LlmWorkload.UTILITY, "translate", translatePrompt(text, targetLanguage))
+                : Flux.fromIterable(chunks).flatMapSequential(chunk ->
+                    stream(LlmWorkload.UTILITY, "translate", translatePrompt(chunk, targetLanguage))
+                        .concatWith(Mono.just(trailingWhitespace(chunk)).filter(separator -> !separator.isEmpty())),
+                    longInputParallelism));
     }
     
     public String generateCode(String description, String language) {
-        return chatClient.prompt()
-                .user("Gere código em " + language + " para: " + description)
-                .call()
-                .content();
+        return complete(LlmWorkload.UTILITY, "generate-code", codePrompt(description, language));
+    }
+    
+    public Flux<String> generateCodeStream(String description, String language) {
+        return stream(LlmWorkload.UTILITY, "generate-code", codePrompt(description, language));
+    }
+    
+    public Embedding generateEmbedding(String text) {
+        return embeddingService.embed(text);
+    }
+    
+    /** Embeddings de vários textos numa única operação, na ordem recebida. */
+    public List<Embedding> generateEmbeddings(List<String> texts) {
+        return embeddingService.embedAll(texts);
+    }
+    
+    // Respostas idênticas vêm do cache; chamadas concorrentes iguais compartilham uma requisição.
+    // Só as chamadas que de fato vão ao provedor passam pelos limites de concorrência e taxa
+    private String complete(LlmWorkload workload, String operation, String prompt) {
+        return responseCache.get(operation, prompt, () -> callModel(workload, operation, prompt, null));
+    }
+    
+    // Map: resume os trechos em paralelo; se os resumos juntos ainda passam do limite, repete sobre eles
+    private String partialSummaries(String text, LlmWorkload workload) {
+        String current = text;
+        for (int level = 0; level < MAX_SUMMARY_LEVELS && chunker.exceeds(current, singleCallMaxTokens); level++) {
+            List<String> chunks = chunker.split(current, chunkTokens, overlapTokens);
+            int total = chunks.size();
+            List<String> summaries = mapInParallel(chunks,
+                chunk -> complete(workload, "summarize-chunk", chunkSummaryPrompt(chunk, total)));
+            current = String.join("\n\n", summaries);
+        }
+        return current;
+    }
+    
+    // Chamadas bloqueantes por trecho, no máximo longInputParallelism ao mesmo tempo; resultado na ordem dos trechos
+    private List<String> mapInParallel(List<String> chunks, Function<String, String> call) {
+        return Flux.fromIterable(chunks)
+            .flatMapSequential(chunk -> Mono.fromCallable(() -> call.apply(chunk)).subscribeOn(longInputScheduler),
+                longInputParallelism)
+            .collectList()
+            .block();
+    }
+    
+    private static String trailingWhitespace(String chunk) {
+        return chunk.substring(chunk.stripTrailing().length());
+    }
+    
+    private String callModel(LlmWorkload workload, String operation, String prompt, ChatOptions options) {
+        return governor.call(workload, () -> observations.llmCall(operation, tag(workload), () -> {
+            ChatClient.ChatClientRequestSpec request = chatClient.prompt().user(prompt);
+            if (options != null) {
+                request = request.options(options);
+            }
+            ChatResponse response = request.call().chatResponse();
+            recordUsage(operation, response);
+            return text(response);
+        }));
+    }
+    
+    // Valida o JSON do modelo; um sentimento fora do formato é descartado sem invalidar os textos
+    private static MessageAnalysis parseAnalysis(String json, BeanOutputConverter<?> converter) {
+        Object converted;
+        try {
+            converted = converter.convert(json);
+        } catch (RuntimeException e) {
+            throw new InvalidAnalysisException("JSON inválido: " + e.getMessage());
+        }
+        MessageAnalysis analysis = converted instanceof MessageAnalysis.Texts texts
+            ? texts.toAnalysis()
+            : (MessageAnalysis) converted;
+        if (analysis == null || isBlank(analysis.summary()) || isBlank(analysis.autoResponse())) {
+            throw new InvalidAnalysisException("resumo ou resposta automática ausente");
+        }
+        return analysis.sentimentResult().isPresent() || analysis.sentiment() == null
+            ? analysis
+            : new MessageAnalysis(analysis.summary(), analysis.autoResponse(), null, null);
+    }
+    
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+    
+    // Streaming: resposta em cache vira um único evento; senão os tokens são repassados
+    // à medida que chegam e o texto completo vai para o cache ao final
+    private Flux<String> stream(LlmWorkload workload, String operation, String prompt) {
+        return Flux.defer(() -> responseCache.getIfPresent(operation, prompt)
+            .map(Flux::just)
+            .orElseGet(() -> {
+                StringBuilder fullResponse = new StringBuilder();
+                return governor.stream(workload, () -> observations.llmStream(operation, tag(workload),
+                        () -> chatClient.prompt()
+                            .user(prompt)
+                            .stream()
+                            .chatResponse()
+                            // O uso de tokens chega num evento próprio, no fim do stream
+                            .doOnNext(response -> recordUsage(operation, response))
+                            .map(OpenAIService::text)
+                            .filter(text -> !text.isEmpty())))
+                        .doOnNext(fullResponse::append)
+                        .doOnComplete(() -> responseCache.put(operation, prompt, fullResponse.toString()));
+            }));
+    }
+    
+    private void recordUsage(String operation, ChatResponse response) {
+        Usage usage = response != null && response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        if (usage == null) {
+            return;
+        }
+        tokens(operation, "prompt").increment(Objects.requireNonNullElse(usage.getPromptTokens(), 0));
+        tokens(operation, "completion").increment(Objects.requireNonNullElse(usage.getCompletionTokens(), 0));
+    }
+    
+    private Counter tokens(String operation, String type) {
+        return Counter.builder("ai.llm.tokens")
+            .description("Tokens consumidos nas chamadas ao modelo")
+            .tag("operation", operation)
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+    
+    private static String text(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        return Objects.requireNonNullElse(response.getResult().getOutput().getText(), "");
+    }
+    
+    private static String tag(LlmWorkload workload) {
+        return workload.name().toLowerCase();
+    }
+    
+    private static String analysisPrompt(String message, boolean withSentiment, String formatInstructions) {
+        return "Analise a mensagem de cliente abaixo e responda apenas com o JSON pedido: um resumo conciso "
+            + "em português, uma resposta automática profissional e útil"
+            + (withSentiment ? " e o sentimento da mensagem" : "")
+            + (formatInstructions.isEmpty() ? "." : ".\n" + formatInstructions)
+            + "\n\nMensagem: " + message;
+    }
+    
+    private static String productDescriptionsPrompt(List<Product> products, String formatInstructions) {
+        StringBuilder prompt = new StringBuilder("Gere uma descrição atrativa para cada produto abaixo. "
+            + "Cada descrição deve ser persuasiva e destacar benefícios. Responda apenas com o JSON pedido, "
+            + "com um item por produto e o mesmo ID informado");
+        prompt.append(formatInstructions.isEmpty() ? "." : ".\n" + formatInstructions).append("\n");
+        for (Product product : products) {
+            prompt.append(String.format(Locale.ROOT, "\nProduto %d: '%s' da categoria '%s' com preço R$ %.2f",
+                product.getId(), product.getName(), product.getCategory(), product.getPrice()));
+        }
+        return prompt.toString();
+    }
+    
+    private static String summaryPrompt(String text) {
+        return "Resuma o seguinte texto em português de forma concisa: " + text;
+    }
+    
+    private static String chunkSummaryPrompt(String chunk, int totalChunks) {
+        return "O texto a seguir é um de " + totalChunks + " trechos de um documento longo. "
+            + "Resuma em português os pontos principais deste trecho, de forma concisa: " + chunk;
+    }
+    
+    private static String reducePrompt(String partialSummaries) {
+        return "Os textos a seguir são resumos, em ordem, de trechos de um mesmo documento. "
+            + "Combine-os num único resumo conciso em português, sem repetir informações: " + partialSummaries;
+    }
+    
+    private static String autoResponsePrompt(String message) {
+        return "Gere uma resposta automática profissional e útil para: " + message;
+    }
+    
+    private static String translatePrompt(String text, String targetLanguage) {
+        return "Traduza o seguinte texto para " + targetLanguage + ": " + text;
+    }
+    
+    private static String codePrompt(String description, String language) {
+        return "Gere código em " + language + " para: " + description;
+    }
+    
+    public enum AnalysisMode {
+        COMBINED, SEPARATE
     }
     
-    public List<Float> generateEmbedding(String text) {
-        // Simulação de embedding - em produção usar OpenAI Embeddings API
-        // return openAIEmbeddingClient.embed(text);
+    private static class InvalidAnalysisException extends RuntimeException {
         
-        // Embedding simulado de 1536 dimensões (tamanho do OpenAI)
-        List<Float> embedding = new ArrayList<>();
-        Random random = new Random(text.hashCode()); // Seed para consistência
-        for (int i = 0; i < 1536; i++) {
-            embedding.add(random.nextFloat() * 2 - 1); // Valores entre -1 e 1
+        InvalidAnalysisException(String message) {
+            super(message);
         }
-        return embedding;
     }
-}
\ No newline at end of file
+}
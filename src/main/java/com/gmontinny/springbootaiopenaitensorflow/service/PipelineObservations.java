@@ -0,0 +1,81 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Supplier;
+
+/**
+ * Observações (timer + span) das etapas de IA. Cada observação vira o timer de mesmo nome e
+ * um span filho da observação corrente — a requisição HTTP, inclusive nas etapas que rodam no
+ * {@code aiTaskExecutor}, que propaga o contexto para as tarefas.
+ */
+@Component
+@RequiredArgsConstructor
+public class PipelineObservations {
+    
+    /** Etapas do processamento de mensagens (resumo, sentimento, banco, vetores...). */
+    public static final String STAGE = "ai.pipeline.stage";
+    /** Chamadas ao modelo que de fato chegam ao provedor (sem cache). */
+    public static final String LLM_CALL = "ai.llm.call";
+    /** Inserção e busca no índice vetorial. */
+    public static final String VECTOR_STORE = "vector.store";
+    
+    private final ObservationRegistry observationRegistry;
+    
+    public <T> T stage(String stage, Supplier<T> work) {
+        return Observation.createNotStarted(STAGE, observationRegistry)
+            .contextualName("ai-stage " + stage)
+            .lowCardinalityKeyValue("stage", stage)
+            .observe(work);
+    }
+    
+    public void stage(String stage, Runnable work) {
+        stage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    public <T> T llmCall(String operation, String workload, Supplier<T> call) {
+        return llmObservation(operation, workload).observe(call);
+    }
+    
+    /** Observação aberta na inscrição e fechada no fim, erro ou cancelamento do stream. */
+    public <T> Flux<T> llmStream(String operation, String workload, Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Observation observation = llmObservation(operation, workload)
+                .lowCardinalityKeyValue("streaming", "true")
+                .start();
+            return call.get()
+                .doOnError(observation::error)
+                .doFinally(signal -> observation.stop());
+        });
+    }
+    
+    public <T> T vectorStore(String operation, String store, Supplier<T> work) {
+        return Observation.createNotStarted(VECTOR_STORE, observationRegistry)
+            .contextualName("vector-store " + operation)
+            .lowCardinalityKeyValue("operation", operation)
+            .lowCardinalityKeyValue("store", store)
+            .observe(work);
+    }
+    
+    public void vectorStore(String operation, String store, Runnable work) {
+        vectorStore(operation, store, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    private Observation llmObservation(String operation, String workload) {
+        return Observation.createNotStarted(LLM_CALL, observationRegistry)
+            .contextualName("llm " + operation)
+            .lowCardinalityKeyValue("operation", operation)
+            .lowCardinalityKeyValue("workload", workload)
+            .lowCardinalityKeyValue("streaming", "false");
+    }
+}
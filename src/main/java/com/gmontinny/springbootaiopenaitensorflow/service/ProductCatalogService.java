@@ -0,0 +1,101 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.catalog.CatalogProduct;
+import com.gmontinny.springbootaiopenaitensorflow.catalog.CatalogSnapshot;
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Modelo de leitura do catálogo: todas as leituras de produtos saem de um {@link CatalogSnapshot}
+ * em memória, sem consultar o banco. O snapshot é montado com os produtos do banco ao iniciar e
+ * atualizado a cada gravação (write-through); leitores pegam a referência volátil atual sem lock,
+ * e as gravações montam uma nova versão, uma de cada vez.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogService implements MeterBinder {
+    
+    private final ProductRepository productRepository;
+    
+    @Value("${app.pagination.export-batch-size:500}")
+    private int loadBatchSize = 500;
+    
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    
+    @PostConstruct
+    public void init() {
+        List<CatalogProduct> products = new ArrayList<>();
+        PageCursor position = PageCursor.FIRST;
+        List<Product> batch;
+        do {
+            batch = productRepository.findBefore(position.createdAt(), position.id(), Limit.of(loadBatchSize));
+            batch.forEach(product -> products.add(CatalogProduct.of(product)));
+            if (!batch.isEmpty()) {
+                Product last = batch.get(batch.size() - 1);
+                position = new PageCursor(last.getCreatedAt(), last.getId());
+            }
+        } while (batch.size() == loadBatchSize);
+        snapshot = CatalogSnapshot.of(products);
+        log.info("Catálogo em memória carregado com {} produtos em {} categorias", snapshot.size(), snapshot.categoryCount());
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.products", this, catalog -> catalog.snapshot.size())
+            .description("Produtos no catálogo em memória")
+            .register(registry);
+    }
+    
+    /**
+     * Publica produtos gravados. Dentro de uma transação, só depois do commit: leitores nunca
+     * veem um produto que acabou desfeito por rollback.
+     */
+    public void publish(Collection<Product> products) {
+        List<CatalogProduct> copies = products.stream().map(CatalogProduct::of).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(copies);
+                }
+            });
+        } else {
+            apply(copies);
+        }
+    }
+    
+    public Optional<CatalogProduct> get(long id) {
+        return Optional.ofNullable(snapshot.get(id));
+    }
+    
+    public List<CatalogProduct> page(String category, PageCursor position, int limit) {
+        return snapshot.page(category, position, limit);
+    }
+    
+    public List<CatalogProduct> priceRange(String category, Double min, Double max, int limit) {
+        return snapshot.priceRange(category, min, max, limit);
+    }
+    
+    // Uma nova versão por gravação: O(n log n), aceitável num catálogo que muda pouco
+    private synchronized void apply(List<CatalogProduct> products) {
+        snapshot = snapshot.with(products);
+    }
+}
@@ -0,0 +1,220 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.catalog.CatalogProduct;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ProductDescriptionStatus;
+import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ProductDescriptionJob;
+import com.gmontinny.springbootaiopenaitensorflow.limit.LlmOverloadedException;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ProductDescriptionJobRepository;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fila persistente das descrições geradas de produtos. A criação do produto só grava o job
+ * (PENDING); até {@code workers} tarefas em segundo plano pegam lotes de {@code batch-size}
+ * produtos e geram as descrições do lote numa única chamada ao modelo.
+ * <p>
+ * O estado fica na tabela {@code product_description_jobs}: jobs interrompidos (RUNNING) voltam
+ * para a fila ao iniciar. Produtos que o modelo deixou de fora são tentados de novo, em outro
+ * lote, até {@code max-attempts}; recusas por sobrecarga não contam como tentativa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDescriptionQueue {
+    
+    private final ProductDescriptionJobRepository jobRepository;
+    private final ProductRepository productRepository;
+    private final ProductCatalogService catalog;
+    private final OpenAIService openAIService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService aiTaskExecutor;
+    
+    @Value("${app.products.description-jobs.batch-size:8}")
+    private int batchSize;
+    
+    @Value("${app.products.description-jobs.workers:4}")
+    private int workers;
+    
+    @Value("${app.products.description-jobs.max-attempts:3}")
+    private int maxAttempts;
+    
+    // Só a posse do lote é serializada; a geração dos lotes roda em paralelo
+    private final ReentrantLock claimLock = new ReentrantLock();
+    private Semaphore workerPermits;
+    private volatile boolean running = true;
+    
+    @PostConstruct
+    public void init() {
+        workerPermits = new Semaphore(workers);
+        Integer recovered = transactionTemplate.execute(status -> jobRepository.updateStatus(
+            ProductDescriptionJob.Status.RUNNING, ProductDescriptionJob.Status.PENDING, LocalDateTime.now()));
+        if (recovered != null && recovered > 0) {
+            log.info("{} descrições de produto interrompidas voltaram para a fila", recovered);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        running = false;
+    }
+    
+    /** Registra os jobs dos produtos; chamado dentro da transação que cria os produtos. */
+    public void enqueue(List<Product> products) {
+        jobRepository.saveAll(products.stream().map(product -> new ProductDescriptionJob(product.getId())).toList());
+    }
+    
+    /** Inicia workers enquanto houver vagas; cada um segue pegando lotes até a fila esvaziar. */
+    @Scheduled(fixedDelayString = "${app.products.description-jobs.poll-interval:PT2S}")
+    public void dispatch() {
+        while (running && workerPermits.tryAcquire()) {
+            List<ProductDescriptionJob> batch = claim();
+            if (batch.isEmpty()) {
+                workerPermits.release();
+                return;
+            }
+            aiTaskExecutor.execute(() -> {
+                try {
+                    List<ProductDescriptionJob> current = batch;
+                    while (!current.isEmpty() && process(current)) {
+                        current = running ? claim() : List.of();
+                    }
+                } finally {
+                    workerPermits.release();
+                }
+            });
+        }
+    }
+    
+    public Optional<ProductDescriptionStatus> status(Long productId) {
+        return jobRepository.findById(productId).map(job -> new ProductDescriptionStatus(
+            job.getProductId(), job.getStatus(), job.getAttempts(), job.getLastError(),
+            job.getStatus() == ProductDescriptionJob.Status.COMPLETED
+                ? catalog.get(productId).map(CatalogProduct::generatedDescription).orElse(null)
+                : null,
+            job.getUpdatedAt()));
+    }
+    
+    /** Quantidade de jobs por estado. */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (ProductDescriptionJob.Status status : ProductDescriptionJob.Status.values()) {
+            stats.put(status.name().toLowerCase(), jobRepository.countByStatus(status));
+        }
+        return stats;
+    }
+    
+    private List<ProductDescriptionJob> claim() {
+        claimLock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<ProductDescriptionJob> jobs = jobRepository.findByStatusOrderByProductId(
+                    ProductDescriptionJob.Status.PENDING, Limit.of(batchSize));
+                LocalDateTime now = LocalDateTime.now();
+                jobs.forEach(job -> {
+                    job.setStatus(ProductDescriptionJob.Status.RUNNING);
+                    job.setUpdatedAt(now);
+                });
+                return jobRepository.saveAll(jobs);
+            });
+        } finally {
+            claimLock.unlock();
+        }
+    }
+    
+    // false quando o modelo recusou por sobrecarga: o worker para e a fila espera o próximo ciclo
+    private boolean process(List<ProductDescriptionJob> batch) {
+        Map<Long, Product> products = productRepository.findAllById(
+                batch.stream().map(ProductDescriptionJob::getProductId).toList()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, String> descriptions;
+        String error;
+        try {
+            descriptions = products.isEmpty()
+                ? Map.of()
+                : openAIService.generateProductDescriptions(List.copyOf(products.values()));
+            error = "descrição ausente na resposta do modelo";
+        } catch (LlmOverloadedException e) {
+            log.debug("Descrições de produto adiadas: {}", e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> requeue(batch));
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gerar descrições de {} produtos: {}", batch.size(), e.getMessage());
+            descriptions = Map.of();
+            error = e.getMessage();
+        }
+        
+        Map<Long, String> generated = descriptions;
+        String failure = error;
+        transactionTemplate.executeWithoutResult(status -> complete(batch, products, generated, failure));
+        return true;
+    }
+    
+    private void complete(List<ProductDescriptionJob> batch, Map<Long, Product> products,
+                          Map<Long, String> descriptions, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> described = new ArrayList<>();
+        for (ProductDescriptionJob job : batch) {
+            Product product = products.get(job.getProductId());
+            String description = descriptions.get(job.getProductId());
+            job.setUpdatedAt(now);
+            if (product == null) {
+                job.setStatus(ProductDescriptionJob.Status.FAILED);
+                job.setLastError("produto não encontrado");
+            } else if (description != null) {
+                product.setGeneratedDescription(description);
+                described.add(productRepository.save(product));
+                job.setStatus(ProductDescriptionJob.Status.COMPLETED);
+                job.setLastError(null);
+            } else {
+                job.setAttempts(job.getAttempts() + 1);
+                job.setLastError(error);
+                job.setStatus(job.getAttempts() >= maxAttempts
+                    ? ProductDescriptionJob.Status.FAILED
+                    : ProductDescriptionJob.Status.PENDING);
+            }
+            outcomes(job.getStatus()).increment();
+        }
+        jobRepository.saveAll(batch);
+        catalog.publish(described);
+    }
+    
+    private void requeue(List<ProductDescriptionJob> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(job -> {
+            job.setStatus(ProductDescriptionJob.Status.PENDING);
+            job.setUpdatedAt(now);
+        });
+        jobRepository.saveAll(batch);
+    }
+    
+    private Counter outcomes(ProductDescriptionJob.Status status) {
+        return Counter.builder("product.description.jobs")
+            .description("Tentativas de geração de descrição de produto, pelo estado resultante")
+            .tag("status", status.name().toLowerCase())
+            .register(meterRegistry);
+    }
+}
@@ -1,6 +1,10 @@
 package com.gmontinny.springbootaiopenaitensorflow.service;
 
+import com.gmontinny.springbootaiopenaitensorflow.catalog.CatalogProduct;
+import com.gmontinny.springbootaiopenaitensorflow.dto.CursorPage;
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
 import com.gmontinny.springbootaiopenaitensorflow.dto.ProductRequest;
+import com.gmontinny.springbootaiopenaitensorflow.dto.ProductSummary;
 import com.gmontinny.springbootaiopenaitensorflow.entity.Product;
 import com.gmontinny.springbootaiopenaitensorflow.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -8,35 +12,73 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/** Gravações de produtos vão ao banco; todas as leituras saem do catálogo em memória. */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
     
     private final ProductRepository productRepository;
-    private final OpenAIService openAIService;
+    private final ProductDescriptionQueue descriptionQueue;
+    private final ProductCatalogService catalog;
+    private final KeysetPaginator paginator;
+    
+    /** Grava o produto e enfileira a descrição gerada, sem esperar o modelo. */
+    @Transactional
+    public Product createProduct(ProductRequest request) {
+        return createProducts(List.of(request)).get(0);
+    }
     
+    /** Importação em lote: um único saveAll e os jobs de descrição na mesma transação. */
     @Transactional
-    public Product createProductWithDescription(ProductRequest request) {
-        log.info("Criando produto: {}", request.getName());
-        
-        // Gerar descrição usando OpenAI
-        String generatedDescription = openAIService.generateProductDescription(
-            request.getName(), 
-            request.getCategory(), 
-            request.getPrice()
-        );
-        
+    public List<Product> createProducts(List<ProductRequest> requests) {
+        List<Product> saved = productRepository.saveAll(requests.stream().map(ProductService::toProduct).toList());
+        descriptionQueue.enqueue(saved);
+        catalog.publish(saved);
+        log.info("{} produtos criados com descrição pendente", saved.size());
+        return saved;
+    }
+    
+    /** Listagem paginada por keyset, mais recentes primeiro; {@code category} opcional. */
+    public CursorPage<ProductSummary> summaries(String category, String cursor, int size) {
+        return paginator.page(cursor, size,
+            (position, limit) -> catalog.page(category, position, limit.max()).stream()
+                .map(CatalogProduct::toSummary)
+                .toList(),
+            summary -> new PageCursor(summary.getCreatedAt(), summary.getId()));
+    }
+    
+    public CursorPage<CatalogProduct> products(String category, String cursor, int size) {
+        return paginator.page(cursor, size,
+            (position, limit) -> catalog.page(category, position, limit.max()),
+            ProductService::positionOf);
+    }
+    
+    /** Produtos com preço entre {@code min} e {@code max}, do mais barato ao mais caro. */
+    public List<CatalogProduct> byPrice(String category, Double min, Double max, int size) {
+        return catalog.priceRange(category, min, max, paginator.pageSize(size));
+    }
+    
+    public void export(String category, OutputStream output) throws IOException {
+        paginator.exportJsonArray(output,
+            (position, limit) -> catalog.page(category, position, limit.max()),
+            ProductService::positionOf);
+    }
+    
+    private static Product toProduct(ProductRequest request) {
         Product product = new Product();
         product.setName(request.getName());
         product.setDescription(request.getDescription());
-        product.setGeneratedDescription(generatedDescription);
         product.setPrice(request.getPrice());
         product.setCategory(request.getCategory());
-        
-        Product savedProduct = productRepository.save(product);
-        log.info("Produto criado com ID: {}", savedProduct.getId());
-        
-        return savedProduct;
+        return product;
+    }
+    
+    private static PageCursor positionOf(CatalogProduct product) {
+        return new PageCursor(product.createdAt(), product.id());
     }
 }
\ No newline at end of file
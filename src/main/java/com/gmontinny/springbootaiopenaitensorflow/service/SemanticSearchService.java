@@ -0,0 +1,224 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gmontinny.springbootaiopenaitensorflow.dto.HybridSearchHit;
+import com.gmontinny.springbootaiopenaitensorflow.dto.HybridSearchRequest;
+import com.gmontinny.springbootaiopenaitensorflow.dto.SemanticSearchHit;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import com.gmontinny.springbootaiopenaitensorflow.search.Bm25Index;
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Monta o resultado da busca semântica: os IDs retornados pelo vector store são
+ * hidratados com uma única consulta {@code IN} e devolvidos na ordem de similaridade.
+ * Linhas já hidratadas podem ficar num cache em memória (mensagens não são alteradas
+ * depois de salvas).
+ * <p>
+ * Também mantém um índice BM25 em memória sobre mensagem original e resumo, atualizado a
+ * cada mensagem salva, usado pela busca híbrida (palavras-chave + vetorial com
+ * reciprocal-rank fusion).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticSearchService implements MeterBinder {
+    
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    
+    private final OpenAIService openAIService;
+    private final MilvusService milvusService;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ExecutorService aiTaskExecutor;
+    private final Bm25Index keywordIndex = new Bm25Index();
+    
+    @Value("${app.search.hybrid.candidates:100}")
+    private int hybridCandidates;
+    
+    @Value("${app.search.hybrid.rrf-k:60}")
+    private int rrfK;
+    
+    @Value("${app.search.row-cache.enabled:true}")
+    private boolean rowCacheEnabled;
+    
+    @Value("${app.search.row-cache.maximum-size:10000}")
+    private long rowCacheMaximumSize;
+    
+    @Value("${app.search.row-cache.ttl:10m}")
+    private Duration rowCacheTtl;
+    
+    private Cache<Long, ChatMessage> rowCache;
+    
+    @PostConstruct
+    public void init() {
+        if (rowCacheEnabled) {
+            rowCache = Caffeine.newBuilder()
+                .maximumSize(rowCacheMaximumSize)
+                .expireAfterWrite(rowCacheTtl)
+                .recordStats()
+                .build();
+        }
+        rebuildKeywordIndex();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (rowCache != null) {
+            CaffeineCacheMetrics.monitor(registry, rowCache, "search-rows");
+        }
+    }
+    
+    /** Indexa uma mensagem recém-salva na busca por palavras-chave. */
+    public void index(ChatMessage message) {
+        keywordIndex.add(message.getId(),
+            Objects.toString(message.getOriginalMessage(), "") + "\n" + Objects.toString(message.getSummary(), ""),
+            message.getSentiment() != null ? message.getSentiment().ordinal() : -1,
+            toEpochMillis(message.getCreatedAt()));
+    }
+    
+    /**
+     * Busca híbrida: BM25 e vetorial rodam em paralelo, com os filtros aplicados dentro de cada
+     * busca, e as listas são combinadas por reciprocal-rank fusion ({@code 1 / (k + posição)}).
+     */
+    public List<HybridSearchHit> hybridSearch(HybridSearchRequest request) {
+        Bm25Index.Filter filter = toFilter(request);
+        int candidates = Math.max(request.getTopK(), hybridCandidates);
+        
+        CompletableFuture<List<VectorMatch>> vectorFuture = CompletableFuture.supplyAsync(
+            () -> milvusService.searchMatches(openAIService.generateEmbedding(request.getQuery()), candidates,
+                filter == null ? null : id -> keywordIndex.matches(id, filter)),
+            aiTaskExecutor);
+        List<VectorMatch> keywordMatches = keywordIndex.search(request.getQuery(), candidates, filter);
+        List<VectorMatch> vectorMatches = vectorFuture.join();
+        
+        Map<Long, FusedRank> fused = new LinkedHashMap<>();
+        for (int rank = 1; rank <= keywordMatches.size(); rank++) {
+            fused.computeIfAbsent(keywordMatches.get(rank - 1).id(), FusedRank::new).keywordRank = rank;
+        }
+        for (int rank = 1; rank <= vectorMatches.size(); rank++) {
+            fused.computeIfAbsent(vectorMatches.get(rank - 1).id(), FusedRank::new).vectorRank = rank;
+        }
+        List<FusedRank> ranked = fused.values().stream()
+            .sorted(Comparator.comparingDouble((FusedRank rank) -> rank.score(rrfK)).reversed())
+            .limit(request.getTopK())
+            .toList();
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, ChatMessage> rows = hydrate(ranked.stream().map(rank -> rank.id).toList());
+        List<HybridSearchHit> hits = new ArrayList<>(ranked.size());
+        for (FusedRank rank : ranked) {
+            ChatMessage message = rows.get(rank.id);
+            if (message != null) {
+                hits.add(new HybridSearchHit(message, rank.score(rrfK), rank.keywordRank, rank.vectorRank));
+            }
+        }
+        log.debug("Busca híbrida: {} por palavras-chave, {} vetoriais, {} após fusão",
+            keywordMatches.size(), vectorMatches.size(), hits.size());
+        return hits;
+    }
+    
+    public List<SemanticSearchHit> search(String query, int topK) {
+        List<VectorMatch> matches = milvusService.searchMatches(openAIService.generateEmbedding(query), topK);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, ChatMessage> rows = hydrate(matches.stream().map(VectorMatch::id).toList());
+        
+        // Reordenar pelo ranking do vector store; IDs sem linha no banco são descartados
+        List<SemanticSearchHit> hits = new ArrayList<>(matches.size());
+        for (VectorMatch match : matches) {
+            ChatMessage message = rows.get(match.id());
+            if (message != null) {
+                hits.add(new SemanticSearchHit(message, match.score()));
+            }
+        }
+        log.debug("Busca semântica: {} resultados do vector store, {} hidratados", matches.size(), hits.size());
+        return hits;
+    }
+    
+    private Map<Long, ChatMessage> hydrate(List<Long> ids) {
+        if (rowCache == null) {
+            return findAllById(ids);
+        }
+        // Só os IDs ausentes no cache vão ao banco, todos na mesma consulta
+        return rowCache.getAll(ids, this::findAllById);
+    }
+    
+    // Com H2 em memória o banco começa quase vazio; com um banco persistente, reconstrói o índice no startup
+    private void rebuildKeywordIndex() {
+        Pageable page = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+        Slice<ChatMessage> slice;
+        do {
+            slice = chatMessageRepository.findAll(page);
+            slice.forEach(this::index);
+            page = slice.nextPageable();
+        } while (slice.hasNext());
+        log.info("Índice de palavras-chave carregado com {} mensagens", keywordIndex.size());
+    }
+    
+    private static Bm25Index.Filter toFilter(HybridSearchRequest request) {
+        if (request.getSentiment() == null && request.getFrom() == null && request.getTo() == null) {
+            return null;
+        }
+        return new Bm25Index.Filter(
+            request.getSentiment() != null ? request.getSentiment().ordinal() : -1,
+            request.getFrom() != null ? toEpochMillis(request.getFrom()) : Long.MIN_VALUE,
+            request.getTo() != null ? toEpochMillis(request.getTo()) : Long.MAX_VALUE);
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private Map<Long, ChatMessage> findAllById(Collection<? extends Long> ids) {
+        return chatMessageRepository.findAllById(List.copyOf(ids)).stream()
+            .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+    }
+    
+    private static final class FusedRank {
+        
+        final long id;
+        Integer keywordRank;
+        Integer vectorRank;
+        
+        FusedRank(long id) {
+            this.id = id;
+        }
+        
+        double score(int k) {
+            return (keywordRank != null ? 1.0 / (k + keywordRank) : 0)
+                + (vectorRank != null ? 1.0 / (k + vectorRank) : 0);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.gmontinny.springbootaiopenaitensorflow.service;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.ChatMessageSummary;
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+import com.gmontinny.springbootaiopenaitensorflow.dto.SentimentBucket;
+import com.gmontinny.springbootaiopenaitensorflow.dto.SentimentReport;
+import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.entity.SentimentRollup;
+import com.gmontinny.springbootaiopenaitensorflow.repository.ChatMessageRepository;
+import com.gmontinny.springbootaiopenaitensorflow.repository.SentimentRollupRepository;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentCounters;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentTally;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Análise de sentimento pré-agregada: cada mensagem salva incrementa contadores em memória
+ * por hora, gravados periodicamente na tabela {@code sentiment_rollups} (uma linha por hora).
+ * Relatórios leem uma linha por hora do período mais o que ainda não foi gravado, sem
+ * percorrer as mensagens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SentimentAnalyticsService {
+    
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    
+    private final SentimentRollupRepository rollupRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final SentimentCounters counters = new SentimentCounters();
+    // Relatórios somam tabela e pendentes; a gravação altera os dois, então roda com exclusividade
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    
+    @Value("${app.analytics.sentiment.memory-retention:2h}")
+    private Duration memoryRetention;
+    
+    @Value("${app.analytics.sentiment.max-buckets:2000}")
+    private int maxBuckets;
+    
+    @PostConstruct
+    public void init() {
+        // Tabela vazia (ex.: H2 recém-criado): agrega as mensagens existentes uma única vez
+        if (rollupRepository.count() == 0) {
+            backfill();
+        }
+    }
+    
+    public void record(ChatMessage message) {
+        record(message.getCreatedAt(), message.getSentiment(), message.getSentimentScore());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.sentiment.flush-interval:PT30S}",
+        initialDelayString = "${app.analytics.sentiment.flush-interval:PT30S}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            List<SentimentCounters.Pending> pending = counters.pending();
+            if (!pending.isEmpty()) {
+                Map<LocalDateTime, SentimentRollup> rows = rollupRepository
+                    .findAllById(pending.stream().map(SentimentCounters.Pending::start).toList()).stream()
+                    .collect(Collectors.toMap(SentimentRollup::getBucketStart, Function.identity()));
+                List<SentimentRollup> updated = new ArrayList<>(pending.size());
+                for (SentimentCounters.Pending p : pending) {
+                    SentimentRollup row = rows.get(p.start());
+                    SentimentTally tally = row != null ? toTally(row) : new SentimentTally();
+                    updated.add(toRollup(p.start(), tally.add(p.delta())));
+                }
+                rollupRepository.saveAll(updated);
+                counters.markFlushed(pending);
+                log.debug("Agregados de sentimento gravados para {} horas", updated.size());
+            }
+            counters.evictBefore(LocalDateTime.now().minus(memoryRetention));
+        } catch (RuntimeException e) {
+            // Os incrementos continuam pendentes e entram na próxima gravação
+            log.warn("Falha ao gravar agregados de sentimento: {}", e.getMessage());
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+    
+    /**
+     * Distribuição e percentis do score em {@code [from, to)}, por hora ou por dia. Intervalos
+     * sem mensagens aparecem zerados para a série não ter lacunas.
+     */
+    public SentimentReport report(LocalDateTime from, LocalDateTime to, SentimentReport.Granularity granularity,
+                                  boolean includeHistogram) {
+        ChronoUnit unit = granularity == SentimentReport.Granularity.DAY ? ChronoUnit.DAYS : ChronoUnit.HOURS;
+        LocalDateTime start = from.truncatedTo(unit);
+        if (!start.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período vazio: from deve ser anterior a to");
+        }
+        long bucketCount = unit.between(start, to.minusNanos(1).truncatedTo(unit)) + 1;
+        if (bucketCount > maxBuckets) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Período com " + bucketCount + " intervalos; máximo " + maxBuckets);
+        }
+        
+        TreeMap<LocalDateTime, SentimentTally> series = new TreeMap<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = bucket.plus(1, unit)) {
+            series.put(bucket, new SentimentTally());
+        }
+        flushLock.readLock().lock();
+        try {
+            rollupRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(start, to)
+                .forEach(row -> series.get(row.getBucketStart().truncatedTo(unit)).add(toTally(row)));
+            counters.pending(start, to)
+                .forEach(p -> series.get(p.start().truncatedTo(unit)).add(p.delta()));
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        
+        SentimentTally overall = new SentimentTally();
+        List<SentimentBucket> buckets = new ArrayList<>(series.size());
+        series.forEach((bucket, tally) -> {
+            overall.add(tally);
+            buckets.add(toBucket(bucket, tally, includeHistogram));
+        });
+        return new SentimentReport(start, to, granularity, toBucket(start, overall, includeHistogram), buckets);
+    }
+    
+    private void record(LocalDateTime createdAt, ChatMessage.SentimentType sentiment, Double score) {
+        if (sentiment == null || score == null) {
+            return;
+        }
+        counters.record(createdAt != null ? createdAt : LocalDateTime.now(), sentiment, score);
+    }
+    
+    private void backfill() {
+        PageCursor position = PageCursor.FIRST;
+        List<ChatMessageSummary> batch;
+        long total = 0;
+        do {
+            batch = chatMessageRepository.findSummariesBefore(position.createdAt(), position.id(),
+                Limit.of(BACKFILL_BATCH_SIZE));
+            for (ChatMessageSummary message : batch) {
+                record(message.getCreatedAt(), message.getSentiment(), message.getSentimentScore());
+            }
+            if (!batch.isEmpty()) {
+                ChatMessageSummary last = batch.get(batch.size() - 1);
+                position = new PageCursor(last.getCreatedAt(), last.getId());
+            }
+            total += batch.size();
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        log.info("Agregados de sentimento reconstruídos a partir de {} mensagens", total);
+    }
+    
+    private static SentimentBucket toBucket(LocalDateTime start, SentimentTally tally, boolean includeHistogram) {
+        return new SentimentBucket(start, tally.total(),
+            tally.count(ChatMessage.SentimentType.POSITIVE),
+            tally.count(ChatMessage.SentimentType.NEGATIVE),
+            tally.count(ChatMessage.SentimentType.NEUTRAL),
+            tally.averageScore(), tally.percentile(0.5), tally.percentile(0.9), tally.percentile(0.99),
+            includeHistogram ? tally.bins() : null);
+    }
+    
+    private static SentimentTally toTally(SentimentRollup row) {
+        long[] counts = new long[ChatMessage.SentimentType.values().length];
+        counts[ChatMessage.SentimentType.POSITIVE.ordinal()] = row.getPositiveCount();
+        counts[ChatMessage.SentimentType.NEGATIVE.ordinal()] = row.getNegativeCount();
+        counts[ChatMessage.SentimentType.NEUTRAL.ordinal()] = row.getNeutralCount();
+        long[] bins = Arrays.stream(row.getScoreHistogram().split(",")).mapToLong(Long::parseLong).toArray();
+        return new SentimentTally(counts, row.getScoreSum(), bins);
+    }
+    
+    private static SentimentRollup toRollup(LocalDateTime start, SentimentTally tally) {
+        return new SentimentRollup(start,
+            tally.count(ChatMessage.SentimentType.POSITIVE),
+            tally.count(ChatMessage.SentimentType.NEGATIVE),
+            tally.count(ChatMessage.SentimentType.NEUTRAL),
+            tally.scoreSum(),
+            Arrays.stream(tally.bins()).mapToObj(Long::toString).collect(Collectors.joining(",")));
+    }
+}
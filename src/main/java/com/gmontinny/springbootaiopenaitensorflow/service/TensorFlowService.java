@@ -1,69 +1,91 @@
 package com.gmontinny.springbootaiopenaitensorflow.service;
 
 import com.gmontinny.springbootaiopenaitensorflow.entity.ChatMessage;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SavedModelSentimentEngine;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentLexicon;
+import com.gmontinny.springbootaiopenaitensorflow.sentiment.SentimentResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 @Slf4j
 public class TensorFlowService {
     
-    public ChatMessage.SentimentType analyzeSentiment(String text) {
-        // Simulação de análise de sentimento usando TensorFlow
-        // Em produção, você carregaria um modelo real do TensorFlow
-        
-        double score = calculateSentimentScore(text);
-        
-        if (score > 0.6) {
-            return ChatMessage.SentimentType.POSITIVE;
-        } else if (score < 0.4) {
-            return ChatMessage.SentimentType.NEGATIVE;
-        } else {
-            return ChatMessage.SentimentType.NEUTRAL;
-        }
-    }
+    @Value("${app.tensorflow.model-path}")
+    private String modelPath;
     
-    public double calculateSentimentScore(String text) {
-        // Simulação simples de score de sentimento
-        // Em produção, usaria modelo TensorFlow treinado
-        
-        String lowerText = text.toLowerCase();
-        
-        String[] positiveWords = {"bom", "ótimo", "excelente", "feliz", "amor", "gosto", "maravilhoso"};
-        String[] negativeWords = {"ruim", "péssimo", "ódio", "triste", "problema", "erro", "terrível"};
-        
-        int positiveCount = 0;
-        int negativeCount = 0;
-        
-        for (String word : positiveWords) {
-            if (lowerText.contains(word)) {
-                positiveCount++;
-            }
+    @Value("${app.tensorflow.batch.max-size:64}")
+    private int maxBatchSize;
+    
+    @Value("${app.tensorflow.batch.max-wait:5ms}")
+    private Duration maxBatchWait;
+    
+    @Value("${app.tensorflow.warmup-runs:3}")
+    private int warmupRuns;
+    
+    @Value("${app.tensorflow.lexicon:classpath:sentiment-lexicon.tsv}")
+    private Resource lexiconResource;
+    
+    private SavedModelSentimentEngine engine;
+    private SentimentLexicon lexicon;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        try (Reader reader = new InputStreamReader(lexiconResource.getInputStream(), StandardCharsets.UTF_8)) {
+            lexicon = SentimentLexicon.load(reader);
         }
+        log.info("Léxico de sentimento carregado de {} ({} termos)", lexiconResource.getDescription(), lexicon.size());
         
-        for (String word : negativeWords) {
-            if (lowerText.contains(word)) {
-                negativeCount++;
-            }
+        if (!Files.isDirectory(Path.of(modelPath))) {
+            log.warn("Modelo TensorFlow não encontrado em {} - usando o léxico", modelPath);
+            return;
         }
-        
-        int totalWords = positiveCount + negativeCount;
-        if (totalWords == 0) {
-            return 0.5; // Neutro
+        try {
+            engine = new SavedModelSentimentEngine(modelPath, maxBatchSize, maxBatchWait, warmupRuns);
+        } catch (Exception e) {
+            log.error("Erro ao carregar modelo TensorFlow - usando o léxico", e);
         }
-        
-        return (double) positiveCount / totalWords;
     }
     
-    // Método para carregar modelo TensorFlow real (exemplo)
-    /*
-    private void loadTensorFlowModel() {
-        try {
-            SavedModelBundle model = SavedModelBundle.load(modelPath, "serve");
-            log.info("Modelo TensorFlow carregado com sucesso");
-        } catch (Exception e) {
-            log.error("Erro ao carregar modelo TensorFlow", e);
+    @PreDestroy
+    public void close() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+    
+    /** Rótulo e score numa única passada (uma inferência ou uma varredura do léxico). */
+    public SentimentResult analyze(String text) {
+        return SentimentResult.fromScore(engine != null ? engine.score(text) : lexicon.score(text));
+    }
+    
+    /** Analisa vários textos de uma vez; com o modelo carregado, roda em lotes na sessão. */
+    public List<SentimentResult> analyzeAll(List<String> texts) {
+        if (engine != null) {
+            return Arrays.stream(engine.scoreAll(texts)).mapToObj(SentimentResult::fromScore).toList();
         }
+        return texts.stream().map(text -> SentimentResult.fromScore(lexicon.score(text))).toList();
+    }
+    
+    public ChatMessage.SentimentType analyzeSentiment(String text) {
+        return analyze(text).type();
+    }
+    
+    public double calculateSentimentScore(String text) {
+        return analyze(text).score();
     }
-    */
 }
\ No newline at end of file
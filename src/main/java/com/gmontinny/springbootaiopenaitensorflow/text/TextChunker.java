@@ -0,0 +1,147 @@
+package com.gmontinny.springbootaiopenaitensorflow.text;
+
+import java.text.BreakIterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Divide textos longos em trechos de até {@code maxTokens} tokens, sem cortar frases: as frases
+ * são agrupadas em ordem e só uma frase maior que o limite é quebrada entre palavras. Com
+ * {@code overlapTokens > 0}, cada trecho repete as últimas frases do anterior (contexto para
+ * resumos). Os trechos são substrings exatas do texto, com o espaço em branco que as segue;
+ * sem sobreposição, concatená-los devolve o texto original.
+ * <p>
+ * A contagem de tokens é a soma da contagem de cada frase, uma aproximação fiel o bastante do
+ * tokenizer do modelo para decidir os cortes.
+ */
+public class TextChunker {
+    
+    private static final Pattern WORD = Pattern.compile("\\S+\\s*");
+    private static final Locale LOCALE = Locale.forLanguageTag("pt-BR");
+    
+    private final ToIntFunction<String> tokenCounter;
+    
+    public TextChunker(ToIntFunction<String> tokenCounter) {
+        this.tokenCounter = tokenCounter;
+    }
+    
+    public int estimateTokens(String text) {
+        return text == null || text.isEmpty() ? 0 : tokenCounter.applyAsInt(text);
+    }
+    
+    /** Se o texto passa de {@code maxTokens}; um token tem ao menos um caractere, então textos curtos nem são tokenizados. */
+    public boolean exceeds(String text, int maxTokens) {
+        return text != null && text.length() > maxTokens && estimateTokens(text) > maxTokens;
+    }
+    
+    public List<String> split(String text, int maxTokens, int overlapTokens) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens deve ser positivo");
+        }
+        int overlap = Math.max(0, Math.min(overlapTokens, maxTokens / 2));
+        List<String> chunks = new ArrayList<>();
+        Deque<Piece> current = new ArrayDeque<>();
+        int currentTokens = 0;
+        boolean pending = false;
+        
+        for (Piece piece : pieces(text, maxTokens)) {
+            if (currentTokens + piece.tokens > maxTokens && !current.isEmpty()) {
+                chunks.add(join(current));
+                pending = false;
+                // Mantém o fim do trecho anterior como contexto, sem ultrapassar o limite com a nova frase
+                Deque<Piece> carried = new ArrayDeque<>();
+                int carriedTokens = 0;
+                while (!current.isEmpty() && carriedTokens + current.peekLast().tokens <= overlap
+                        && carriedTokens + current.peekLast().tokens + piece.tokens <= maxTokens) {
+                    Piece last = current.pollLast();
+                    carried.addFirst(last);
+                    carriedTokens += last.tokens;
+                }
+                current = carried;
+                currentTokens = carriedTokens;
+            }
+            current.addLast(piece);
+            currentTokens += piece.tokens;
+            pending = true;
+        }
+        // Sem frases novas desde o último corte, o que sobrou é só a sobreposição, já emitida
+        if (pending && !current.isEmpty()) {
+            chunks.add(join(current));
+        }
+        return chunks;
+    }
+    
+    // Frases do texto; as que sozinhas passam do limite viram grupos de palavras
+    private List<Piece> pieces(String text, int maxTokens) {
+        List<Piece> pieces = new ArrayList<>();
+        BreakIterator sentences = BreakIterator.getSentenceInstance(LOCALE);
+        sentences.setText(text);
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = text.substring(start, end);
+            int tokens = estimateTokens(sentence);
+            if (tokens <= maxTokens) {
+                pieces.add(new Piece(sentence, tokens));
+            } else {
+                splitWords(sentence, maxTokens, pieces);
+            }
+        }
+        return pieces;
+    }
+    
+    private void splitWords(String sentence, int maxTokens, List<Piece> pieces) {
+        StringBuilder group = new StringBuilder();
+        int groupTokens = 0;
+        Matcher words = WORD.matcher(sentence);
+        // Espaço no início da frase fica com a primeira palavra
+        int leading = 0;
+        while (leading < sentence.length() && Character.isWhitespace(sentence.charAt(leading))) {
+            leading++;
+        }
+        group.append(sentence, 0, leading);
+        while (words.find()) {
+            String word = words.group();
+            int tokens = estimateTokens(word);
+            if (groupTokens + tokens > maxTokens && groupTokens > 0) {
+                pieces.add(new Piece(group.toString(), groupTokens));
+                group.setLength(0);
+                groupTokens = 0;
+            }
+            if (tokens > maxTokens) {
+                // Sequência sem espaços maior que o limite (ex.: base64): corte por caracteres
+                if (!group.isEmpty()) {
+                    pieces.add(new Piece(group.toString(), groupTokens));
+                    group.setLength(0);
+                    groupTokens = 0;
+                }
+                for (int from = 0; from < word.length(); from += maxTokens) {
+                    String slice = word.substring(from, Math.min(word.length(), from + maxTokens));
+                    pieces.add(new Piece(slice, estimateTokens(slice)));
+                }
+                continue;
+            }
+            group.append(word);
+            groupTokens += tokens;
+        }
+        if (!group.isEmpty()) {
+            pieces.add(new Piece(group.toString(), groupTokens));
+        }
+    }
+    
+    private static String join(Deque<Piece> pieces) {
+        StringBuilder text = new StringBuilder();
+        for (Piece piece : pieces) {
+            text.append(piece.text);
+        }
+        return text.toString();
+    }
+    
+    private record Piece(String text, int tokens) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa inserções de vetores numa fila limitada e as grava em lote no {@link VectorStore}
+ * de destino, quando o lote enche ou quando o intervalo de flush expira.
+ * <p>
+ * Produtores bloqueiam até {@code enqueueTimeout} com a fila cheia e depois recebem
+ * {@link RejectedExecutionException}. Lotes que falham após todas as tentativas vão
+ * para um arquivo de dead-letter em NDJSON, que pode ser reprocessado depois.
+ */
+@Slf4j
+public class BatchingVectorWriter implements AutoCloseable {
+
+    private final VectorStore target;
+    private final Settings settings;
+    private final BlockingQueue<PendingVector> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public BatchingVectorWriter(VectorStore target, Settings settings) {
+        this.target = target;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+        this.worker = Thread.ofPlatform()
+            .name("vector-batch-writer")
+            .daemon(true)
+            .start(this::run);
+    }
+
+    public void submit(long id, float[] vector) {
+        if (!running) {
+            throw new RejectedExecutionException("Writer de vetores encerrado");
+        }
+        try {
+            if (!queue.offer(new PendingVector(id, vector),
+                    settings.enqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException(
+                    "Fila de vetores cheia (" + settings.queueCapacity() + "), embedding " + id + " rejeitado");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrompido ao enfileirar embedding " + id, e);
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    /** Para de aceitar novos vetores e aguarda a fila ser esvaziada. */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(settings.drainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive() || !queue.isEmpty()) {
+            List<PendingVector> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            log.warn("Writer de vetores encerrado com {} itens pendentes", leftover.size());
+            deadLetter(leftover, new IllegalStateException("Tempo de drenagem esgotado"));
+        }
+    }
+
+    private void run() {
+        List<PendingVector> batch = new ArrayList<>(settings.maxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingVector> batch) throws InterruptedException {
+        PendingVector first = queue.poll(settings.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + settings.flushInterval().toNanos();
+        while (batch.size() < settings.maxBatchSize()) {
+            queue.drainTo(batch, settings.maxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= settings.maxBatchSize() || remaining <= 0 || !running) {
+                break;
+            }
+            PendingVector next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingVector> batch) {
+        long[] ids = new long[batch.size()];
+        float[][] vectors = new float[batch.size()][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.get(i).id();
+            vectors[i] = batch.get(i).vector();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                target.addAll(ids, vectors);
+                log.debug("Lote de {} embeddings armazenado", ids.length);
+                return;
+            } catch (Exception e) {
+                if (attempt >= settings.maxAttempts()) {
+                    log.error("Lote de {} embeddings falhou após {} tentativas", ids.length, attempt, e);
+                    deadLetter(batch, e);
+                    return;
+                }
+                long delay = backoff(attempt);
+                log.warn("Falha ao gravar lote de {} embeddings (tentativa {}), nova tentativa em {} ms: {}",
+                    ids.length, attempt, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    deadLetter(batch, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Backoff exponencial com "full jitter": aleatório entre 0 e base * 2^(tentativa-1)
+    private long backoff(int attempt) {
+        long ceiling = settings.retryBackoff().toMillis() << Math.min(attempt - 1, 16);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void deadLetter(List<PendingVector> failed, Exception cause) {
+        if (failed.isEmpty()) {
+            return;
+        }
+        Path path = settings.deadLetterPath();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (PendingVector pending : failed) {
+                    writer.write(toJson(pending, cause));
+                    writer.newLine();
+                }
+            }
+            log.warn("{} embeddings enviados para dead-letter em {}", failed.size(), path);
+        } catch (IOException e) {
+            log.error("Falha ao gravar dead-letter; embeddings perdidos: {}",
+                failed.stream().map(PendingVector::id).toList(), e);
+        }
+    }
+
+    private static String toJson(PendingVector pending, Exception cause) {
+        StringBuilder json = new StringBuilder(pending.vector().length * 12 + 64);
+        json.append("{\"messageId\":").append(pending.id()).append(",\"error\":\"")
+            .append(String.valueOf(cause.getMessage()).replace("\\", "\\\\").replace("\"", "\\\"")
+                .replace("\n", "\\n").replace("\r", "\\r"))
+            .append("\",\"embedding\":[");
+        float[] vector = pending.vector();
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(vector[i]);
+        }
+        return json.append("]}").toString();
+    }
+
+    public record Settings(
+        int queueCapacity,
+        int maxBatchSize,
+        Duration flushInterval,
+        Duration enqueueTimeout,
+        int maxAttempts,
+        Duration retryBackoff,
+        Duration drainTimeout,
+        Path deadLetterPath
+    ) {
+    }
+
+    private record PendingVector(long id, float[] vector) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Busca exata por cosseno sobre uma arena contígua de {@code float[]}.
+ * Os vetores são normalizados na inserção, então a similaridade vira um
+ * produto escalar; varreduras grandes são particionadas no fork-join pool.
+ */
+public class BruteForceVectorStore implements VectorStore {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PARALLEL_THRESHOLD = 4096;
+    
+    private final int dimension;
+    private final ForkJoinPool pool;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private float[] arena;
+    private long[] ids;
+    private int count;
+    
+    public BruteForceVectorStore(int dimension) {
+        this(dimension, ForkJoinPool.commonPool());
+    }
+    
+    public BruteForceVectorStore(int dimension, ForkJoinPool pool) {
+        this.dimension = dimension;
+        this.pool = pool;
+        this.arena = new float[INITIAL_CAPACITY * dimension];
+        this.ids = new long[INITIAL_CAPACITY];
+    }
+    
+    @Override
+    public void add(long id, float[] vector) {
+        checkDimension(vector);
+        float[] normalized = VectorMath.normalize(vector);
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(count + 1);
+            System.arraycopy(normalized, 0, arena, count * dimension, dimension);
+            ids[count++] = id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void addAll(long[] batchIds, float[][] vectors) {
+        float[][] normalized = new float[vectors.length][];
+        for (int i = 0; i < vectors.length; i++) {
+            checkDimension(vectors[i]);
+            normalized[i] = VectorMath.normalize(vectors[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(count + normalized.length);
+            for (int i = 0; i < normalized.length; i++) {
+                System.arraycopy(normalized[i], 0, arena, count * dimension, dimension);
+                ids[count++] = batchIds[i];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<VectorMatch> search(float[] query, int topK) {
+        return search(query, topK, null);
+    }
+    
+    /** O filtro é aplicado na própria varredura, então o resultado continua exato. */
+    @Override
+    public List<VectorMatch> search(float[] query, int topK, LongPredicate filter) {
+        checkDimension(query);
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            if (count == 0) {
+                return List.of();
+            }
+            int k = Math.min(topK, count);
+            TopKCollector collector = count < PARALLEL_THRESHOLD
+                ? scan(normalized, filter, 0, count, k)
+                : pool.invoke(new ScanTask(normalized, filter, 0, count, k));
+            return collector.drainDescending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int dimension() {
+        return dimension;
+    }
+    
+    private TopKCollector scan(float[] query, LongPredicate filter, int from, int to, int k) {
+        TopKCollector collector = new TopKCollector(k);
+        for (int row = from; row < to; row++) {
+            if (filter != null && !filter.test(ids[row])) {
+                continue;
+            }
+            float score = VectorMath.dot(query, 0, arena, row * dimension, dimension);
+            if (score > collector.threshold()) {
+                collector.offer(ids[row], score);
+            }
+        }
+        return collector;
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(required, ids.length * 2);
+        long floats = (long) newCapacity * dimension;
+        if (floats > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Capacidade máxima da arena atingida: " + count + " vetores");
+        }
+        arena = Arrays.copyOf(arena, (int) floats);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+    
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                "Dimensão inválida: esperado " + dimension + ", recebido " + vector.length);
+        }
+    }
+    
+    private final class ScanTask extends RecursiveTask<TopKCollector> {
+        
+        private final float[] query;
+        private final LongPredicate filter;
+        private final int from;
+        private final int to;
+        private final int k;
+        
+        private ScanTask(float[] query, LongPredicate filter, int from, int to, int k) {
+            this.query = query;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+        }
+        
+        @Override
+        protected TopKCollector compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return scan(query, filter, from, to, k);
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(query, filter, from, mid, k);
+            left.fork();
+            TopKCollector right = new ScanTask(query, filter, mid, to, k).compute();
+            TopKCollector result = left.join();
+            result.merge(right);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.Arrays;
+
+/**
+ * Embedding imutável apoiado em {@code float[]}, sem boxing por componente.
+ * O array exposto por {@link #values()} é compartilhado e não deve ser alterado.
+ */
+public record Embedding(float[] values) {
+    
+    public Embedding {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("Embedding não pode ser vazio");
+        }
+    }
+    
+    public int dimension() {
+        return values.length;
+    }
+    
+    public Embedding requireDimension(int expected) {
+        if (values.length != expected) {
+            throw new IllegalArgumentException(
+                "Dimensão de embedding inválida: esperado " + expected + ", recebido " + values.length);
+        }
+        return this;
+    }
+    
+    /** Cópia com norma L2 unitária, na qual cosseno equivale ao produto escalar. */
+    public Embedding normalized() {
+        return new Embedding(VectorMath.normalize(values));
+    }
+    
+    public float cosine(Embedding other) {
+        requireDimension(other.dimension());
+        float dot = VectorMath.dot(values, other.values);
+        float norms = (float) Math.sqrt(VectorMath.dot(values, values) * VectorMath.dot(other.values, other.values));
+        return norms == 0f ? 0f : dot / norms;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Embedding embedding && Arrays.equals(values, embedding.values);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+    
+    @Override
+    public String toString() {
+        return "Embedding[dimension=" + values.length + "]";
+    }
+}
@@ -0,0 +1,590 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice aproximado HNSW (Hierarchical Navigable Small World) com similaridade de cosseno.
+ * <p>
+ * Buscas não usam locks: as listas de vizinhos são arrays imutáveis trocados por
+ * copy-on-write sob o monitor do próprio nó. Inserções concorrentes compartilham o
+ * read lock de snapshot, que só é tomado em modo exclusivo por {@link #save(Path)}.
+ */
+public class HnswVectorStore implements VectorStore {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 7 * Integer.BYTES;
+    private static final int MAX_LEVEL = 16;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private volatile int efSearch;
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final Object entryLock = new Object();
+    private final ConcurrentHashMap<Long, Integer> indexById = new ConcurrentHashMap<>();
+
+    private volatile Node[] nodes;
+    private volatile int count;
+    private volatile EntryPoint entry;
+
+    public HnswVectorStore(int dimension, int m, int efConstruction, int efSearch) {
+        if (m < 2) {
+            throw new IllegalArgumentException("M deve ser pelo menos 2: " + m);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.nodes = new Node[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void add(long id, float[] vector) {
+        checkDimension(vector);
+        float[] normalized = VectorMath.normalize(vector);
+
+        snapshotLock.readLock().lock();
+        try {
+            Node node = new Node(id, normalized, randomLevel());
+            int index = register(node);
+            if (index < 0) {
+                return;
+            }
+
+            EntryPoint current = entry;
+            if (current == null || node.level() > current.level()) {
+                // Nó que promove o topo do grafo: serializa com outras promoções
+                synchronized (entryLock) {
+                    current = entry;
+                    if (current == null) {
+                        entry = new EntryPoint(index, node.level());
+                        return;
+                    }
+                    link(index, node, current);
+                    if (node.level() > current.level()) {
+                        entry = new EntryPoint(index, node.level());
+                    }
+                }
+            } else {
+                link(index, node, current);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<VectorMatch> search(float[] query, int topK) {
+        checkDimension(query);
+        EntryPoint current = entry;
+        if (current == null || topK <= 0) {
+            return List.of();
+        }
+
+        float[] normalized = VectorMath.normalize(query);
+        int ep = current.node();
+        for (int level = current.level(); level > 0; level--) {
+            ep = greedySearch(normalized, ep, level);
+        }
+
+        List<VectorMatch> candidates = searchLayer(normalized, new int[]{ep},
+            Math.max(efSearch, topK), 0);
+        List<VectorMatch> matches = new ArrayList<>(Math.min(topK, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < topK; i++) {
+            VectorMatch candidate = candidates.get(i);
+            matches.add(new VectorMatch(node((int) candidate.id()).id, candidate.score()));
+        }
+        return matches;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    private int register(Node node) {
+        growLock.lock();
+        try {
+            if (indexById.containsKey(node.id)) {
+                return -1;
+            }
+            int index = count;
+            if (index == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            nodes[index] = node;
+            indexById.put(node.id, index);
+            count = index + 1;
+            return index;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private void link(int index, Node node, EntryPoint current) {
+        int ep = current.node();
+        for (int level = current.level(); level > node.level(); level--) {
+            ep = greedySearch(node.vector, ep, level);
+        }
+
+        int[] entryPoints = {ep};
+        for (int level = Math.min(node.level(), current.level()); level >= 0; level--) {
+            List<VectorMatch> candidates = searchLayer(node.vector, entryPoints, efConstruction, level);
+            // Uma inserção concorrente pode já ter ligado este nó; evita laço para si mesmo
+            candidates.removeIf(candidate -> candidate.id() == index);
+            int[] selected = selectNeighbors(candidates, m);
+            synchronized (node) {
+                node.neighbors.set(level, selected);
+            }
+            int maxConnections = level == 0 ? maxM0 : m;
+            for (int neighbor : selected) {
+                connect(node(neighbor), index, level, maxConnections);
+            }
+
+            entryPoints = new int[candidates.size()];
+            for (int i = 0; i < entryPoints.length; i++) {
+                entryPoints[i] = (int) candidates.get(i).id();
+            }
+        }
+    }
+
+    private void connect(Node target, int newIndex, int level, int maxConnections) {
+        synchronized (target) {
+            int[] current = target.neighbors.get(level);
+            for (int existing : current) {
+                if (existing == newIndex) {
+                    return;
+                }
+            }
+            if (current.length < maxConnections) {
+                int[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = newIndex;
+                target.neighbors.set(level, grown);
+                return;
+            }
+
+            List<VectorMatch> candidates = new ArrayList<>(current.length + 1);
+            for (int existing : current) {
+                candidates.add(new VectorMatch(existing, similarity(target.vector, node(existing))));
+            }
+            candidates.add(new VectorMatch(newIndex, similarity(target.vector, node(newIndex))));
+            candidates.sort((a, b) -> Float.compare(b.score(), a.score()));
+            target.neighbors.set(level, selectNeighbors(candidates, maxConnections));
+        }
+    }
+
+    // Heurística do artigo original: prefere vizinhos que não estejam mais próximos de
+    // outro vizinho já escolhido, completando com os descartados para manter o grau
+    private int[] selectNeighbors(List<VectorMatch> candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        boolean[] taken = new boolean[candidates.size()];
+        int size = 0;
+        for (int i = 0; i < candidates.size() && size < selected.length; i++) {
+            VectorMatch candidate = candidates.get(i);
+            Node candidateNode = node((int) candidate.id());
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (similarity(candidateNode.vector, node(selected[j])) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = (int) candidate.id();
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.size() && size < selected.length; i++) {
+            if (!taken[i]) {
+                selected[size++] = (int) candidates.get(i).id();
+            }
+        }
+        return selected;
+    }
+
+    private int greedySearch(float[] query, int start, int level) {
+        int current = start;
+        float best = similarity(query, node(current));
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : node(current).neighbors(level)) {
+                float score = similarity(query, node(neighbor));
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Busca gulosa em largura limitada por {@code ef}; ids retornados são índices internos. */
+    private List<VectorMatch> searchLayer(float[] query, int[] entryPoints, int ef, int level) {
+        IntHashSet visited = new IntHashSet(ef * 4);
+        CandidateQueue candidates = new CandidateQueue(ef * 2);
+        TopKCollector results = new TopKCollector(ef);
+
+        for (int ep : entryPoints) {
+            if (visited.add(ep)) {
+                float score = similarity(query, node(ep));
+                candidates.push(ep, score);
+                results.offer(ep, score);
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            float bestScore = candidates.peekScore();
+            if (bestScore < results.threshold()) {
+                break;
+            }
+            int current = candidates.pop();
+            for (int neighbor : node(current).neighbors(level)) {
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                float score = similarity(query, node(neighbor));
+                if (score > results.threshold()) {
+                    candidates.push(neighbor, score);
+                    results.offer(neighbor, score);
+                }
+            }
+        }
+        return results.drainDescending();
+    }
+
+    // Lê o array a cada acesso: um vizinho publicado depois do início da busca pode
+    // estar num array maior do que o que foi lido antes
+    private Node node(int index) {
+        return nodes[index];
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return Math.min((int) (-Math.log(uniform) * levelMultiplier), MAX_LEVEL);
+    }
+
+    private static float similarity(float[] query, Node node) {
+        return VectorMath.dot(query, node.vector);
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                "Dimensão inválida: esperado " + dimension + ", recebido " + vector.length);
+        }
+    }
+
+    /**
+     * Grava um snapshot consistente do grafo em um arquivo mapeado em memória.
+     * Inserções ficam bloqueadas durante a gravação; buscas continuam livres.
+     */
+    public void save(Path path) throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            Node[] snapshot = nodes;
+            int total = count;
+            EntryPoint current = entry;
+
+            long bytes = HEADER_BYTES;
+            for (int i = 0; i < total; i++) {
+                bytes += snapshot[i].serializedBytes();
+            }
+
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedWindow out = new MappedWindow(channel, FileChannel.MapMode.READ_WRITE, bytes);
+                out.ensure(HEADER_BYTES);
+                out.buffer.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(m).putInt(total)
+                    .putInt(current == null ? -1 : current.node())
+                    .putInt(current == null ? -1 : current.level());
+                for (int i = 0; i < total; i++) {
+                    snapshot[i].writeTo(out);
+                }
+                out.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    public static HnswVectorStore load(Path path, int dimension, int m, int efConstruction, int efSearch)
+            throws IOException {
+        HnswVectorStore store = new HnswVectorStore(dimension, m, efConstruction, efSearch);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedWindow in = new MappedWindow(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+            in.ensure(HEADER_BYTES);
+            int magic = in.buffer.getInt();
+            int version = in.buffer.getInt();
+            int storedDimension = in.buffer.getInt();
+            int storedM = in.buffer.getInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Arquivo de índice HNSW inválido: " + path);
+            }
+            if (storedDimension != dimension || storedM != m) {
+                throw new IOException("Snapshot HNSW incompatível: dimensão " + storedDimension
+                    + ", M " + storedM + " (esperado " + dimension + ", " + m + ")");
+            }
+            int total = in.buffer.getInt();
+            int entryNode = in.buffer.getInt();
+            int entryLevel = in.buffer.getInt();
+
+            Node[] loaded = new Node[Math.max(INITIAL_CAPACITY, total)];
+            for (int i = 0; i < total; i++) {
+                loaded[i] = Node.readFrom(in, dimension);
+                store.indexById.put(loaded[i].id, i);
+            }
+            store.nodes = loaded;
+            store.count = total;
+            store.entry = entryNode < 0 ? null : new EntryPoint(entryNode, entryLevel);
+        }
+        return store;
+    }
+
+    private record EntryPoint(int node, int level) {
+    }
+
+    private static final class Node {
+
+        final long id;
+        final float[] vector;
+        final AtomicReferenceArray<int[]> neighbors;
+
+        Node(long id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbors = new AtomicReferenceArray<>(level + 1);
+            for (int i = 0; i <= level; i++) {
+                neighbors.set(i, new int[0]);
+            }
+        }
+
+        int level() {
+            return neighbors.length() - 1;
+        }
+
+        int[] neighbors(int level) {
+            return neighbors.get(level);
+        }
+
+        long serializedBytes() {
+            long bytes = Long.BYTES + Integer.BYTES + (long) vector.length * Float.BYTES;
+            for (int level = 0; level <= level(); level++) {
+                bytes += Integer.BYTES + (long) neighbors.get(level).length * Integer.BYTES;
+            }
+            return bytes;
+        }
+
+        void writeTo(MappedWindow out) throws IOException {
+            out.ensure((int) serializedBytes());
+            out.buffer.putLong(id).putInt(level());
+            out.buffer.asFloatBuffer().put(vector);
+            out.skip(vector.length * Float.BYTES);
+            for (int level = 0; level <= level(); level++) {
+                int[] links = neighbors.get(level);
+                out.buffer.putInt(links.length);
+                out.buffer.asIntBuffer().put(links);
+                out.skip(links.length * Integer.BYTES);
+            }
+        }
+
+        static Node readFrom(MappedWindow in, int dimension) throws IOException {
+            in.ensure(Long.BYTES + Integer.BYTES + dimension * Float.BYTES);
+            long id = in.buffer.getLong();
+            int level = in.buffer.getInt();
+            float[] vector = new float[dimension];
+            in.buffer.asFloatBuffer().get(vector);
+            in.skip(dimension * Float.BYTES);
+            Node node = new Node(id, vector, level);
+            for (int i = 0; i <= level; i++) {
+                in.ensure(Integer.BYTES);
+                int length = in.buffer.getInt();
+                in.ensure(length * Integer.BYTES);
+                int[] links = new int[length];
+                in.buffer.asIntBuffer().get(links);
+                in.skip(length * Integer.BYTES);
+                node.neighbors.set(i, links);
+            }
+            return node;
+        }
+    }
+
+    /** Janela deslizante sobre o arquivo, já que um único mapeamento é limitado a 2 GB. */
+    private static final class MappedWindow {
+
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long size;
+        private long base;
+        MappedByteBuffer buffer;
+
+        MappedWindow(FileChannel channel, FileChannel.MapMode mode, long size) {
+            this.channel = channel;
+            this.mode = mode;
+            this.size = size;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer != null && buffer.remaining() >= bytes) {
+                return;
+            }
+            long position = buffer == null ? 0 : base + buffer.position();
+            if (position + bytes > size) {
+                throw new IOException("Snapshot HNSW truncado na posição " + position);
+            }
+            force();
+            base = position;
+            buffer = channel.map(mode, position, Math.min(MAP_WINDOW, size - position));
+        }
+
+        void skip(int bytes) {
+            buffer.position(buffer.position() + bytes);
+        }
+
+        void force() {
+            if (buffer != null && mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+        }
+    }
+
+    private static final class CandidateQueue {
+
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        CandidateQueue(int capacity) {
+            nodes = new int[Math.max(capacity, 16)];
+            scores = new float[nodes.length];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (scores[parent] >= score) {
+                    break;
+                }
+                nodes[index] = nodes[parent];
+                scores[index] = scores[parent];
+                index = parent;
+            }
+            nodes[index] = node;
+            scores[index] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            int lastNode = nodes[size];
+            float lastScore = scores[size];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && scores[child + 1] > scores[child]) {
+                    child++;
+                }
+                if (lastScore >= scores[child]) {
+                    break;
+                }
+                nodes[index] = nodes[child];
+                scores[index] = scores[child];
+                index = child;
+            }
+            nodes[index] = lastNode;
+            scores[index] = lastScore;
+            return top;
+        }
+    }
+
+    /** Conjunto de inteiros com endereçamento aberto para marcar nós visitados numa busca. */
+    private static final class IntHashSet {
+
+        private int[] slots;
+        private int size;
+
+        IntHashSet(int expected) {
+            slots = new int[Integer.highestOneBit(Math.max(expected, 16) * 2)];
+            Arrays.fill(slots, -1);
+        }
+
+        boolean add(int value) {
+            if (size * 2 >= slots.length) {
+                rehash();
+            }
+            int mask = slots.length - 1;
+            int index = (value * 0x9E3779B9) >>> 1 & mask;
+            while (slots[index] != -1) {
+                if (slots[index] == value) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+            slots[index] = value;
+            size++;
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            Arrays.fill(slots, -1);
+            size = 0;
+            for (int value : old) {
+                if (value != -1) {
+                    add(value);
+                }
+            }
+        }
+    }
+}
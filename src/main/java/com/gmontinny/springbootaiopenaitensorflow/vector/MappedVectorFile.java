@@ -0,0 +1,72 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vetores float32 de tamanho fixo num arquivo mapeado em memória, em janelas de até 64 MB.
+ * As páginas ficam a cargo do sistema operacional: só as linhas lidas ocupam RAM. O arquivo é
+ * recriado ao abrir. Sem sincronização própria: o {@link QuantizedVectorStore} coordena o acesso.
+ */
+final class MappedVectorFile implements AutoCloseable {
+    
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    
+    private final FileChannel channel;
+    private final int dimension;
+    private final int rowsPerWindow;
+    private final List<FloatBuffer> windows = new ArrayList<>();
+    
+    MappedVectorFile(Path path, int dimension) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dimension = dimension;
+        this.rowsPerWindow = (int) Math.max(1, MAP_WINDOW / ((long) dimension * Float.BYTES));
+    }
+    
+    void write(int row, float[] vector) {
+        int window = row / rowsPerWindow;
+        while (windows.size() <= window) {
+            windows.add(map(windows.size()));
+        }
+        windows.get(window).put((row % rowsPerWindow) * dimension, vector, 0, dimension);
+    }
+    
+    void read(int row, float[] target) {
+        windows.get(row / rowsPerWindow).get((row % rowsPerWindow) * dimension, target, 0, dimension);
+    }
+    
+    /** Bytes reservados no arquivo (mapeados, não necessariamente residentes). */
+    long mappedBytes() {
+        return (long) windows.size() * rowsPerWindow * dimension * Float.BYTES;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    // Mapear em READ_WRITE além do fim estende o arquivo
+    private FloatBuffer map(int window) {
+        long bytes = (long) rowsPerWindow * dimension * Float.BYTES;
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, window * bytes, bytes)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao mapear arquivo de vetores", e);
+        }
+    }
+}
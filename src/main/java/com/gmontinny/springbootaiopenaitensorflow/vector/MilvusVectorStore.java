@@ -0,0 +1,186 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import io.milvus.client.MilvusServiceClient;
+import io.milvus.grpc.DataType;
+import io.milvus.grpc.SearchResults;
+import io.milvus.param.ConnectParam;
+import io.milvus.param.IndexType;
+import io.milvus.param.MetricType;
+import io.milvus.param.R;
+import io.milvus.param.collection.CreateCollectionParam;
+import io.milvus.param.collection.FieldType;
+import io.milvus.param.collection.HasCollectionParam;
+import io.milvus.param.collection.LoadCollectionParam;
+import io.milvus.param.dml.InsertParam;
+import io.milvus.param.dml.SearchParam;
+import io.milvus.param.index.CreateIndexParam;
+import io.milvus.response.SearchResultsWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * {@link VectorStore} sobre uma coleção Milvus. A conversão entre {@code float[]}
+ * e as listas exigidas pelo SDK fica restrita a esta classe.
+ */
+@Slf4j
+public class MilvusVectorStore implements VectorStore, AutoCloseable {
+    
+    private static final String MESSAGE_ID_FIELD = "message_id";
+    private static final String EMBEDDING_FIELD = "embedding";
+    // Maior topK aceito pelo Milvus numa busca
+    private static final int MAX_TOP_K = 16_384;
+    
+    private final MilvusServiceClient milvusClient;
+    private final String collectionName;
+    private final int dimension;
+    
+    public MilvusVectorStore(String host, int port, String collectionName, int dimension) {
+        this.collectionName = collectionName;
+        this.dimension = dimension;
+        this.milvusClient = new MilvusServiceClient(
+            ConnectParam.newBuilder()
+                .withHost(host)
+                .withPort(port)
+                .build()
+        );
+        try {
+            createCollectionIfNotExists();
+        } catch (RuntimeException e) {
+            milvusClient.close();
+            throw e;
+        }
+    }
+    
+    private void createCollectionIfNotExists() {
+        R<Boolean> exists = milvusClient.hasCollection(HasCollectionParam.newBuilder()
+            .withCollectionName(collectionName)
+            .build());
+        check(exists, "verificar coleção");
+        
+        if (!exists.getData()) {
+            List<FieldType> fields = Arrays.asList(
+                FieldType.newBuilder()
+                    .withName("id")
+                    .withDataType(DataType.Int64)
+                    .withPrimaryKey(true)
+                    .withAutoID(true)
+                    .build(),
+                FieldType.newBuilder()
+                    .withName(MESSAGE_ID_FIELD)
+                    .withDataType(DataType.Int64)
+                    .build(),
+                FieldType.newBuilder()
+                    .withName(EMBEDDING_FIELD)
+                    .withDataType(DataType.FloatVector)
+                    .withDimension(dimension)
+                    .build()
+            );
+            
+            check(milvusClient.createCollection(CreateCollectionParam.newBuilder()
+                .withCollectionName(collectionName)
+                .withDescription("Chat message embeddings")
+                .withShardsNum(2)
+                .withFieldTypes(fields)
+                .build()), "criar coleção");
+            
+            check(milvusClient.createIndex(CreateIndexParam.newBuilder()
+                .withCollectionName(collectionName)
+                .withFieldName(EMBEDDING_FIELD)
+                .withIndexType(IndexType.AUTOINDEX)
+                .withMetricType(MetricType.COSINE)
+                .build()), "criar índice");
+            log.info("Coleção {} criada", collectionName);
+        }
+        
+        check(milvusClient.loadCollection(LoadCollectionParam.newBuilder()
+            .withCollectionName(collectionName)
+            .build()), "carregar coleção");
+    }
+    
+    @Override
+    public void add(long id, float[] vector) {
+        addAll(new long[]{id}, new float[][]{vector});
+    }
+    
+    @Override
+    public void addAll(long[] ids, float[][] vectors) {
+        check(milvusClient.insert(insertParam(collectionName, ids, vectors)), "inserir embeddings");
+    }
+    
+    // Conversão para as estruturas do SDK (listas de objetos), separada para o benchmark de inserção
+    static InsertParam insertParam(String collectionName, long[] ids, float[][] vectors) {
+        List<Long> messageIds = new ArrayList<>(ids.length);
+        List<List<Float>> embeddings = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            messageIds.add(ids[i]);
+            embeddings.add(toList(vectors[i]));
+        }
+        
+        return InsertParam.newBuilder()
+            .withCollectionName(collectionName)
+            .withFields(Arrays.asList(
+                new InsertParam.Field(MESSAGE_ID_FIELD, messageIds),
+                new InsertParam.Field(EMBEDDING_FIELD, embeddings)
+            ))
+            .build();
+    }
+    
+    @Override
+    public List<VectorMatch> search(float[] query, int topK) {
+        SearchParam searchParam = SearchParam.newBuilder()
+            .withCollectionName(collectionName)
+            .withMetricType(MetricType.COSINE)
+            .withOutFields(List.of(MESSAGE_ID_FIELD))
+            .withTopK(topK)
+            .withVectors(List.of(toList(query)))
+            .withVectorFieldName(EMBEDDING_FIELD)
+            .build();
+        
+        R<SearchResults> response = milvusClient.search(searchParam);
+        check(response, "buscar embeddings");
+        
+        SearchResultsWrapper wrapper = new SearchResultsWrapper(response.getData().getResults());
+        List<VectorMatch> matches = new ArrayList<>();
+        for (SearchResultsWrapper.IDScore idScore : wrapper.getIDScore(0)) {
+            long messageId = ((Number) idScore.get(MESSAGE_ID_FIELD)).longValue();
+            matches.add(new VectorMatch(messageId, idScore.getScore()));
+        }
+        return matches;
+    }
+    
+    @Override
+    public List<VectorMatch> search(float[] query, int topK, LongPredicate filter) {
+        // O filtro é um predicado Java, sem equivalente em expressão Milvus: amplia a busca sem depender de size()
+        return VectorStore.overFetch(this, query, Math.min(topK, MAX_TOP_K), filter, MAX_TOP_K);
+    }
+    
+    @Override
+    public int size() {
+        // A contagem exata exigiria um flush da coleção; não é usada no caminho quente
+        return -1;
+    }
+    
+    @Override
+    public void close() {
+        milvusClient.close();
+    }
+    
+    private static List<Float> toList(float[] vector) {
+        List<Float> list = new ArrayList<>(vector.length);
+        for (float value : vector) {
+            list.add(value);
+        }
+        return list;
+    }
+    
+    private static void check(R<?> response, String operation) {
+        if (response.getStatus() != R.Status.Success.getCode()) {
+            throw new IllegalStateException("Falha ao " + operation + " no Milvus: " + response.getMessage(),
+                response.getException());
+        }
+    }
+}
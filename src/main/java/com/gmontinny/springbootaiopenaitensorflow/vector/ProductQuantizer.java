@@ -0,0 +1,151 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantization: o vetor é dividido em {@code subspaces} fatias e cada fatia vira o índice
+ * (1 byte) do centróide mais próximo no codebook daquele subespaço, treinado por k-means. Na
+ * busca, {@link #scoreTable} pré-calcula o produto escalar da consulta com cada centróide e o
+ * score de um código é a soma de {@code subspaces} consultas à tabela (ADC).
+ */
+public final class ProductQuantizer {
+    
+    private static final int MAX_CENTROIDS = 256;
+    
+    private final int dimension;
+    private final int subspaces;
+    private final int subDimension;
+    private final int centroids;
+    // [subespaço][centróide][componente], contíguo
+    private final float[] codebooks;
+    
+    private ProductQuantizer(int dimension, int subspaces, int centroids, float[] codebooks) {
+        this.dimension = dimension;
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.centroids = centroids;
+        this.codebooks = codebooks;
+    }
+    
+    /** Treina os codebooks com k-means (Lloyd) sobre as amostras, um subespaço por tarefa paralela. */
+    public static ProductQuantizer train(float[][] samples, int subspaces, int iterations, long seed) {
+        if (samples.length == 0) {
+            throw new IllegalArgumentException("Treino do PQ exige ao menos uma amostra");
+        }
+        int dimension = samples[0].length;
+        if (subspaces <= 0 || dimension % subspaces != 0) {
+            throw new IllegalArgumentException(
+                "Dimensão " + dimension + " não é divisível em " + subspaces + " subespaços");
+        }
+        int subDimension = dimension / subspaces;
+        int centroids = Math.min(MAX_CENTROIDS, samples.length);
+        float[] codebooks = new float[subspaces * centroids * subDimension];
+        IntStream.range(0, subspaces).parallel().forEach(subspace -> kMeans(samples, subspace * subDimension,
+            subDimension, centroids, iterations, new Random(seed + subspace), codebooks,
+            subspace * centroids * subDimension));
+        return new ProductQuantizer(dimension, subspaces, centroids, codebooks);
+    }
+    
+    public int subspaces() {
+        return subspaces;
+    }
+    
+    public int dimension() {
+        return dimension;
+    }
+    
+    /** Bytes dos codebooks em memória. */
+    public long codebookBytes() {
+        return (long) codebooks.length * Float.BYTES;
+    }
+    
+    public void encode(float[] vector, byte[] codes, int offset) {
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            codes[offset + subspace] = (byte) nearest(vector, subspace * subDimension, codebooks,
+                subspace * centroids * subDimension, subDimension, centroids);
+        }
+    }
+    
+    /** Produto escalar da consulta com cada centróide: {@code [subespaço * centróides + centróide]}. */
+    public float[] scoreTable(float[] query) {
+        float[] table = new float[subspaces * centroids];
+        for (int subspace = 0; subspace < subspaces; subspace++) {
+            int queryOffset = subspace * subDimension;
+            int codebook = subspace * centroids * subDimension;
+            for (int c = 0; c < centroids; c++) {
+                table[subspace * centroids + c] = VectorMath.dot(query, queryOffset, codebooks,
+                    codebook + c * subDimension, subDimension);
+            }
+        }
+        return table;
+    }
+    
+    /** Score aproximado (produto escalar) de um código a partir da tabela de {@link #scoreTable}. */
+    public float score(float[] table, byte[] codes, int offset) {
+        float sum = 0f;
+        for (int subspace = 0, base = 0; subspace < subspaces; subspace++, base += centroids) {
+            sum += table[base + (codes[offset + subspace] & 0xFF)];
+        }
+        return sum;
+    }
+    
+    private static void kMeans(float[][] samples, int from, int length, int k, int iterations, Random random,
+                               float[] codebooks, int codebookOffset) {
+        // Início com amostras distintas sorteadas
+        int[] order = IntStream.range(0, samples.length).toArray();
+        for (int c = 0; c < k; c++) {
+            int pick = c + random.nextInt(samples.length - c);
+            int swap = order[c];
+            order[c] = order[pick];
+            order[pick] = swap;
+            System.arraycopy(samples[order[c]], from, codebooks, codebookOffset + c * length, length);
+        }
+        
+        int[] assignment = new int[samples.length];
+        float[] sums = new float[k * length];
+        int[] counts = new int[k];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int s = 0; s < samples.length; s++) {
+                int c = nearest(samples[s], from, codebooks, codebookOffset, length, k);
+                assignment[s] = c;
+                counts[c]++;
+                for (int i = 0; i < length; i++) {
+                    sums[c * length + i] += samples[s][from + i];
+                }
+            }
+            for (int c = 0; c < k; c++) {
+                int target = codebookOffset + c * length;
+                if (counts[c] == 0) {
+                    // Centróide sem amostras: recomeça numa amostra qualquer
+                    System.arraycopy(samples[random.nextInt(samples.length)], from, codebooks, target, length);
+                    continue;
+                }
+                for (int i = 0; i < length; i++) {
+                    codebooks[target + i] = sums[c * length + i] / counts[c];
+                }
+            }
+        }
+    }
+    
+    private static int nearest(float[] vector, int from, float[] codebooks, int codebookOffset, int length, int k) {
+        int best = 0;
+        float bestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < k; c++) {
+            int base = codebookOffset + c * length;
+            float distance = 0f;
+            for (int i = 0; i < length; i++) {
+                float diff = vector[from + i] - codebooks[base + i];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
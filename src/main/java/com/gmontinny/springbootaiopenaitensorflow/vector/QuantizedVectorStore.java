@@ -0,0 +1,304 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Busca por cosseno sobre códigos compactos em memória, com os vetores completos (float32) num
+ * arquivo mapeado. A varredura usa os códigos para escolher {@code rerankCandidates} candidatos,
+ * reordenados pelo produto escalar exato lido do arquivo.
+ * <p>
+ * {@link Mode#SCALAR}: int8 por componente com uma escala por vetor ({@code dimension + 4} bytes,
+ * ~4x menos que float32); a consulta também é quantizada e a varredura soma produtos int8. {@link Mode#PRODUCT}: product quantization ({@code subspaces} bytes por
+ * vetor); os codebooks são treinados com os primeiros {@code trainingSize} vetores e, até lá, a
+ * busca é exata sobre o arquivo.
+ */
+public class QuantizedVectorStore implements VectorStore, AutoCloseable {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int KMEANS_ITERATIONS = 10;
+    
+    private final int dimension;
+    private final Mode mode;
+    private final int subspaces;
+    private final int trainingSize;
+    private final int rerankCandidates;
+    private final MappedVectorFile vectors;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean training = new AtomicBoolean();
+    
+    private volatile ProductQuantizer quantizer;
+    private byte[] codes;
+    private float[] scales;
+    private long[] ids;
+    private int count;
+    
+    public QuantizedVectorStore(int dimension, Mode mode, int subspaces, int trainingSize, int rerankCandidates,
+                                Path vectorsPath) throws IOException {
+        if (mode == Mode.PRODUCT && (subspaces <= 0 || dimension % subspaces != 0)) {
+            throw new IllegalArgumentException(
+                "Dimensão " + dimension + " não é divisível em " + subspaces + " subespaços");
+        }
+        this.dimension = dimension;
+        this.mode = mode;
+        this.subspaces = subspaces;
+        this.trainingSize = Math.max(1, trainingSize);
+        this.rerankCandidates = rerankCandidates;
+        this.vectors = new MappedVectorFile(vectorsPath, dimension);
+        this.codes = new byte[INITIAL_CAPACITY * codeSize()];
+        this.scales = mode == Mode.SCALAR ? new float[INITIAL_CAPACITY] : null;
+        this.ids = new long[INITIAL_CAPACITY];
+    }
+    
+    @Override
+    public void add(long id, float[] vector) {
+        addAll(new long[]{id}, new float[][]{vector});
+    }
+    
+    @Override
+    public void addAll(long[] batchIds, float[][] batchVectors) {
+        float[][] normalized = new float[batchVectors.length][];
+        for (int i = 0; i < batchVectors.length; i++) {
+            checkDimension(batchVectors[i]);
+            normalized[i] = VectorMath.normalize(batchVectors[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(count + normalized.length);
+            for (int i = 0; i < normalized.length; i++) {
+                vectors.write(count, normalized[i]);
+                encode(count, normalized[i]);
+                ids[count++] = batchIds[i];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (mode == Mode.PRODUCT && quantizer == null && size() >= trainingSize && training.compareAndSet(false, true)) {
+            trainQuantizer();
+        }
+    }
+    
+    @Override
+    public List<VectorMatch> search(float[] query, int topK) {
+        return search(query, topK, null);
+    }
+    
+    /** O filtro é aplicado na varredura dos códigos, antes da escolha dos candidatos. */
+    @Override
+    public List<VectorMatch> search(float[] query, int topK, LongPredicate filter) {
+        checkDimension(query);
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            if (count == 0 || topK <= 0) {
+                return List.of();
+            }
+            float[] row = new float[dimension];
+            if (mode == Mode.PRODUCT && quantizer == null) {
+                return exactScan(normalized, filter, Math.min(topK, count), row).drainDescending();
+            }
+            
+            TopKCollector candidates = approximateScan(normalized, filter, Math.min(Math.max(topK, rerankCandidates), count));
+            List<VectorMatch> approximate = candidates.drainDescending();
+            if (approximate.isEmpty()) {
+                return approximate;
+            }
+            // Reordenação com os vetores completos: recupera a precisão perdida na quantização
+            int[] rows = rowsOf(approximate);
+            TopKCollector reranked = new TopKCollector(Math.min(topK, rows.length));
+            for (int r : rows) {
+                vectors.read(r, row);
+                reranked.offer(ids[r], VectorMath.dot(normalized, row));
+            }
+            return reranked.drainDescending();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Mode mode() {
+        return mode;
+    }
+    
+    public boolean isTrained() {
+        lock.readLock().lock();
+        try {
+            return mode == Mode.SCALAR || quantizer != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** Memória dos vetores armazenados no heap: códigos, escalas, IDs e codebooks. */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long perVector = codeSize() + Long.BYTES + (mode == Mode.SCALAR ? Float.BYTES : 0);
+            return count * perVector + (quantizer != null ? quantizer.codebookBytes() : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** Bytes reservados no arquivo de vetores completos; só as páginas lidas ocupam RAM. */
+    public long mappedBytes() {
+        lock.readLock().lock();
+        try {
+            return vectors.mappedBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        vectors.close();
+    }
+    
+    private TopKCollector approximateScan(float[] query, LongPredicate filter, int k) {
+        TopKCollector collector = new TopKCollector(k);
+        int codeSize = codeSize();
+        float[] table = mode == Mode.PRODUCT ? quantizer.scoreTable(query) : null;
+        byte[] queryCodes = table == null ? new byte[dimension] : null;
+        float queryScale = table == null ? encodeInt8(query, queryCodes, 0) : 0f;
+        for (int r = 0; r < count; r++) {
+            if (filter != null && !filter.test(ids[r])) {
+                continue;
+            }
+            float score = table != null
+                ? quantizer.score(table, codes, r * codeSize)
+                : queryScale * scales[r] * VectorMath.dot(queryCodes, 0, codes, r * codeSize, dimension);
+            if (score > collector.threshold()) {
+                // O "id" provisório é a linha, para a leitura do vetor completo
+                collector.offer(r, score);
+            }
+        }
+        return collector;
+    }
+    
+    private TopKCollector exactScan(float[] query, LongPredicate filter, int k, float[] row) {
+        TopKCollector collector = new TopKCollector(k);
+        for (int r = 0; r < count; r++) {
+            if (filter != null && !filter.test(ids[r])) {
+                continue;
+            }
+            vectors.read(r, row);
+            float score = VectorMath.dot(query, row);
+            if (score > collector.threshold()) {
+                collector.offer(ids[r], score);
+            }
+        }
+        return collector;
+    }
+    
+    // Treino fora do lock: as buscas seguem exatas sobre o arquivo enquanto os codebooks são calculados
+    private void trainQuantizer() {
+        float[][] samples = new float[trainingSize][dimension];
+        lock.readLock().lock();
+        try {
+            for (int r = 0; r < trainingSize; r++) {
+                vectors.read(r, samples[r]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        ProductQuantizer trained;
+        try {
+            trained = ProductQuantizer.train(samples, subspaces, KMEANS_ITERATIONS, 42);
+        } catch (RuntimeException e) {
+            training.set(false);
+            throw e;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            float[] row = new float[dimension];
+            for (int r = 0; r < count; r++) {
+                vectors.read(r, row);
+                trained.encode(row, codes, r * subspaces);
+            }
+            quantizer = trained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void encode(int row, float[] normalized) {
+        if (mode == Mode.SCALAR) {
+            scales[row] = encodeInt8(normalized, codes, row * dimension);
+        } else if (quantizer != null) {
+            quantizer.encode(normalized, codes, row * subspaces);
+        }
+    }
+    
+    // Escala simétrica pelo maior componente em módulo: v[i] ≈ escala * código[i]
+    static float encodeInt8(float[] vector, byte[] target, int offset) {
+        float max = 0f;
+        for (float value : vector) {
+            max = Math.max(max, Math.abs(value));
+        }
+        if (max == 0f) {
+            return 0f;
+        }
+        float scale = max / 127f;
+        float inverse = 1f / scale;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = (byte) Math.round(vector[i] * inverse);
+        }
+        return scale;
+    }
+    
+    private static int[] rowsOf(List<VectorMatch> matches) {
+        int[] rows = new int[matches.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) matches.get(i).id();
+        }
+        return rows;
+    }
+    
+    private int codeSize() {
+        return mode == Mode.SCALAR ? dimension : subspaces;
+    }
+    
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(required, ids.length * 2);
+        long bytes = (long) newCapacity * codeSize();
+        if (bytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Capacidade máxima dos códigos atingida: " + count + " vetores");
+        }
+        codes = Arrays.copyOf(codes, (int) bytes);
+        ids = Arrays.copyOf(ids, newCapacity);
+        if (scales != null) {
+            scales = Arrays.copyOf(scales, newCapacity);
+        }
+    }
+    
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                "Dimensão inválida: esperado " + dimension + ", recebido " + vector.length);
+        }
+    }
+    
+    public enum Mode {
+        SCALAR, PRODUCT
+    }
+}
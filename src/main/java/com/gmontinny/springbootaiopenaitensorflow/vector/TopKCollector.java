@@ -0,0 +1,104 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Min-heap limitado em arrays primitivos: mantém os {@code k} maiores scores
+ * vistos sem alocar um objeto por candidato.
+ */
+public final class TopKCollector {
+    
+    private final int capacity;
+    private final long[] ids;
+    private final float[] scores;
+    private int size;
+    
+    public TopKCollector(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("topK deve ser positivo: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.scores = new float[capacity];
+    }
+    
+    public void offer(long id, float score) {
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+    
+    /** Menor score retido, ou -infinito enquanto o heap não estiver cheio. */
+    public float threshold() {
+        return size < capacity ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+    
+    public void merge(TopKCollector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.ids[i], other.scores[i]);
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /** Esvazia o heap e devolve os resultados em ordem decrescente de score. */
+    public List<VectorMatch> drainDescending() {
+        VectorMatch[] result = new VectorMatch[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = new VectorMatch(ids[0], scores[0]);
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return new ArrayList<>(List.of(result));
+    }
+    
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                break;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+    
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && scores[right] < scores[left]) {
+                smallest = right;
+            }
+            if (scores[index] <= scores[smallest]) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+    
+    private void swap(int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
@@ -0,0 +1,4 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+public record VectorMatch(long id, float score) {
+}
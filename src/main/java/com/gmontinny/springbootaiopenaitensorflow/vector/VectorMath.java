@@ -0,0 +1,69 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+/**
+ * Kernels de álgebra vetorial com laços desenrolados, para que o JIT
+ * consiga autovetorizar sem depender do módulo incubator da Vector API.
+ */
+public final class VectorMath {
+    
+    private VectorMath() {
+    }
+    
+    public static float dot(float[] a, float[] b) {
+        return dot(a, 0, b, 0, a.length);
+    }
+    
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        float s4 = 0f, s5 = 0f, s6 = 0f, s7 = 0f;
+        int i = 0;
+        int bound = length - (length & 7);
+        for (; i < bound; i += 8) {
+            int ai = aOffset + i;
+            int bi = bOffset + i;
+            s0 += a[ai] * b[bi];
+            s1 += a[ai + 1] * b[bi + 1];
+            s2 += a[ai + 2] * b[bi + 2];
+            s3 += a[ai + 3] * b[bi + 3];
+            s4 += a[ai + 4] * b[bi + 4];
+            s5 += a[ai + 5] * b[bi + 5];
+            s6 += a[ai + 6] * b[bi + 6];
+            s7 += a[ai + 7] * b[bi + 7];
+        }
+        float sum = (s0 + s1) + (s2 + s3) + (s4 + s5) + (s6 + s7);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+    
+    /**
+     * Produto escalar de códigos int8, acumulado em int. O laço simples é o que o JIT vetoriza
+     * (byte x byte); desenrolar ou converter para float deixa o kernel mais lento.
+     */
+    public static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+    
+    /** Retorna uma cópia do vetor com norma L2 unitária (vetor nulo é devolvido como está). */
+    public static float[] normalize(float[] vector) {
+        float[] copy = vector.clone();
+        normalizeInPlace(copy);
+        return copy;
+    }
+    
+    public static void normalizeInPlace(float[] vector) {
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        if (norm == 0f) {
+            return;
+        }
+        float inv = 1f / norm;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inv;
+        }
+    }
+}
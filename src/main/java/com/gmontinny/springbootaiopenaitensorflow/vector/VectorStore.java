@@ -0,0 +1,55 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Armazenamento de vetores com busca por similaridade de cosseno.
+ * Implementações devem aceitar inserções concorrentes com buscas em andamento.
+ */
+public interface VectorStore {
+    
+    void add(long id, float[] vector);
+    
+    /** Inserção em lote; implementações remotas devem sobrescrever para usar uma única chamada. */
+    default void addAll(long[] ids, float[][] vectors) {
+        for (int i = 0; i < ids.length; i++) {
+            add(ids[i], vectors[i]);
+        }
+    }
+    
+    /** Retorna até {@code topK} resultados ordenados do mais para o menos similar. */
+    List<VectorMatch> search(float[] query, int topK);
+    
+    /**
+     * Busca restrita aos IDs aceitos por {@code filter}. A implementação padrão amplia o
+     * {@code topK} e filtra depois; stores locais devem aplicar o filtro durante a varredura.
+     */
+    default List<VectorMatch> search(float[] query, int topK, LongPredicate filter) {
+        return overFetch(this, query, topK, filter, Integer.MAX_VALUE);
+    }
+    
+    /** Quantidade de vetores no índice, ou {@code -1} quando o store não sabe informar. */
+    int size();
+    
+    /**
+     * Dobra o {@code topK} pedido a {@code store} até reunir {@code topK} resultados aceitos por
+     * {@code filter}, esgotar o índice ou atingir {@code maxTopK}. Com {@link #size()} desconhecido,
+     * o índice esgota quando a busca devolve menos resultados do que o pedido.
+     */
+    static List<VectorMatch> overFetch(VectorStore store, float[] query, int topK, LongPredicate filter, int maxTopK) {
+        int size = store.size();
+        int limit = size < 0 ? maxTopK : Math.min(size, maxTopK);
+        for (long k = topK * 4L; ; k *= 2) {
+            int fetch = (int) Math.min(k, limit);
+            List<VectorMatch> found = fetch > 0 ? store.search(query, fetch) : List.of();
+            List<VectorMatch> matches = found.stream()
+                .filter(match -> filter.test(match.id()))
+                .limit(topK)
+                .toList();
+            if (matches.size() >= topK || found.size() < fetch || fetch >= limit) {
+                return matches;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.gmontinny.springbootaiopenaitensorflow.catalog;
+
+import com.gmontinny.springbootaiopenaitensorflow.dto.PageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTests {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    // IDs pares na categoria "A", ímpares em "B"; dois produtos por minuto para haver empates em createdAt
+    private static CatalogProduct product(long id, Double price) {
+        return new CatalogProduct(id, "Produto " + id, null, null, price, id % 2 == 0 ? "A" : "B",
+            START.plusMinutes(id / 2));
+    }
+    
+    private static List<Long> ids(List<CatalogProduct> products) {
+        return products.stream().map(CatalogProduct::id).toList();
+    }
+    
+    @Test
+    void pagesFollowKeysetOrderWithoutGapsOrRepeats() {
+        List<CatalogProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            products.add(product(id, 10.0 * id));
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.of(products);
+        
+        List<Long> seen = new ArrayList<>();
+        PageCursor position = PageCursor.FIRST;
+        List<CatalogProduct> page;
+        do {
+            page = snapshot.page(null, position, 3);
+            seen.addAll(ids(page));
+            if (!page.isEmpty()) {
+                CatalogProduct last = page.get(page.size() - 1);
+                position = new PageCursor(last.createdAt(), last.id());
+            }
+        } while (page.size() == 3);
+        
+        assertThat(seen).containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+        assertThat(ids(snapshot.page("A", PageCursor.FIRST, 10))).containsExactly(10L, 8L, 6L, 4L, 2L);
+    }
+    
+    @Test
+    void priceRangeIsInclusiveAndSkipsProductsWithoutPrice() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+            product(1, 50.0), product(2, 20.0), product(3, null), product(4, 40.0), product(6, 30.0)));
+        
+        assertThat(ids(snapshot.priceRange(null, 20.0, 40.0, 10))).containsExactly(2L, 6L, 4L);
+        assertThat(ids(snapshot.priceRange("A", null, null, 2))).containsExactly(2L, 6L);
+    }
+    
+    @Test
+    void withCreatesNewVersionAndKeepsThePreviousOne() {
+        CatalogSnapshot before = CatalogSnapshot.of(List.of(product(1, 10.0), product(2, 20.0)));
+        CatalogProduct moved = new CatalogProduct(2L, "Produto 2", null, "Descrição gerada", 20.0, "B", START);
+        
+        CatalogSnapshot after = before.with(List.of(moved));
+        
+        assertThat(after.get(2).generatedDescription()).isEqualTo("Descrição gerada");
+        assertThat(ids(after.page("A", PageCursor.FIRST, 10))).isEmpty();
+        assertThat(before.get(2).generatedDescription()).isNull();
+        assertThat(ids(before.page("A", PageCursor.FIRST, 10))).containsExactly(2L);
+    }
+}
@@ -0,0 +1,45 @@
+package com.gmontinny.springbootaiopenaitensorflow.embedding;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.Embedding;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HashingEmbeddingEngineTests {
+    
+    private final HashingEmbeddingEngine engine = new HashingEmbeddingEngine(1536);
+    
+    @Test
+    void sameTextGivesSameUnitVector() {
+        Embedding first = engine.embed("A entrega atrasou muito");
+        Embedding second = engine.embed("A entrega atrasou muito");
+        
+        assertThat(first).isEqualTo(second);
+        assertThat(first.dimension()).isEqualTo(1536);
+        assertThat(first.cosine(first)).isCloseTo(1.0f, within(1e-5f));
+    }
+    
+    @Test
+    void caseAndAccentsDoNotChangeTheVector() {
+        assertThat(engine.embed("NÃO gostei da AVALIAÇÃO")).isEqualTo(engine.embed("nao gostei da avaliacao"));
+    }
+    
+    @Test
+    void relatedTextsAreCloserThanUnrelatedOnes() {
+        List<Embedding> embeddings = engine.embedAll(List.of(
+            "A entrega atrasou muito",
+            "Minha entrega está atrasada",
+            "Adorei o produto, ótima qualidade"));
+        
+        assertThat(embeddings.get(0).cosine(embeddings.get(1)))
+            .isGreaterThan(embeddings.get(0).cosine(embeddings.get(2)) + 0.2f);
+    }
+    
+    @Test
+    void blankTextGivesZeroVector() {
+        assertThat(engine.embed("  ").values()).containsOnly(0f);
+    }
+}
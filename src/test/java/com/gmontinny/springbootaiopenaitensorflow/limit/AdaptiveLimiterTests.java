@@ -0,0 +1,218 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveLimiterTests {
+    
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FAR = Long.MAX_VALUE / 2;
+    
+    private final AtomicLong clock = new AtomicLong(1_000 * MILLIS);
+    
+    private AdaptiveLimiter limiter(int initial, int min, int max, int maxQueue) {
+        return new AdaptiveLimiter(initial, min, max, maxQueue, 2.0, clock::get);
+    }
+    
+    // Espera o estado do limitador mudar por ação de outra thread, sem depender de tempo fixo
+    private static void awaitState(IntSupplier value, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (value.getAsInt() != expected) {
+            assertThat(System.nanoTime()).as("estado esperado: %d", expected).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+    
+    /** Um ciclo com {@code calls} chamadas simultâneas de latência {@code rttMillis}. */
+    private void cycle(AdaptiveLimiter limiter, int calls, long rttMillis) throws AdaptiveLimiter.LimitExceeded {
+        List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            permits.add(limiter.acquire(FAR));
+        }
+        clock.addAndGet(rttMillis * MILLIS);
+        permits.forEach(AdaptiveLimiter.Permit::success);
+    }
+    
+    @Test
+    void fullQueueIsRejectedImmediatelyAndQueuedCallerGetsTheReleasedSlot() throws Exception {
+        AdaptiveLimiter limiter = limiter(1, 1, 1, 1);
+        AdaptiveLimiter.Permit first = limiter.acquire(FAR);
+        CompletableFuture<AdaptiveLimiter.Permit> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(FAR);
+            } catch (AdaptiveLimiter.LimitExceeded e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        awaitState(limiter::queued, 1);
+        
+        assertThatThrownBy(() -> limiter.acquire(FAR))
+            .isInstanceOf(AdaptiveLimiter.LimitExceeded.class)
+            .matches(e -> !((AdaptiveLimiter.LimitExceeded) e).isDeadline());
+        
+        first.success();
+        AdaptiveLimiter.Permit second = waiter.get(10, TimeUnit.SECONDS);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.queued()).isZero();
+        second.ignore();
+        assertThat(limiter.inFlight()).isZero();
+    }
+    
+    @Test
+    void queuedCallerIsRejectedWhenTheDeadlinePasses() throws Exception {
+        AdaptiveLimiter limiter = limiter(1, 1, 1, 5);
+        AdaptiveLimiter.Permit held = limiter.acquire(FAR);
+        long deadline = clock.get() + 50 * MILLIS;
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                limiter.acquire(deadline).ignore();
+                return false;
+            } catch (AdaptiveLimiter.LimitExceeded e) {
+                return e.isDeadline();
+            }
+        });
+        awaitState(limiter::queued, 1);
+        
+        clock.addAndGet(51 * MILLIS);
+        
+        assertThat(waiter.get(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        held.success();
+        // Com vaga livre, o prazo já vencido não impede a chamada
+        limiter.acquire(clock.get() - MILLIS).success();
+    }
+    
+    @Test
+    void limitGrowsWhileLatencyStaysNearTheBaseline() throws Exception {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 0);
+        
+        for (int i = 0; i < 20; i++) {
+            cycle(limiter, limiter.limit(), 100);
+        }
+        
+        assertThat(limiter.limit()).isGreaterThan(20);
+        assertThat(limiter.inFlight()).isZero();
+    }
+    
+    @Test
+    void limitDoesNotGrowWhenItIsNotUsed() throws Exception {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 0);
+        
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, 2, 100);
+        }
+        
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+    
+    @Test
+    void limitShrinksWhenLatencyExceedsTheToleranceAndStopsAtTheMinimum() throws Exception {
+        AdaptiveLimiter limiter = limiter(40, 4, 100, 0);
+        cycle(limiter, 40, 100);
+        int afterBaseline = limiter.limit();
+        
+        // 4x a latência de referência com tolerância 2: gradiente 0,5
+        cycle(limiter, afterBaseline, 400);
+        int afterSlowCycle = limiter.limit();
+        
+        assertThat(afterSlowCycle).isLessThan(afterBaseline);
+        assertThat(afterSlowCycle).isGreaterThanOrEqualTo(afterBaseline / 2);
+        for (int i = 0; i < 20; i++) {
+            cycle(limiter, limiter.limit(), 400);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+    
+    @Test
+    void droppedCallsBackOffMultiplicativelyAndIgnoredCallsDoNotChangeTheLimit() throws Exception {
+        AdaptiveLimiter limiter = limiter(20, 2, 100, 0);
+        
+        limiter.acquire(FAR).ignore();
+        assertThat(limiter.limit()).isEqualTo(20);
+        
+        limiter.acquire(FAR).dropped();
+        assertThat(limiter.limit()).isEqualTo(18);
+        
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(FAR).dropped();
+        }
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+    
+    @Test
+    void permitIsReleasedOnlyOnce() throws Exception {
+        AdaptiveLimiter limiter = limiter(2, 1, 2, 0);
+        AdaptiveLimiter.Permit permit = limiter.acquire(FAR);
+        AdaptiveLimiter.Permit other = limiter.acquire(FAR);
+        
+        permit.dropped();
+        permit.success();
+        permit.dropped();
+        
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.limit()).isEqualTo(1);
+        other.ignore();
+    }
+    
+    @Test
+    void latencyIsMeasuredUntilTheFirstResponse() throws Exception {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 0);
+        cycle(limiter, 10, 100);
+        int baseline = limiter.limit();
+        
+        // Streaming: a primeira resposta chega no tempo de sempre, a geração continua por muito mais
+        List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < baseline; i++) {
+            permits.add(limiter.acquire(FAR));
+        }
+        clock.addAndGet(100 * MILLIS);
+        permits.forEach(AdaptiveLimiter.Permit::responded);
+        clock.addAndGet(5_000 * MILLIS);
+        permits.forEach(AdaptiveLimiter.Permit::success);
+        
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(baseline);
+    }
+    
+    @Test
+    void manyVirtualThreadsContendingForFewSlotsAllComplete() throws Exception {
+        // Relógio real: as esperas na fila dependem de sinais entre threads
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 8, 10_000, 2.0);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> calls = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                calls.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        AdaptiveLimiter.Permit permit = limiter.acquire(System.nanoTime() + TimeUnit.SECONDS.toNanos(30));
+                        Thread.yield();
+                        permit.success();
+                    } catch (AdaptiveLimiter.LimitExceeded e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        }
+        
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.queued()).isZero();
+    }
+    
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> limiter(1, 0, 10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> limiter(1, 5, 4, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(limiter(50, 1, 10, 0).limit()).isEqualTo(10);
+    }
+}
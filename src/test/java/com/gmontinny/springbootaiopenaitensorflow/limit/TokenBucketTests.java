@@ -0,0 +1,72 @@
+package com.gmontinny.springbootaiopenaitensorflow.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTests {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    private final AtomicLong clock = new AtomicLong(SECOND);
+    
+    private long in(long nanos) {
+        return clock.get() + nanos;
+    }
+    
+    @Test
+    void burstIsAvailableImmediatelyThenTokensAreReservedAheadOfTime() {
+        // 10 por segundo: um token a cada 100 ms
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+        
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.reserve(in(0))).isZero();
+        }
+        assertThat(bucket.reserve(in(SECOND))).isEqualTo(SECOND / 10);
+        // A reserva anterior já conta: o próximo token só sai depois do seguinte
+        assertThat(bucket.reserve(in(SECOND))).isEqualTo(2 * SECOND / 10);
+        assertThat(bucket.available()).isCloseTo(-2, within(1e-9));
+    }
+    
+    @Test
+    void reservationPastTheDeadlineIsRefusedWithoutConsumingTokens() {
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+        assertThat(bucket.reserve(in(0))).isZero();
+        
+        assertThat(bucket.reserve(in(SECOND / 10 - 1))).isEqualTo(-1);
+        assertThat(bucket.reserve(in(SECOND / 20))).isEqualTo(-1);
+        
+        // As recusas não reservaram nada: a espera continua sendo a de um único token
+        assertThat(bucket.reserve(in(SECOND / 10))).isEqualTo(SECOND / 10);
+    }
+    
+    @Test
+    void tokensRefillWithTimeUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, clock::get);
+        for (int i = 0; i < 5; i++) {
+            bucket.reserve(in(0));
+        }
+        assertThat(bucket.available()).isCloseTo(0, within(1e-9));
+        
+        clock.addAndGet(SECOND / 4);
+        assertThat(bucket.available()).isCloseTo(2.5, within(1e-9));
+        assertThat(bucket.reserve(in(0))).isZero();
+        assertThat(bucket.reserve(in(0))).isZero();
+        // Meio token restante: espera 50 ms pelo resto
+        assertThat(bucket.reserve(in(SECOND))).isEqualTo(SECOND / 20);
+        
+        clock.addAndGet(60 * SECOND);
+        assertThat(bucket.available()).isEqualTo(5.0);
+    }
+    
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
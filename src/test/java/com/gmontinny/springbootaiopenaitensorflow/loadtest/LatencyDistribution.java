@@ -0,0 +1,71 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribuição de latência do servidor simulado, lida de uma especificação textual:
+ * <ul>
+ *   <li>{@code fixed:300ms}</li>
+ *   <li>{@code uniform:200ms:800ms}</li>
+ *   <li>{@code lognormal:600ms:3s} (mediana e p99; cauda longa, como as APIs de LLM)</li>
+ * </ul>
+ */
+interface LatencyDistribution {
+    
+    /** Z do percentil 99 da normal padrão. */
+    double Z_99 = 2.3263;
+    
+    long sampleNanos();
+    
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        switch (parts[0]) {
+            case "fixed" -> {
+                long nanos = nanos(parts, 1);
+                return () -> nanos;
+            }
+            case "uniform" -> {
+                long min = nanos(parts, 1);
+                long max = nanos(parts, 2);
+                return () -> min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+            }
+            case "lognormal" -> {
+                long median = nanos(parts, 1);
+                long p99 = nanos(parts, 2);
+                if (p99 < median) {
+                    throw new IllegalArgumentException("p99 menor que a mediana: " + spec);
+                }
+                double sigma = Math.log((double) p99 / median) / Z_99;
+                return () -> (long) (median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            default -> throw new IllegalArgumentException("Distribuição de latência desconhecida: " + spec);
+        }
+    }
+    
+    private static long nanos(String[] parts, int index) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException("Parâmetros insuficientes para " + parts[0]);
+        }
+        return parseDuration(parts[index]).toNanos();
+    }
+    
+    /** Durações no formato curto: {@code 250ms}, {@code 2s}, {@code 1m}, {@code 500us}. */
+    static Duration parseDuration(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("us")) {
+            return Duration.ofNanos(Long.parseLong(text.substring(0, text.length() - 2)) * 1_000);
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(text.substring(0, text.length() - 1)) * 1_000));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)) * 60);
+        }
+        return Duration.ofMillis(Long.parseLong(text));
+    }
+}
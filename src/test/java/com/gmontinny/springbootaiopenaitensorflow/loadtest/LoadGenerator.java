@@ -0,0 +1,189 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP sobre virtual threads, em dois modelos:
+ * <ul>
+ *   <li><b>fechado</b>: {@code concurrency} usuários, cada um envia a próxima requisição quando
+ *   a anterior termina (mais {@code thinkTime}); mede a capacidade com concorrência fixa;</li>
+ *   <li><b>aberto</b>: chegadas a {@code rate} por segundo, independentes das respostas; a latência
+ *   conta a partir do instante planejado de envio, então atrasos do próprio gerador ou da
+ *   aplicação não escondem a fila (coordinated omission).</li>
+ * </ul>
+ * Os cenários são sorteados pelos pesos de {@code mix}.
+ */
+final class LoadGenerator {
+    
+    private final Config config;
+    private final HttpClient client;
+    private final Map<LoadScenario, LoadReport.ScenarioStats> stats = new EnumMap<>(LoadScenario.class);
+    private final LoadScenario[] scenarios;
+    private final int[] cumulativeWeights;
+    
+    LoadGenerator(Config config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.scenarios = config.mix().keySet().toArray(LoadScenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int sum = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            sum += config.mix().get(scenarios[i]);
+            cumulativeWeights[i] = sum;
+            stats.put(scenarios[i], new LoadReport.ScenarioStats());
+        }
+    }
+    
+    LoadReport run() {
+        long start = System.nanoTime();
+        long measureStart = start + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.openModel()) {
+                runOpen(executor, start, measureStart, end);
+            } else {
+                runClosed(executor, measureStart, end);
+            }
+        }
+        return new LoadReport(stats, config.duration(), config.describe());
+    }
+    
+    private void runClosed(ExecutorService executor, long measureStart, long end) {
+        for (int user = 0; user < config.concurrency(); user++) {
+            executor.execute(() -> {
+                while (System.nanoTime() - end < 0) {
+                    long intendedStart = System.nanoTime();
+                    send(nextScenario(), intendedStart, intendedStart - measureStart >= 0);
+                    if (!config.thinkTime().isZero()) {
+                        LockSupport.parkNanos(config.thinkTime().toNanos());
+                    }
+                }
+            });
+        }
+    }
+    
+    private void runOpen(ExecutorService executor, long start, long measureStart, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate());
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * interval;
+            if (intendedStart - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadScenario scenario = nextScenario();
+            boolean measured = intendedStart - measureStart >= 0;
+            if (!inFlight.tryAcquire()) {
+                // O próprio gerador saturou: registrado como erro em vez de atrasar as próximas chegadas
+                if (measured) {
+                    stats.get(scenario).error("client-saturated");
+                }
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    send(scenario, intendedStart, measured);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+    
+    private void send(LoadScenario scenario, long intendedStart, boolean measured) {
+        int variant = ThreadLocalRandom.current().nextInt(config.promptPool());
+        HttpRequest request = scenario.build(config.baseUrl(), variant, config.requestTimeout());
+        LoadReport.ScenarioStats scenarioStats = stats.get(scenario);
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long latency = System.nanoTime() - intendedStart;
+            if (!measured) {
+                return;
+            }
+            if (response.statusCode() / 100 == 2) {
+                scenarioStats.success(latency);
+            } else {
+                scenarioStats.error("HTTP " + response.statusCode());
+            }
+        } catch (IOException e) {
+            if (measured) {
+                scenarioStats.error(e.getClass().getSimpleName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private LoadScenario nextScenario() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+    
+    /** Pesos no formato {@code chat:4,search:3,summarize:1}. */
+    static Map<LoadScenario, Integer> parseMix(String mix) {
+        Map<LoadScenario, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0) {
+                weights.merge(LoadScenario.of(parts[0]), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum cenário no mix: " + mix);
+        }
+        return weights;
+    }
+    
+    record Config(String baseUrl, boolean openModel, int concurrency, double rate, int maxInFlight,
+                  Duration warmup, Duration duration, Duration requestTimeout, Duration thinkTime,
+                  Map<LoadScenario, Integer> mix, int promptPool) {
+        
+        static Config fromOptions(String baseUrl, LoadTestOptions options) {
+            return new Config(baseUrl,
+                "open".equalsIgnoreCase(options.value("model", "closed")),
+                options.intValue("concurrency", 16),
+                options.doubleValue("rate", 20),
+                options.intValue("max-in-flight", 2000),
+                options.duration("warmup", Duration.ofSeconds(10)),
+                options.duration("duration", Duration.ofSeconds(60)),
+                options.duration("request-timeout", Duration.ofSeconds(60)),
+                options.duration("think-time", Duration.ZERO),
+                parseMix(options.value("mix", "chat:4,search:2,summarize:1,translate:1,product-list:1,history:1")),
+                options.intValue("prompt-pool", 100_000));
+        }
+        
+        String describe() {
+            String load = openModel
+                ? String.format(Locale.ROOT, "modelo aberto, %.1f req/s (até %d em andamento)", rate, maxInFlight)
+                : String.format(Locale.ROOT, "modelo fechado, %d usuários", concurrency);
+            return String.format(Locale.ROOT, "%s contra %s por %ds (aquecimento %ds), %d variantes de texto",
+                load, baseUrl, duration.toSeconds(), warmup.toSeconds(), promptPool);
+        }
+    }
+}
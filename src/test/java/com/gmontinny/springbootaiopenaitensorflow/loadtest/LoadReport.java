@@ -0,0 +1,149 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resultado de uma execução do {@link LoadGenerator}: por cenário, vazão, percentis de latência
+ * (HDR histogram, em microssegundos, 3 dígitos significativos) e erros por tipo. Só entram as
+ * requisições iniciadas depois do aquecimento.
+ */
+final class LoadReport {
+    
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+    
+    private final Map<LoadScenario, ScenarioStats> scenarios = new EnumMap<>(LoadScenario.class);
+    private final Histogram total = new Histogram(3);
+    private final Duration measured;
+    private final String description;
+    
+    LoadReport(Map<LoadScenario, ScenarioStats> stats, Duration measured, String description) {
+        this.measured = measured;
+        this.description = description;
+        stats.forEach((scenario, scenarioStats) -> {
+            if (scenarioStats.requests() > 0) {
+                scenarios.put(scenario, scenarioStats);
+                total.add(scenarioStats.latency);
+            }
+        });
+    }
+    
+    void print(PrintStream out) {
+        out.println();
+        out.println(description);
+        out.printf(Locale.ROOT, "%-15s %9s %9s %9s %10s %10s %10s %10s %10s%n",
+            "cenário", "req", "erros", "req/s", "p50 (ms)", "p90 (ms)", "p99 (ms)", "p99.9 (ms)", "máx (ms)");
+        scenarios.forEach((scenario, stats) -> printRow(out, scenario.id(), stats.requests(), stats.errors(), stats.latency));
+        long requests = scenarios.values().stream().mapToLong(ScenarioStats::requests).sum();
+        long errors = scenarios.values().stream().mapToLong(ScenarioStats::errors).sum();
+        printRow(out, "total", requests, errors, total);
+        
+        Map<String, Long> errorTypes = errorBreakdown();
+        if (!errorTypes.isEmpty()) {
+            out.println("Erros por tipo:");
+            errorTypes.forEach((type, count) -> out.printf(Locale.ROOT, "  %-40s %9d%n", type, count));
+        }
+    }
+    
+    /** Estrutura serializável em JSON para comparar execuções (antes/depois de um ajuste). */
+    Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("description", description);
+        report.put("measuredSeconds", measured.toMillis() / 1000.0);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        scenarios.forEach((scenario, stats) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("scenario", scenario.id());
+            row.put("requests", stats.requests());
+            row.put("errors", stats.errors());
+            row.put("throughputPerSecond", throughput(stats.requests()));
+            row.put("latencyMillis", percentiles(stats.latency));
+            row.put("errorTypes", stats.errorCounts());
+            rows.add(row);
+        });
+        report.put("scenarios", rows);
+        report.put("latencyMillis", percentiles(total));
+        report.put("errorTypes", errorBreakdown());
+        return report;
+    }
+    
+    private void printRow(PrintStream out, String name, long requests, long errors, Histogram latency) {
+        out.printf(Locale.ROOT, "%-15s %9d %9d %9.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            name, requests, errors, throughput(requests),
+            millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+            latency.getTotalCount() == 0 ? 0 : latency.getMaxValue() / 1000.0);
+    }
+    
+    private Map<String, Long> errorBreakdown() {
+        Map<String, Long> breakdown = new TreeMap<>();
+        scenarios.forEach((scenario, stats) -> stats.errorCounts()
+            .forEach((type, count) -> breakdown.merge(scenario.id() + " " + type, count, Long::sum)));
+        return breakdown;
+    }
+    
+    private double throughput(long requests) {
+        return measured.isZero() ? 0 : requests * 1000.0 / measured.toMillis();
+    }
+    
+    private static Map<String, Double> percentiles(Histogram latency) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            values.put(PERCENTILE_LABELS[i], millis(latency, PERCENTILES[i]));
+        }
+        values.put("max", latency.getTotalCount() == 0 ? 0 : latency.getMaxValue() / 1000.0);
+        values.put("mean", latency.getTotalCount() == 0 ? 0 : latency.getMean() / 1000.0);
+        return values;
+    }
+    
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getTotalCount() == 0 ? 0 : latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    /**
+     * Coleta de um cenário, compartilhada pelas threads do gerador. A latência é a das respostas
+     * 2xx; erros (status HTTP ou exceção do cliente) são contados por tipo.
+     */
+    static final class ScenarioStats {
+        
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final LongAdder successes = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        
+        void success(long latencyNanos) {
+            latency.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            successes.increment();
+        }
+        
+        void error(String type) {
+            errors.computeIfAbsent(type, key -> new LongAdder()).increment();
+        }
+        
+        long errors() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+        
+        long requests() {
+            return successes.sum() + errors();
+        }
+        
+        Map<String, Long> errorCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+    }
+}
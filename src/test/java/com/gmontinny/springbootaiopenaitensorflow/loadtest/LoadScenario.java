@@ -0,0 +1,120 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Requisições disparadas pelo {@link LoadGenerator}. Os textos variam dentro de um conjunto de
+ * {@code promptPool} variantes: um conjunto pequeno exercita os caches de resposta, um grande
+ * (o padrão) força as chamadas ao modelo.
+ */
+enum LoadScenario {
+    
+    CHAT("chat") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/chat/process", "{\"message\":\"" + message(variant) + "\"}");
+        }
+    },
+    CHAT_STREAM("chat-stream") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/chat/process/stream", "{\"message\":\"" + message(variant) + "\"}")
+                .header("Accept", "text/event-stream");
+        }
+    },
+    SEARCH("search") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/search/semantic", "{\"query\":\"" + message(variant) + "\",\"topK\":\"5\"}");
+        }
+    },
+    HYBRID_SEARCH("hybrid-search") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/search/hybrid", "{\"query\":\"pedido PED-" + variant + " atrasado\",\"topK\":5}");
+        }
+    },
+    SUMMARIZE("summarize") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/ai/summarize", "{\"text\":\"" + message(variant) + "\"}");
+        }
+    },
+    TRANSLATE("translate") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/ai/translate",
+                "{\"text\":\"" + message(variant) + "\",\"targetLanguage\":\"inglês\"}");
+        }
+    },
+    GENERATE_CODE("generate-code") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/ai/generate-code",
+                "{\"description\":\"Função que valida o pedido " + variant + "\",\"language\":\"Java\"}");
+        }
+    },
+    PRODUCT_CREATE("product-create") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return post(baseUrl + "/api/products", "{\"name\":\"Produto " + variant + "\",\"description\":\"Item de teste\","
+                + "\"price\":" + (10 + variant % 990) + ".90,\"category\":\"" + CATEGORIES[variant % CATEGORIES.length] + "\"}");
+        }
+    },
+    PRODUCT_LIST("product-list") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?size=20")).GET();
+        }
+    },
+    HISTORY("history") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, int variant) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/chat/history?size=20")).GET();
+        }
+    };
+    
+    private static final String[] CATEGORIES = {"Áudio", "Informática", "Casa", "Esporte", "Livros"};
+    private static final String[] OPENINGS = {
+        "Estou muito satisfeito com o produto", "O pedido chegou com atraso",
+        "A entrega foi rápida, mas a embalagem veio danificada", "Péssimo atendimento no suporte",
+        "Gostaria de saber o prazo de troca", "O produto superou minhas expectativas"
+    };
+    
+    private final String id;
+    
+    LoadScenario(String id) {
+        this.id = id;
+    }
+    
+    String id() {
+        return id;
+    }
+    
+    abstract HttpRequest.Builder request(String baseUrl, int variant);
+    
+    HttpRequest build(String baseUrl, int variant, Duration timeout) {
+        return request(baseUrl, variant).timeout(timeout).build();
+    }
+    
+    static LoadScenario of(String id) {
+        return Arrays.stream(values())
+            .filter(scenario -> scenario.id.equals(id.trim().toLowerCase(Locale.ROOT)))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Cenário desconhecido: " + id));
+    }
+    
+    private static String message(int variant) {
+        return OPENINGS[variant % OPENINGS.length] + " (pedido " + variant + ").";
+    }
+    
+    private static HttpRequest.Builder post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+}
@@ -0,0 +1,82 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gmontinny.springbootaiopenaitensorflow.SpringBootAiOpenaiTensorflowApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Teste de carga offline: sobe o {@link MockLlmServer}, inicia a aplicação apontando para ele
+ * (vector store em memória, porta aleatória) e dispara o {@link LoadGenerator}. Com
+ * {@code --target=http://host:porta} só o gerador roda, contra uma aplicação já em execução.
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp "target/classes:target/test-classes:$(cat target/cp.txt)" \
+ *   com.gmontinny.springbootaiopenaitensorflow.loadtest.LoadTest \
+ *   --model=open --rate=40 --duration=60s --llm-latency=lognormal:600ms:3s \
+ *   --app.ai.limits.rate.permits-per-second=50
+ * </pre>
+ * Opções {@code spring.*}/{@code app.*} vão para a aplicação, então duas execuções com valores
+ * diferentes comparam um ajuste; o relatório também é gravado em JSON ({@code --report}).
+ */
+public class LoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.has("target")) {
+            report(run(options.value("target", null), options), options);
+            return;
+        }
+        
+        try (MockLlmServer llm = MockLlmServer.fromOptions(options)) {
+            llm.start();
+            System.out.printf("Servidor LLM simulado em %s%n", llm.baseUrl());
+            try (ConfigurableApplicationContext context = SpringApplication.run(
+                    SpringBootAiOpenaiTensorflowApplication.class, applicationArgs(llm, options))) {
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                LoadReport report = run(baseUrl, options);
+                report(report, options);
+                System.out.println(llm.stats());
+            }
+        }
+    }
+    
+    private static LoadReport run(String baseUrl, LoadTestOptions options) {
+        LoadGenerator.Config config = LoadGenerator.Config.fromOptions(baseUrl, options);
+        System.out.println("Executando: " + config.describe());
+        return new LoadGenerator(config).run();
+    }
+    
+    private static void report(LoadReport report, LoadTestOptions options) throws Exception {
+        report.print(System.out);
+        Path path = Path.of(options.value("report", "target/loadtest-report.json"));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report.toMap());
+        System.out.println("Relatório JSON: " + path.toAbsolutePath());
+    }
+    
+    // Padrões para rodar sem rede; as opções de linha de comando substituem cada chave
+    private static String[] applicationArgs(MockLlmServer llm, LoadTestOptions options) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.ai.openai.base-url", llm.baseUrl());
+        properties.put("spring.ai.openai.api-key", "load-test");
+        properties.put("server.port", "0");
+        properties.put("app.vector-store.type", "memory");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        for (String arg : options.applicationArgs()) {
+            int separator = arg.indexOf('=');
+            properties.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return properties.entrySet().stream()
+            .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+            .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,78 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opções de linha de comando no formato {@code --chave=valor}. Chaves {@code spring.*},
+ * {@code app.*}, {@code server.*}, {@code management.*} e {@code logging.*} são repassadas à
+ * aplicação iniciada pelo {@link LoadTest}, para medir o efeito de cada ajuste de configuração.
+ */
+final class LoadTestOptions {
+    
+    private static final List<String> APPLICATION_PREFIXES = List.of("spring.", "app.", "server.", "management.", "logging.");
+    
+    private final Map<String, String> values;
+    private final List<String> applicationArgs;
+    
+    private LoadTestOptions(Map<String, String> values, List<String> applicationArgs) {
+        this.values = values;
+        this.applicationArgs = applicationArgs;
+    }
+    
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opção inválida (use --chave=valor): " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            if (APPLICATION_PREFIXES.stream().anyMatch(key::startsWith)) {
+                applicationArgs.add("--" + key + "=" + value);
+            } else {
+                values.put(key, value);
+            }
+        }
+        return new LoadTestOptions(values, List.copyOf(applicationArgs));
+    }
+    
+    List<String> applicationArgs() {
+        return applicationArgs;
+    }
+    
+    boolean has(String key) {
+        return values.containsKey(key);
+    }
+    
+    String value(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+    
+    int intValue(String key, int defaultValue) {
+        return has(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+    
+    double doubleValue(String key, double defaultValue) {
+        return has(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+    }
+    
+    boolean booleanValue(String key, boolean defaultValue) {
+        return has(key) ? Boolean.parseBoolean(values.get(key)) : defaultValue;
+    }
+    
+    Duration duration(String key, Duration defaultValue) {
+        return has(key) ? LatencyDistribution.parseDuration(values.get(key)) : defaultValue;
+    }
+    
+    int[] intList(String key, String defaultValue) {
+        String value = value(key, defaultValue);
+        return value.isBlank() ? new int[0] : Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+}
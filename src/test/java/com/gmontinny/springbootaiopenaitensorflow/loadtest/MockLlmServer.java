@@ -0,0 +1,301 @@
+package com.gmontinny.springbootaiopenaitensorflow.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor local compatível com a API da OpenAI ({@code /v1/chat/completions} e
+ * {@code /v1/embeddings}), para testes de carga sem rede nem consumo de cota.
+ * <p>
+ * A latência até o primeiro token segue uma {@link LatencyDistribution}; depois, cada token
+ * leva {@code tokenInterval}. Em streaming os tokens saem como chunks SSE à medida que são
+ * "gerados"; sem streaming a resposta inteira sai no fim. Uma fração {@code errorRate} das
+ * chamadas responde com um dos status de erro configurados (429 imediato, demais após a latência).
+ * <p>
+ * Executar isolado (a aplicação aponta para ele com {@code spring.ai.openai.base-url}):
+ * <pre>
+ * java -cp target/test-classes \
+ *   com.gmontinny.springbootaiopenaitensorflow.loadtest.MockLlmServer \
+ *   --llm-port=9090 --llm-latency=lognormal:600ms:3s --llm-tokens=60 --llm-token-interval=15ms --llm-error-rate=0.01
+ * </pre>
+ */
+public class MockLlmServer implements AutoCloseable {
+    
+    private static final Pattern STREAM = Pattern.compile("\"stream\"\\s*:\\s*true");
+    private static final Pattern MODEL = Pattern.compile("\"model\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern DIMENSIONS = Pattern.compile("\"dimensions\"\\s*:\\s*(\\d+)");
+    private static final Pattern PRODUCT_ID = Pattern.compile("Produto (\\d+):");
+    private static final Pattern INPUT_ITEM = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final String[] WORDS = {
+        "o", "cliente", "relata", "que", "o", "pedido", "chegou", "com", "atraso", "mas",
+        "a", "qualidade", "do", "produto", "atendeu", "às", "expectativas", "e", "pede", "retorno"
+    };
+    
+    private final LatencyDistribution latency;
+    private final Duration tokenInterval;
+    private final int tokens;
+    private final double errorRate;
+    private final int[] errorStatuses;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder streamed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    
+    public MockLlmServer(int port, LatencyDistribution latency, Duration tokenInterval, int tokens,
+                         double errorRate, int[] errorStatuses) throws IOException {
+        this.latency = latency;
+        this.tokenInterval = tokenInterval;
+        this.tokens = Math.max(1, tokens);
+        this.errorRate = errorRate;
+        this.errorStatuses = errorStatuses.length == 0 ? new int[] {500} : errorStatuses;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/v1/chat/completions", exchange -> handle(exchange, this::chatCompletion));
+        server.createContext("/v1/embeddings", exchange -> handle(exchange, this::embeddings));
+        server.setExecutor(executor);
+    }
+    
+    static MockLlmServer fromOptions(LoadTestOptions options) throws IOException {
+        return new MockLlmServer(
+            options.intValue("llm-port", 0),
+            LatencyDistribution.parse(options.value("llm-latency", "lognormal:600ms:3s")),
+            options.duration("llm-token-interval", Duration.ofMillis(15)),
+            options.intValue("llm-tokens", 60),
+            options.doubleValue("llm-error-rate", 0),
+            options.intList("llm-error-status", "429,500"));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        MockLlmServer server = fromOptions(options);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println(server.stats());
+            server.close();
+        }));
+        System.out.printf("Servidor LLM simulado em %s%n", server.baseUrl());
+        Thread.currentThread().join();
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public String stats() {
+        return String.format(Locale.ROOT,
+            "LLM simulado: %d chamadas (%d em streaming), %d erros injetados, pico de %d simultâneas",
+            requests.sum(), streamed.sum(), errors.sum(), peakInFlight.get());
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        requests.increment();
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, error("method not allowed", "invalid_request_error"));
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                int status = errorStatuses[random.nextInt(errorStatuses.length)];
+                errors.increment();
+                if (status != 429) {
+                    sleep(latency.sampleNanos());
+                }
+                sendJson(exchange, status, error("erro simulado " + status,
+                    status == 429 ? "rate_limit_exceeded" : "server_error"));
+                return;
+            }
+            handler.handle(exchange, body);
+        } catch (IOException e) {
+            // Cliente desistiu (timeout da aplicação): não é um erro do servidor simulado
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    private void chatCompletion(HttpExchange exchange, String body) throws IOException {
+        String model = match(MODEL, body, "mock-model");
+        int promptTokens = Math.max(1, body.length() / 4);
+        String id = "chatcmpl-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        long created = System.currentTimeMillis() / 1000;
+        sleep(latency.sampleNanos());
+        
+        if (!STREAM.matcher(body).find()) {
+            sleep(tokenInterval.toNanos() * tokens);
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < tokens; i++) {
+                content.append(word(i));
+            }
+            String text = body.contains("autoResponse")
+                ? structuredOutput(content.toString().trim(), body)
+                : body.contains("productId")
+                ? productDescriptions(content.toString().trim(), body)
+                : content.toString().trim();
+            sendJson(exchange, 200, "{\"id\":\"" + id + "\",\"object\":\"chat.completion\",\"created\":" + created
+                + ",\"model\":\"" + model + "\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\""
+                + text + "\"},\"finish_reason\":\"stop\"}]," + usage(promptTokens) + "}");
+            return;
+        }
+        
+        streamed.increment();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String prefix = "{\"id\":\"" + id + "\",\"object\":\"chat.completion.chunk\",\"created\":" + created
+            + ",\"model\":\"" + model + "\",\"choices\":";
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                sleep(tokenInterval.toNanos());
+            }
+            String role = i == 0 ? "\"role\":\"assistant\"," : "";
+            event(out, prefix + "[{\"index\":0,\"delta\":{" + role + "\"content\":\"" + word(i)
+                + "\"},\"finish_reason\":null}]}");
+        }
+        event(out, prefix + "[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}");
+        // Uso de tokens num chunk final sem choices, como com stream_options.include_usage
+        event(out, prefix + "[]," + usage(promptTokens) + "}");
+        event(out, "[DONE]");
+    }
+    
+    private void embeddings(HttpExchange exchange, String body) throws IOException {
+        int dimensions = Integer.parseInt(match(DIMENSIONS, body, "1536"));
+        List<String> inputs = inputs(body);
+        sleep(latency.sampleNanos() / 4);
+        
+        StringBuilder json = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        for (int i = 0; i < inputs.size(); i++) {
+            Random random = new Random(inputs.get(i).hashCode());
+            json.append(i > 0 ? "," : "").append("{\"object\":\"embedding\",\"index\":").append(i).append(",\"embedding\":[");
+            for (int d = 0; d < dimensions; d++) {
+                json.append(d > 0 ? "," : "").append(String.format(Locale.ROOT, "%.5f", random.nextFloat() * 2 - 1));
+            }
+            json.append("]}");
+        }
+        int promptTokens = Math.max(1, body.length() / 4);
+        json.append("],\"model\":\"").append(match(MODEL, body, "mock-embedding")).append("\",\"usage\":{\"prompt_tokens\":")
+            .append(promptTokens).append(",\"total_tokens\":").append(promptTokens).append("}}");
+        sendJson(exchange, 200, json.toString());
+    }
+    
+    // Os textos de "input" (string única ou array); o resto do corpo não interessa ao mock
+    private static List<String> inputs(String body) {
+        int start = body.indexOf("\"input\"");
+        List<String> inputs = new ArrayList<>();
+        if (start < 0) {
+            return List.of("");
+        }
+        int valueStart = body.indexOf(':', start) + 1;
+        while (valueStart < body.length() && Character.isWhitespace(body.charAt(valueStart))) {
+            valueStart++;
+        }
+        int valueEnd = body.charAt(valueStart) == '[' ? body.indexOf(']', valueStart) : body.length();
+        Matcher matcher = INPUT_ITEM.matcher(body).region(valueStart, valueEnd);
+        while (matcher.find()) {
+            inputs.add(matcher.group(1));
+            if (body.charAt(valueStart) != '[') {
+                break;
+            }
+        }
+        return inputs.isEmpty() ? List.of("") : inputs;
+    }
+    
+    // Pedido com saída estruturada (schema com autoResponse): JSON já escapado para o campo content
+    private static String structuredOutput(String text, String body) {
+        String sentiment = body.contains("sentimentScore") ? ",\\\"sentiment\\\":\\\"NEUTRAL\\\",\\\"sentimentScore\\\":0.5" : "";
+        return "{\\\"summary\\\":\\\"" + text + "\\\",\\\"autoResponse\\\":\\\"" + text + "\\\"" + sentiment + "}";
+    }
+    
+    // Descrições de produtos em lote: um item por "Produto <id>:" do prompt
+    private static String productDescriptions(String text, String body) {
+        StringJoiner items = new StringJoiner(",", "{\\\"descriptions\\\":[", "]}");
+        Matcher matcher = PRODUCT_ID.matcher(body);
+        while (matcher.find()) {
+            items.add("{\\\"productId\\\":" + matcher.group(1) + ",\\\"description\\\":\\\"" + text + "\\\"}");
+        }
+        return items.toString();
+    }
+    
+    private String usage(int promptTokens) {
+        return "\"usage\":{\"prompt_tokens\":" + promptTokens + ",\"completion_tokens\":" + tokens
+            + ",\"total_tokens\":" + (promptTokens + tokens) + "}";
+    }
+    
+    private static String word(int index) {
+        return WORDS[index % WORDS.length] + " ";
+    }
+    
+    private static String error(String message, String type) {
+        return "{\"error\":{\"message\":\"" + message + "\",\"type\":\"" + type + "\",\"code\":null}}";
+    }
+    
+    private static String match(Pattern pattern, String body, String defaultValue) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : defaultValue;
+    }
+    
+    private static void event(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (status == 429) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+    
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange, String body) throws IOException;
+    }
+}
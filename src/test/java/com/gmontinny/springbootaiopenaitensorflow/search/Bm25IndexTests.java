@@ -0,0 +1,314 @@
+package com.gmontinny.springbootaiopenaitensorflow.search;
+
+import com.gmontinny.springbootaiopenaitensorflow.vector.VectorMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Bm25IndexTests {
+    
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    
+    /** Documento de referência: tokens já normalizados, etiqueta e timestamp. */
+    private record Doc(long id, List<String> tokens, int tag, long timestamp) {
+        
+        Map<String, Integer> frequencies() {
+            Map<String, Integer> frequencies = new HashMap<>();
+            tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+            return frequencies;
+        }
+    }
+    
+    /** BM25 sem poda: pontua todos os documentos com os mesmos parâmetros do índice. */
+    private static final class ExhaustiveBm25 {
+        
+        private final Map<Long, Doc> docs = new LinkedHashMap<>();
+        private final Map<Long, Map<String, Integer>> frequencies = new HashMap<>();
+        private final Map<String, Integer> documentFrequency = new HashMap<>();
+        private long totalLength;
+        
+        void add(Doc doc) {
+            if (docs.putIfAbsent(doc.id(), doc) == null) {
+                Map<String, Integer> docFrequencies = doc.frequencies();
+                frequencies.put(doc.id(), docFrequencies);
+                docFrequencies.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+                totalLength += doc.tokens().size();
+            }
+        }
+        
+        /** Todos os documentos com score positivo que passam no filtro, do maior para o menor score. */
+        List<VectorMatch> scores(String query, Bm25Index.Filter filter) {
+            Set<String> terms = new HashSet<>(List.of(query.toLowerCase().split(" ")));
+            double averageLength = Math.max(1.0, (double) totalLength / docs.size());
+            List<VectorMatch> scored = new ArrayList<>();
+            for (Doc doc : docs.values()) {
+                if (filter != null && !accepts(filter, doc)) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * doc.tokens().size() / averageLength);
+                double score = 0;
+                for (String term : terms) {
+                    int frequency = frequencies.get(doc.id()).getOrDefault(term, 0);
+                    if (frequency > 0) {
+                        int df = documentFrequency.get(term);
+                        double idf = Math.log(1 + (docs.size() - df + 0.5) / (df + 0.5));
+                        score += idf * frequency * (K1 + 1) / (frequency + norm);
+                    }
+                }
+                if (score > 0) {
+                    scored.add(new VectorMatch(doc.id(), (float) score));
+                }
+            }
+            scored.sort(Comparator.comparingDouble(VectorMatch::score).reversed());
+            return scored;
+        }
+        
+        private static boolean accepts(Bm25Index.Filter filter, Doc doc) {
+            return (filter.tag() < 0 || filter.tag() == doc.tag())
+                && doc.timestamp() >= filter.from() && doc.timestamp() < filter.to();
+        }
+    }
+    
+    private final Bm25Index index = new Bm25Index(K1, B);
+    private final ExhaustiveBm25 reference = new ExhaustiveBm25();
+    
+    private void add(Doc doc) {
+        index.add(doc.id(), String.join(" ", doc.tokens()), doc.tag(), doc.timestamp());
+        reference.add(doc);
+    }
+    
+    /**
+     * Compara com a referência pelos scores: empates no k-ésimo lugar podem trazer IDs diferentes,
+     * mas cada ID devolvido precisa ter o score exato e a lista precisa ter os mesmos scores.
+     */
+    private void assertSameTopK(String query, int topK, Bm25Index.Filter filter) {
+        List<VectorMatch> pruned = index.search(query, topK, filter);
+        List<VectorMatch> all = reference.scores(query, filter);
+        List<VectorMatch> expected = all.subList(0, Math.min(topK, all.size()));
+        Map<Long, Float> exact = all.stream().collect(Collectors.toMap(VectorMatch::id, VectorMatch::score));
+        
+        assertThat(pruned).as("'%s' top %d", query, topK).hasSize(expected.size());
+        for (int i = 0; i < pruned.size(); i++) {
+            VectorMatch match = pruned.get(i);
+            assertThat(exact.get(match.id())).as("'%s' doc %d", query, match.id()).isNotNull();
+            assertThat(match.score()).as("'%s' doc %d", query, match.id()).isCloseTo(exact.get(match.id()), within(1e-4f));
+            assertThat(match.score()).as("'%s' posição %d", query, i).isCloseTo(expected.get(i).score(), within(1e-4f));
+        }
+        assertThat(pruned.stream().map(VectorMatch::id).toList()).doesNotHaveDuplicates();
+    }
+    
+    // Vocabulário com distribuição aproximadamente Zipf: poucos termos muito comuns, muitos raros
+    private static List<String> randomTokens(Random random, int vocabulary, int length) {
+        return IntStream.range(0, length)
+            .mapToObj(i -> "t" + (int) Math.floor(Math.pow(vocabulary, random.nextDouble())))
+            .toList();
+    }
+    
+    @Test
+    void prunedTopKMatchesExhaustiveScoringOnRandomCorpus() {
+        Random random = new Random(42);
+        for (long id = 1; id <= 3000; id++) {
+            add(new Doc(id, randomTokens(random, 400, 3 + random.nextInt(40)), random.nextInt(3), id));
+        }
+        
+        for (int q = 0; q < 100; q++) {
+            String query = String.join(" ", randomTokens(random, 400, 1 + random.nextInt(5)));
+            for (int topK : new int[]{1, 5, 10, 100}) {
+                assertSameTopK(query, topK, null);
+            }
+        }
+    }
+    
+    @Test
+    void filtersApplyInsidePostingTraversal() {
+        Random random = new Random(7);
+        for (long id = 1; id <= 2000; id++) {
+            add(new Doc(id, randomTokens(random, 200, 5 + random.nextInt(20)), random.nextInt(3), id * 10));
+        }
+        List<Bm25Index.Filter> filters = List.of(
+            new Bm25Index.Filter(1, Long.MIN_VALUE, Long.MAX_VALUE),
+            new Bm25Index.Filter(-1, 5_000, 12_000),
+            new Bm25Index.Filter(2, 0, 3_000),
+            // Nenhum documento no intervalo
+            new Bm25Index.Filter(0, 100_000, 200_000));
+        
+        for (int q = 0; q < 100; q++) {
+            String query = String.join(" ", randomTokens(random, 200, 1 + random.nextInt(4)));
+            for (Bm25Index.Filter filter : filters) {
+                assertSameTopK(query, 10, filter);
+            }
+        }
+        assertThat(index.search("t1 t2 t3", 10, filters.get(3))).isEmpty();
+        assertThat(index.matches(1, filters.get(1))).isFalse();
+        assertThat(index.matches(500, filters.get(1))).isTrue();
+        assertThat(index.matches(9_999, null)).isFalse();
+    }
+    
+    @Test
+    void postingListsAroundBlockBoundariesKeepEveryPosting() {
+        // Um termo com 63, 64 e 65 postings; o melhor documento de cada um é o último posting da lista
+        long id = 1;
+        for (int postings : new int[]{63, 64, 65}) {
+            String term = "bloco" + postings;
+            for (int i = 0; i < postings; i++) {
+                List<String> tokens = new ArrayList<>(List.of("comum", "texto", "de", "preenchimento"));
+                int repetitions = i == postings - 1 ? 5 : 1 + i % 2;
+                for (int r = 0; r < repetitions; r++) {
+                    tokens.add(term);
+                }
+                add(new Doc(id++, tokens, 0, id));
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            add(new Doc(id++, List.of("comum", "outro", "assunto"), 0, id));
+        }
+        
+        for (int postings : new int[]{63, 64, 65}) {
+            String term = "bloco" + postings;
+            List<VectorMatch> best = index.search(term, 1, null);
+            assertThat(best).hasSize(1);
+            assertThat(best.get(0).id()).isEqualTo(reference.scores(term, null).get(0).id());
+            for (int topK : new int[]{1, 2, 62, 63, 64, 65, 66, 200}) {
+                assertSameTopK(term, topK, null);
+                assertSameTopK(term + " comum", topK, null);
+            }
+            assertThat(index.search(term, 500, null)).hasSize(postings);
+        }
+    }
+    
+    @Test
+    void blockMaxSkipsWeakBlocksWithoutLosingTheFirstPostingOfTheNext() {
+        // 10 blocos de 64 postings do mesmo termo, documentos do mesmo tamanho. O bloco 0 (frequência 3)
+        // define o k-ésimo score; os blocos fracos (frequência 1) são pulados, mas o primeiro posting
+        // dos blocos 5 e 9 é o melhor documento do termo
+        long id = 1;
+        for (int posting = 0; posting < 640; posting++) {
+            int block = posting / 64;
+            int frequency = block == 0 ? 3 : 1;
+            if (posting == 5 * 64) {
+                frequency = 4;
+            } else if (posting == 9 * 64) {
+                frequency = 5;
+            }
+            List<String> tokens = new ArrayList<>(Collections.nCopies(frequency, "alvo"));
+            tokens.addAll(Collections.nCopies(10 - frequency, "resto"));
+            add(new Doc(id++, tokens, 0, id));
+        }
+        for (int i = 0; i < 2000; i++) {
+            add(new Doc(id++, Collections.nCopies(10, "resto"), 0, id));
+        }
+        
+        List<VectorMatch> top = index.search("alvo", 5, null);
+        
+        assertThat(top.get(0).id()).isEqualTo(9 * 64 + 1L);
+        assertThat(top.get(1).id()).isEqualTo(5 * 64 + 1L);
+        for (int topK : new int[]{1, 2, 5, 64, 66, 67}) {
+            assertSameTopK("alvo", topK, null);
+            assertSameTopK("alvo resto", topK, null);
+        }
+    }
+    
+    @Test
+    void duplicateIdsKeepTheFirstVersion() {
+        add(new Doc(1, List.of("pedido", "atrasado"), 0, 1));
+        add(new Doc(2, List.of("entrega", "rápida"), 0, 2));
+        index.add(1, "produto quebrado", 0, 3);
+        
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("quebrado", 10, null)).isEmpty();
+        assertThat(index.search("pedido pedido atrasado", 10, null).stream().map(VectorMatch::id).toList()).containsExactly(1L);
+        assertSameTopK("pedido entrega", 10, null);
+    }
+    
+    @Test
+    void tokenizationIgnoresCaseAndPunctuation() {
+        index.add(1, "Pedido PED-1234 chegou; atrasado!", 0, 1);
+        index.add(2, "Nada a declarar", 0, 2);
+        
+        assertThat(index.search("ped 1234", 5, null).stream().map(VectorMatch::id).toList()).containsExactly(1L);
+        assertThat(index.search("ATRASADO", 5, null).stream().map(VectorMatch::id).toList()).containsExactly(1L);
+        assertThat(index.search("  ", 5, null)).isEmpty();
+        assertThat(index.search("pedido", 0, null)).isEmpty();
+    }
+    
+    @Test
+    void searchesDuringConcurrentInsertsSeeConsistentSnapshots() throws Exception {
+        int documents = 20_000;
+        Random random = new Random(3);
+        List<Doc> corpus = new ArrayList<>();
+        for (long id = 1; id <= documents; id++) {
+            corpus.add(new Doc(id, randomTokens(random, 300, 3 + random.nextInt(25)), random.nextInt(3), id));
+        }
+        AtomicLong lastAdded = new AtomicLong();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (Doc doc : corpus) {
+                    add(doc);
+                    lastAdded.set(doc.id());
+                }
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                long seed = r;
+                readers.add(executor.submit(() -> {
+                    Random queries = new Random(seed);
+                    int searches = 0;
+                    while (!writer.isDone()) {
+                        long visibleBefore = lastAdded.get();
+                        String query = String.join(" ", randomTokens(queries, 300, 1 + queries.nextInt(4)));
+                        List<VectorMatch> matches = index.search(query, 20, queries.nextBoolean()
+                            ? null : new Bm25Index.Filter(queries.nextInt(3), 0, Long.MAX_VALUE));
+                        long visibleAfter = lastAdded.get();
+                        
+                        assertThat(matches).hasSizeLessThanOrEqualTo(20);
+                        assertThat(matches.stream().map(VectorMatch::id).toList()).doesNotHaveDuplicates();
+                        // Só documentos já publicados; nunca algo além do que o escritor terminou de gravar
+                        assertThat(matches).allMatch(match -> match.id() >= 1 && match.id() <= visibleAfter + 1);
+                        assertThat(matches.stream().map(VectorMatch::score).toList())
+                            .isSortedAccordingTo(Comparator.reverseOrder());
+                        // Um documento publicado antes da busca aparece quando a consulta é o seu próprio texto
+                        if (visibleBefore > 0) {
+                            Doc known = corpus.get((int) (visibleBefore - 1));
+                            assertThat(index.matches(known.id(), null)).isTrue();
+                        }
+                        searches++;
+                    }
+                    return searches;
+                }));
+            }
+            writer.get();
+            for (Future<Integer> reader : readers) {
+                assertThat(reader.get()).isGreaterThan(0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(index.size()).isEqualTo(documents);
+        Random queries = new Random(11);
+        for (int q = 0; q < 50; q++) {
+            assertSameTopK(String.join(" ", randomTokens(queries, 300, 1 + queries.nextInt(4))), 10, null);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SavedModelSentimentEngineTests {
+    
+    private static SavedModelSentimentEngine engine;
+    
+    @BeforeAll
+    static void loadModel() throws Exception {
+        String modelPath = Path.of(SavedModelSentimentEngineTests.class.getResource("/models/sentiment").toURI()).toString();
+        engine = new SavedModelSentimentEngine(modelPath, 16, Duration.ofMillis(5), 1);
+    }
+    
+    @AfterAll
+    static void closeModel() {
+        engine.close();
+    }
+    
+    @Test
+    void scoresPositiveNegativeAndNeutralMessages() {
+        assertThat(engine.score("Estou muito feliz, o produto é excelente!")).isGreaterThan(0.6);
+        assertThat(engine.score("O produto chegou com defeito, péssimo atendimento")).isLessThan(0.4);
+        assertThat(engine.score("Qual o horário de funcionamento da loja?")).isCloseTo(0.5, within(1e-6));
+    }
+    
+    @Test
+    void coalescesConcurrentCallsIntoBatches() {
+        List<CompletableFuture<Double>> futures = IntStream.range(0, 100)
+            .mapToObj(i -> engine.scoreAsync(i % 2 == 0 ? "ótimo serviço" : "serviço ruim"))
+            .toList();
+        
+        for (int i = 0; i < futures.size(); i++) {
+            double score = futures.get(i).join();
+            if (i % 2 == 0) {
+                assertThat(score).isGreaterThan(0.6);
+            } else {
+                assertThat(score).isLessThan(0.4);
+            }
+        }
+    }
+    
+    @Test
+    void scoreAllMatchesSingleScores() {
+        List<String> texts = List.of("adorei", "terrível", "talvez");
+        double[] scores = engine.scoreAll(texts);
+        
+        for (int i = 0; i < texts.size(); i++) {
+            assertThat(scores[i]).isCloseTo(engine.score(texts.get(i)), within(1e-6));
+        }
+    }
+}
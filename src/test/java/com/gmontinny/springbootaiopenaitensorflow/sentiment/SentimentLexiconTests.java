@@ -0,0 +1,151 @@
+package com.gmontinny.springbootaiopenaitensorflow.sentiment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SentimentLexiconTests {
+    
+    /** Mesma regra do léxico por {@code contains}: cada termo presente no texto conta uma vez. */
+    private static double containsScore(Map<String, Double> lexicon, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        double positive = 0;
+        double negative = 0;
+        for (Map.Entry<String, Double> entry : lexicon.entrySet()) {
+            if (lower.contains(entry.getKey().toLowerCase(Locale.ROOT))) {
+                if (entry.getValue() > 0) {
+                    positive += entry.getValue();
+                } else {
+                    negative -= entry.getValue();
+                }
+            }
+        }
+        double total = positive + negative;
+        return total == 0 ? 0.5 : positive / total;
+    }
+    
+    @Test
+    void textWithoutTermsIsNeutral() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("bom", 1.0, "ruim", -1.0));
+        
+        assertThat(lexicon.score("")).isEqualTo(0.5);
+        assertThat(lexicon.score("Qual o horário da loja?")).isEqualTo(0.5);
+    }
+    
+    @Test
+    void overlappingTermsAllCount() {
+        // "mal atendido" contém "mal" e "atendido"; "atendimento" e "atendido" compartilham prefixo,
+        // e "dido" só é alcançado pelo link de falha a partir de "atendido"
+        Map<String, Double> terms = Map.of("mal", -1.0, "atendido", 1.0, "mal atendido", -2.0,
+            "atendimento", 1.0, "dido", -0.5);
+        SentimentLexicon lexicon = SentimentLexicon.of(terms);
+        
+        assertThat(lexicon.score("Fui mal atendido")).isCloseTo(1.0 / 4.5, within(1e-9));
+        assertThat(lexicon.score("bom atendimento")).isEqualTo(1.0);
+        assertThat(lexicon.score("atendido")).isCloseTo(1.0 / 1.5, within(1e-9));
+        for (String text : new String[]{"Fui mal atendido", "atendimento mal atendido", "atenatendido", "dido"}) {
+            assertThat(lexicon.score(text)).as(text).isCloseTo(containsScore(terms, text), within(1e-9));
+        }
+    }
+    
+    @Test
+    void multiWordEntriesMatchAcrossSpaces() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("não gostei", -2.0, "gostei", 1.0, "super recomendo", 3.0));
+        
+        assertThat(lexicon.score("Não gostei do produto")).isCloseTo(1.0 / 3.0, within(1e-9));
+        assertThat(lexicon.score("gostei, super recomendo")).isEqualTo(1.0);
+        // Espaço duplo quebra o termo composto; só "gostei" casa
+        assertThat(lexicon.score("não  gostei")).isEqualTo(1.0);
+    }
+    
+    @Test
+    void matchingIgnoresCaseButNotAccents() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("Péssimo", -1.0, "ótimo", 1.0));
+        
+        assertThat(lexicon.score("PÉSSIMO atendimento")).isEqualTo(0.0);
+        assertThat(lexicon.score("Ótimo")).isEqualTo(1.0);
+        assertThat(lexicon.score("pessimo, otimo")).isEqualTo(0.5);
+    }
+    
+    @Test
+    void termsMatchAtTextBoundariesAndInsideWords() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("bom", 1.0, "ruim", -1.0));
+        
+        assertThat(lexicon.score("bom")).isEqualTo(1.0);
+        assertThat(lexicon.score("bom e depois ruim")).isEqualTo(0.5);
+        assertThat(lexicon.score("ruim")).isEqualTo(0.0);
+        assertThat(lexicon.score("xruim")).isEqualTo(0.0);
+        // Casamento por substring: "bombom" contém "bom"
+        assertThat(lexicon.score("bombom")).isEqualTo(1.0);
+        assertThat(lexicon.score("bo")).isEqualTo(0.5);
+    }
+    
+    @Test
+    void eachTermCountsOncePerText() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("bom", 1.0, "ruim", -1.0));
+        
+        assertThat(lexicon.score("bom bom bom ruim")).isEqualTo(0.5);
+    }
+    
+    @Test
+    void matchesSubstringContainsOnRandomLexicons() {
+        // Alfabeto pequeno com acentos e maiúsculas: muitos prefixos e sufixos em comum, e mais de
+        // 64 termos para usar mais de uma palavra do conjunto de termos vistos
+        char[] alphabet = {'a', 'b', 'c', 'á', 'Á', 'B', ' '};
+        Random random = new Random(17);
+        for (int round = 0; round < 50; round++) {
+            Map<String, Double> terms = new LinkedHashMap<>();
+            while (terms.size() < 150) {
+                StringBuilder term = new StringBuilder();
+                for (int i = 1 + random.nextInt(5); i > 0; i--) {
+                    term.append(alphabet[random.nextInt(alphabet.length - 1)]);
+                }
+                terms.putIfAbsent(term.toString().toLowerCase(Locale.ROOT), random.nextBoolean() ? 1.0 + random.nextInt(3) : -1.0 - random.nextInt(3));
+            }
+            SentimentLexicon lexicon = SentimentLexicon.of(terms);
+            assertThat(lexicon.size()).isEqualTo(150);
+            
+            for (int t = 0; t < 40; t++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(30); i > 0; i--) {
+                    text.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+                assertThat(lexicon.score(text)).as("'%s'", text).isCloseTo(containsScore(terms, text.toString()), within(1e-9));
+            }
+        }
+    }
+    
+    @Test
+    void loadsTabOrSpaceSeparatedLexiconSkippingCommentsAndZeroWeights() throws IOException {
+        SentimentLexicon lexicon = SentimentLexicon.load(new StringReader("""
+            # termo<TAB>peso
+            
+            muito bom\t2
+            péssimo -1.5
+            tanto faz\t0
+            """));
+        
+        assertThat(lexicon.size()).isEqualTo(2);
+        assertThat(lexicon.score("Muito bom, nada péssimo")).isCloseTo(2.0 / 3.5, within(1e-9));
+        assertThat(lexicon.score("tanto faz")).isEqualTo(0.5);
+    }
+    
+    @Test
+    void rejectsLinesWithoutValidWeight() {
+        assertThatThrownBy(() -> SentimentLexicon.load(new StringReader("bom 1\nsó termo\n")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Peso inválido na linha 2");
+        assertThatThrownBy(() -> SentimentLexicon.load(new StringReader("semPeso\n")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Linha 1");
+    }
+}
@@ -0,0 +1,67 @@
+package com.gmontinny.springbootaiopenaitensorflow.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextChunkerTests {
+    
+    // Um token por palavra: torna os cortes previsíveis
+    private final TextChunker chunker = new TextChunker(text -> text.isBlank() ? 0 : text.trim().split("\\s+").length);
+    
+    private static String sentences(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> "Frase número " + i + " do documento.")
+            .collect(Collectors.joining(" "));
+    }
+    
+    @Test
+    void shortTextStaysInOneChunk() {
+        String text = sentences(3);
+        
+        assertThat(chunker.exceeds(text, 100)).isFalse();
+        assertThat(chunker.split(text, 100, 10)).containsExactly(text);
+    }
+    
+    @Test
+    void chunksWithoutOverlapRebuildTheOriginalText() {
+        String text = sentences(50);
+        
+        List<String> chunks = chunker.split(text, 20, 0);
+        
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(String.join("", chunks)).isEqualTo(text);
+        // Cada frase tem 5 palavras: 4 frases inteiras por trecho, sem cortar nenhuma
+        assertThat(chunks).allSatisfy(chunk -> {
+            assertThat(chunker.estimateTokens(chunk)).isLessThanOrEqualTo(20);
+            assertThat(chunk.trim()).startsWith("Frase").endsWith(".");
+        });
+    }
+    
+    @Test
+    void overlapRepeatsTheLastSentencesOfThePreviousChunk() {
+        List<String> chunks = chunker.split(sentences(12), 20, 5);
+        
+        for (int i = 1; i < chunks.size(); i++) {
+            String previous = chunks.get(i - 1).trim();
+            String lastSentence = previous.substring(previous.lastIndexOf("Frase"));
+            assertThat(chunks.get(i)).startsWith(lastSentence);
+            assertThat(chunker.estimateTokens(chunks.get(i))).isLessThanOrEqualTo(20);
+        }
+        assertThat(chunks.get(chunks.size() - 1)).contains("Frase número 11");
+    }
+    
+    @Test
+    void sentenceLongerThanTheLimitIsSplitBetweenWords() {
+        String longSentence = IntStream.range(0, 45).mapToObj(i -> "palavra" + i).collect(Collectors.joining(" ")) + ".";
+        
+        List<String> chunks = chunker.split(longSentence, 20, 0);
+        
+        assertThat(chunks).hasSize(3);
+        assertThat(String.join("", chunks)).isEqualTo(longSentence);
+    }
+}
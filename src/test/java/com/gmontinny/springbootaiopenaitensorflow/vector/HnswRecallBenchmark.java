@@ -0,0 +1,103 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.gaussian;
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.ids;
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.percentile;
+
+/**
+ * Benchmark de recall x latência do {@link HnswVectorStore} contra a busca exata
+ * do {@link BruteForceVectorStore}. Executar com:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *   com.gmontinny.springbootaiopenaitensorflow.vector.HnswRecallBenchmark [vetores] [dimensão] [consultas]
+ * </pre>
+ */
+public class HnswRecallBenchmark {
+
+    private static final int TOP_K = 10;
+    private static final int CLUSTERS = 64;
+    private static final int[] EF_SEARCH_VALUES = {16, 32, 64, 128, 256};
+
+    public static void main(String[] args) throws Exception {
+        int vectors = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 384;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Random random = new Random(42);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centroids[c] = gaussian(random, dimension, 1f, null);
+        }
+
+        BruteForceVectorStore exact = new BruteForceVectorStore(dimension);
+        HnswVectorStore hnsw = new HnswVectorStore(dimension, 16, 200, 64);
+
+        float[][] data = new float[vectors][];
+        for (int i = 0; i < vectors; i++) {
+            data[i] = gaussian(random, dimension, 0.4f, centroids[random.nextInt(CLUSTERS)]);
+            exact.add(i, data[i]);
+        }
+
+        long buildStart = System.nanoTime();
+        Arrays.stream(indices(vectors)).parallel().forEach(i -> hnsw.add(i, data[i]));
+        System.out.printf("Construção HNSW: %d vetores x %d dims em %.1f s%n",
+            vectors, dimension, (System.nanoTime() - buildStart) / 1e9);
+
+        float[][] queryVectors = new float[queries][];
+        List<Set<Long>> groundTruth = new java.util.ArrayList<>(queries);
+        long exactNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            queryVectors[q] = gaussian(random, dimension, 0.4f, centroids[random.nextInt(CLUSTERS)]);
+            long start = System.nanoTime();
+            List<VectorMatch> matches = exact.search(queryVectors[q], TOP_K);
+            exactNanos += System.nanoTime() - start;
+            groundTruth.add(ids(matches));
+        }
+        System.out.printf("Busca exata: %.3f ms/consulta%n", exactNanos / 1e6 / queries);
+
+        System.out.println("efSearch | recall@" + TOP_K + " | média (ms) | p99 (ms)");
+        for (int efSearch : EF_SEARCH_VALUES) {
+            hnsw.setEfSearch(efSearch);
+            long[] latencies = new long[queries];
+            double recall = 0;
+            for (int q = 0; q < queries; q++) {
+                long start = System.nanoTime();
+                List<VectorMatch> matches = hnsw.search(queryVectors[q], TOP_K);
+                latencies[q] = System.nanoTime() - start;
+                Set<Long> found = ids(matches);
+                found.retainAll(groundTruth.get(q));
+                recall += (double) found.size() / TOP_K;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%8d | %9.4f | %10.3f | %8.3f%n", efSearch, recall / queries,
+                Arrays.stream(latencies).average().orElse(0) / 1e6,
+                percentile(latencies, 99) / 1e6);
+        }
+
+        Path snapshot = Files.createTempFile("hnsw-benchmark", ".bin");
+        try {
+            long saveStart = System.nanoTime();
+            hnsw.save(snapshot);
+            long loadStart = System.nanoTime();
+            HnswVectorStore reloaded = HnswVectorStore.load(snapshot, dimension, 16, 200, 64);
+            System.out.printf("Snapshot: %d MB, gravação %.2f s, carga %.2f s, %d vetores%n",
+                Files.size(snapshot) / (1024 * 1024), (loadStart - saveStart) / 1e9,
+                (System.nanoTime() - loadStart) / 1e9, reloaded.size());
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static int[] indices(int size) {
+        int[] indices = new int[size];
+        Arrays.setAll(indices, i -> i);
+        return indices;
+    }
+}
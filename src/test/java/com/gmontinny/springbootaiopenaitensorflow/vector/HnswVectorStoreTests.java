@@ -0,0 +1,209 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HnswVectorStoreTests {
+    
+    private static final int DIMENSION = 32;
+    private static final int VECTORS = 3000;
+    private static final int QUERIES = 100;
+    private static final int TOP_K = 10;
+    
+    @TempDir
+    Path tempDir;
+    
+    // Vetores agrupados em torno de centróides, como embeddings de textos parecidos
+    private static float[][] clustered(Random random, int count, float[][] centroids) {
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            float[] center = centroids[random.nextInt(centroids.length)];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = center[d] + (float) random.nextGaussian() * 0.4f;
+            }
+        }
+        return vectors;
+    }
+    
+    private static float[][] centroids(Random random) {
+        float[][] centroids = new float[16][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < DIMENSION; d++) {
+                centroid[d] = (float) random.nextGaussian();
+            }
+        }
+        return centroids;
+    }
+    
+    private static double recall(VectorStore approximate, BruteForceVectorStore exact, float[][] queries) {
+        double recall = 0;
+        for (float[] query : queries) {
+            Set<Long> expected = ids(exact.search(query, TOP_K));
+            Set<Long> found = ids(approximate.search(query, TOP_K));
+            found.retainAll(expected);
+            recall += (double) found.size() / TOP_K;
+        }
+        return recall / queries.length;
+    }
+    
+    private static Set<Long> ids(List<VectorMatch> matches) {
+        Set<Long> ids = new HashSet<>();
+        matches.forEach(match -> ids.add(match.id()));
+        return ids;
+    }
+    
+    @Test
+    void recallAgainstBruteForceWithSequentialAndConcurrentBuilds() {
+        Random random = new Random(42);
+        float[][] centroids = centroids(random);
+        float[][] data = clustered(random, VECTORS, centroids);
+        float[][] queries = clustered(random, QUERIES, centroids);
+        
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        HnswVectorStore sequential = new HnswVectorStore(DIMENSION, 16, 200, 64);
+        HnswVectorStore concurrent = new HnswVectorStore(DIMENSION, 16, 200, 64);
+        for (int i = 0; i < VECTORS; i++) {
+            exact.add(i, data[i]);
+            sequential.add(i, data[i]);
+        }
+        IntStream.range(0, VECTORS).parallel().forEach(i -> concurrent.add(i, data[i]));
+        
+        assertThat(sequential.size()).isEqualTo(VECTORS);
+        assertThat(concurrent.size()).isEqualTo(VECTORS);
+        assertThat(recall(sequential, exact, queries)).isGreaterThanOrEqualTo(0.95);
+        assertThat(recall(concurrent, exact, queries)).isGreaterThanOrEqualTo(0.95);
+        
+        // Resultados em ordem decrescente e com a similaridade de cosseno exata de cada vetor
+        for (VectorMatch match : sequential.search(queries[0], TOP_K)) {
+            float expected = exact.search(queries[0], VECTORS).stream()
+                .filter(candidate -> candidate.id() == match.id()).findFirst().orElseThrow().score();
+            assertThat(match.score()).isCloseTo(expected, within(1e-5f));
+        }
+        assertThat(sequential.search(queries[0], TOP_K).stream().map(VectorMatch::score).toList())
+            .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+    
+    @Test
+    void higherEfSearchDoesNotLowerRecall() {
+        Random random = new Random(7);
+        float[][] centroids = centroids(random);
+        float[][] data = clustered(random, VECTORS, centroids);
+        float[][] queries = clustered(random, QUERIES, centroids);
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        HnswVectorStore hnsw = new HnswVectorStore(DIMENSION, 8, 100, 10);
+        for (int i = 0; i < VECTORS; i++) {
+            exact.add(i, data[i]);
+            hnsw.add(i, data[i]);
+        }
+        
+        double low = recall(hnsw, exact, queries);
+        hnsw.setEfSearch(200);
+        double high = recall(hnsw, exact, queries);
+        
+        assertThat(high).isGreaterThanOrEqualTo(low);
+        assertThat(high).isGreaterThanOrEqualTo(0.98);
+    }
+    
+    @Test
+    void snapshotRoundTripAnswersQueriesExactlyLikeTheOriginal() throws IOException {
+        Random random = new Random(3);
+        float[][] centroids = centroids(random);
+        float[][] data = clustered(random, VECTORS, centroids);
+        float[][] queries = clustered(random, QUERIES, centroids);
+        HnswVectorStore original = new HnswVectorStore(DIMENSION, 16, 100, 64);
+        for (int i = 0; i < VECTORS; i++) {
+            original.add(1_000_000L + i, data[i]);
+        }
+        Path snapshot = tempDir.resolve("indices/hnsw.bin");
+        
+        original.save(snapshot);
+        HnswVectorStore loaded = HnswVectorStore.load(snapshot, DIMENSION, 16, 100, 64);
+        
+        assertThat(loaded.size()).isEqualTo(VECTORS);
+        assertThat(Files.exists(tempDir.resolve("indices/hnsw.bin.tmp"))).isFalse();
+        for (float[] query : queries) {
+            assertThat(loaded.search(query, TOP_K)).isEqualTo(original.search(query, TOP_K));
+        }
+        
+        // O índice carregado continua aceitando inserções e ignora IDs já gravados
+        float[] extra = clustered(random, 1, centroids)[0];
+        loaded.add(42L, extra);
+        loaded.add(1_000_000L, extra);
+        assertThat(loaded.size()).isEqualTo(VECTORS + 1);
+        assertThat(loaded.search(extra, 1).get(0).id()).isEqualTo(42L);
+        
+        // Um novo snapshot substitui o anterior
+        loaded.save(snapshot);
+        assertThat(HnswVectorStore.load(snapshot, DIMENSION, 16, 100, 64).size()).isEqualTo(VECTORS + 1);
+    }
+    
+    @Test
+    void emptyIndexRoundTripsAndSearchesToNothing() throws IOException {
+        HnswVectorStore empty = new HnswVectorStore(DIMENSION, 16, 100, 64);
+        Path snapshot = tempDir.resolve("empty.bin");
+        
+        empty.save(snapshot);
+        HnswVectorStore loaded = HnswVectorStore.load(snapshot, DIMENSION, 16, 100, 64);
+        
+        assertThat(loaded.size()).isZero();
+        assertThat(loaded.search(new float[DIMENSION], TOP_K)).isEmpty();
+        loaded.add(1L, clustered(new Random(1), 1, centroids(new Random(1)))[0]);
+        assertThat(loaded.search(new float[DIMENSION], TOP_K)).hasSize(1);
+    }
+    
+    @Test
+    void loadRejectsIncompatibleOrTruncatedSnapshots() throws IOException {
+        HnswVectorStore store = new HnswVectorStore(DIMENSION, 16, 100, 64);
+        Random random = new Random(5);
+        for (float[] vector : clustered(random, 100, centroids(random))) {
+            store.add(store.size(), vector);
+        }
+        Path snapshot = tempDir.resolve("hnsw.bin");
+        store.save(snapshot);
+        
+        assertThatThrownBy(() -> HnswVectorStore.load(snapshot, DIMENSION * 2, 16, 100, 64))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("incompatível");
+        assertThatThrownBy(() -> HnswVectorStore.load(snapshot, DIMENSION, 8, 100, 64))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("incompatível");
+        
+        Path truncated = tempDir.resolve("truncated.bin");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThatThrownBy(() -> HnswVectorStore.load(truncated, DIMENSION, 16, 100, 64))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("truncado");
+        
+        Path garbage = tempDir.resolve("garbage.bin");
+        Files.write(garbage, new byte[64]);
+        assertThatThrownBy(() -> HnswVectorStore.load(garbage, DIMENSION, 16, 100, 64))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("inválido");
+    }
+    
+    @Test
+    void rejectsVectorsOfTheWrongDimension() {
+        HnswVectorStore store = new HnswVectorStore(DIMENSION, 16, 100, 64);
+        
+        assertThatThrownBy(() -> store.add(1L, new float[DIMENSION + 1]))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.search(new float[DIMENSION - 1], TOP_K))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
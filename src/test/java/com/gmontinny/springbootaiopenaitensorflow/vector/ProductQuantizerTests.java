@@ -0,0 +1,97 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.gaussian;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ProductQuantizerTests {
+    
+    private static final int DIMENSION = 32;
+    
+    private static float[][] samples(Random random, int count) {
+        float[][] samples = new float[count][];
+        for (int i = 0; i < count; i++) {
+            samples[i] = VectorMath.normalize(gaussian(random, DIMENSION, 1f, null));
+        }
+        return samples;
+    }
+    
+    @Test
+    void scoreOfAnEncodedTrainingSampleIsItsExactDotProduct() {
+        // Com até 256 amostras cada uma vira o próprio centróide: a codificação é sem perda
+        Random random = new Random(1);
+        float[][] samples = samples(random, 100);
+        ProductQuantizer quantizer = ProductQuantizer.train(samples, 8, 5, 42);
+        float[] query = VectorMath.normalize(gaussian(random, DIMENSION, 1f, null));
+        float[] table = quantizer.scoreTable(query);
+        
+        byte[] codes = new byte[samples.length * 8];
+        for (int i = 0; i < samples.length; i++) {
+            quantizer.encode(samples[i], codes, i * 8);
+        }
+        
+        for (int i = 0; i < samples.length; i++) {
+            assertThat(quantizer.score(table, codes, i * 8)).isCloseTo(VectorMath.dot(query, samples[i]), within(1e-5f));
+        }
+    }
+    
+    @Test
+    void approximateScoresTrackExactDotProducts() {
+        Random random = new Random(2);
+        float[][] samples = samples(random, 2000);
+        ProductQuantizer quantizer = ProductQuantizer.train(samples, 16, 10, 42);
+        float[][] vectors = samples(random, 500);
+        byte[] codes = new byte[vectors.length * 16];
+        for (int i = 0; i < vectors.length; i++) {
+            quantizer.encode(vectors[i], codes, i * 16);
+        }
+        
+        double error = 0;
+        double exactMagnitude = 0;
+        for (int q = 0; q < 20; q++) {
+            float[] query = samples(random, 1)[0];
+            float[] table = quantizer.scoreTable(query);
+            for (int i = 0; i < vectors.length; i++) {
+                float exact = VectorMath.dot(query, vectors[i]);
+                error += Math.abs(quantizer.score(table, codes, i * 16) - exact);
+                exactMagnitude += Math.abs(exact);
+            }
+        }
+        
+        assertThat(error / exactMagnitude).isLessThan(0.5);
+        assertThat(quantizer.subspaces()).isEqualTo(16);
+        assertThat(quantizer.dimension()).isEqualTo(DIMENSION);
+        // 16 subespaços x 256 centróides x 2 componentes
+        assertThat(quantizer.codebookBytes()).isEqualTo(16L * 256 * 2 * Float.BYTES);
+    }
+    
+    @Test
+    void trainingIsDeterministicForTheSameSeed() {
+        float[][] samples = samples(new Random(3), 600);
+        ProductQuantizer first = ProductQuantizer.train(samples, 8, 5, 7);
+        ProductQuantizer second = ProductQuantizer.train(samples, 8, 5, 7);
+        float[] vector = samples(new Random(4), 1)[0];
+        
+        byte[] firstCode = new byte[8];
+        byte[] secondCode = new byte[8];
+        first.encode(vector, firstCode, 0);
+        second.encode(vector, secondCode, 0);
+        
+        assertThat(firstCode).isEqualTo(secondCode);
+        assertThat(first.scoreTable(vector)).isEqualTo(second.scoreTable(vector));
+    }
+    
+    @Test
+    void rejectsInvalidTrainingInput() {
+        assertThatThrownBy(() -> ProductQuantizer.train(new float[0][], 8, 5, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductQuantizer.train(samples(new Random(5), 10), 5, 5, 1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("divisível");
+    }
+}
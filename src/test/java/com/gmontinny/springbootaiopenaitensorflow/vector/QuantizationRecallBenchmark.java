@@ -0,0 +1,108 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.gaussian;
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.ids;
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.percentile;
+
+/**
+ * Benchmark de recall x latência x memória do {@link QuantizedVectorStore} (int8 e PQ, com
+ * diferentes números de candidatos reordenados) contra a busca exata do
+ * {@link BruteForceVectorStore}. Executar com:
+ * <pre>
+ * java -cp target/classes:target/test-classes \
+ *   com.gmontinny.springbootaiopenaitensorflow.vector.QuantizationRecallBenchmark [vetores] [dimensão] [consultas]
+ * </pre>
+ */
+public class QuantizationRecallBenchmark {
+
+    private static final int TOP_K = 10;
+    private static final int CLUSTERS = 64;
+    private static final int TRAINING_SIZE = 5_000;
+    private static final int[] RERANK_VALUES = {TOP_K, 50, 100, 200};
+
+    public static void main(String[] args) throws Exception {
+        int vectors = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 384;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Random random = new Random(42);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centroids[c] = gaussian(random, dimension, 1f, null);
+        }
+        float[][] data = new float[vectors][];
+        long[] ids = new long[vectors];
+        for (int i = 0; i < vectors; i++) {
+            data[i] = gaussian(random, dimension, 0.4f, centroids[random.nextInt(CLUSTERS)]);
+            ids[i] = i;
+        }
+
+        BruteForceVectorStore exact = new BruteForceVectorStore(dimension);
+        exact.addAll(ids, data);
+        float[][] queryVectors = new float[queries][];
+        List<Set<Long>> groundTruth = new ArrayList<>(queries);
+        long exactNanos = 0;
+        for (int q = 0; q < queries; q++) {
+            queryVectors[q] = gaussian(random, dimension, 0.4f, centroids[random.nextInt(CLUSTERS)]);
+            long start = System.nanoTime();
+            groundTruth.add(ids(exact.search(queryVectors[q], TOP_K)));
+            exactNanos += System.nanoTime() - start;
+        }
+        long floatBytes = (long) dimension * Float.BYTES + Long.BYTES;
+        System.out.printf("Busca exata (float32, %d bytes/vetor): %.3f ms/consulta%n",
+            floatBytes, exactNanos / 1e6 / queries);
+
+        System.out.println("modo            | reordenados | recall@" + TOP_K
+            + " | média (ms) | p99 (ms) | bytes/vetor | redução");
+        run("int8", QuantizedVectorStore.Mode.SCALAR, dimension, dimension, ids, data, queryVectors, groundTruth, floatBytes);
+        for (int subspaces : new int[]{dimension / 4, dimension / 8}) {
+            run("pq m=" + subspaces, QuantizedVectorStore.Mode.PRODUCT, dimension, subspaces, ids, data,
+                queryVectors, groundTruth, floatBytes);
+        }
+    }
+
+    private static void run(String name, QuantizedVectorStore.Mode mode, int dimension, int subspaces, long[] ids,
+                            float[][] data, float[][] queryVectors, List<Set<Long>> groundTruth,
+                            long floatBytes) throws Exception {
+        Path file = Files.createTempFile("quantized-benchmark", ".f32");
+        try {
+            for (int rerank : RERANK_VALUES) {
+                try (QuantizedVectorStore store = new QuantizedVectorStore(dimension, mode, subspaces,
+                        TRAINING_SIZE, rerank, file)) {
+                    long buildStart = System.nanoTime();
+                    store.addAll(ids, data);
+                    double buildSeconds = (System.nanoTime() - buildStart) / 1e9;
+
+                    int queries = queryVectors.length;
+                    long[] latencies = new long[queries];
+                    double recall = 0;
+                    for (int q = 0; q < queries; q++) {
+                        long start = System.nanoTime();
+                        List<VectorMatch> matches = store.search(queryVectors[q], TOP_K);
+                        latencies[q] = System.nanoTime() - start;
+                        Set<Long> found = ids(matches);
+                        found.retainAll(groundTruth.get(q));
+                        recall += (double) found.size() / TOP_K;
+                    }
+                    Arrays.sort(latencies);
+                    double bytesPerVector = (double) store.memoryBytes() / store.size();
+                    System.out.printf("%-15s | %11d | %9.4f | %10.3f | %8.3f | %11.1f | %6.1fx (carga %.1f s)%n",
+                        name, rerank, recall / queries,
+                        Arrays.stream(latencies).average().orElse(0) / 1e6,
+                        percentile(latencies, 99) / 1e6,
+                        bytesPerVector, floatBytes / bytesPerVector, buildSeconds);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
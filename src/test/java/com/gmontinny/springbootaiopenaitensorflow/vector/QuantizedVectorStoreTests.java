@@ -0,0 +1,215 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.gaussian;
+import static com.gmontinny.springbootaiopenaitensorflow.vector.RecallBenchmarks.ids;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantizedVectorStoreTests {
+    
+    private static final int DIMENSION = 32;
+    private static final int TOP_K = 10;
+    
+    @TempDir
+    Path tempDir;
+    
+    private static float[][] clustered(Random random, int count) {
+        float[][] centroids = new float[16][];
+        for (int c = 0; c < centroids.length; c++) {
+            centroids[c] = gaussian(new Random(100 + c), DIMENSION, 1f, null);
+        }
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = gaussian(random, DIMENSION, 0.4f, centroids[random.nextInt(centroids.length)]);
+        }
+        return vectors;
+    }
+    
+    private static long[] range(int from, int count) {
+        return IntStream.range(from, from + count).asLongStream().toArray();
+    }
+    
+    private static double recall(VectorStore store, BruteForceVectorStore exact, float[][] queries) {
+        double recall = 0;
+        for (float[] query : queries) {
+            Set<Long> found = ids(store.search(query, TOP_K));
+            found.retainAll(ids(exact.search(query, TOP_K)));
+            recall += (double) found.size() / TOP_K;
+        }
+        return recall / queries.length;
+    }
+    
+    @Test
+    void int8CodesReconstructEachComponentWithinHalfAStep() {
+        float[] vector = VectorMath.normalize(gaussian(new Random(1), DIMENSION, 1f, null));
+        byte[] codes = new byte[DIMENSION + 3];
+        
+        float scale = QuantizedVectorStore.encodeInt8(vector, codes, 3);
+        
+        float max = 0f;
+        for (float value : vector) {
+            max = Math.max(max, Math.abs(value));
+        }
+        assertThat(scale).isCloseTo(max / 127f, within(1e-7f));
+        int extremes = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            assertThat(Math.abs(vector[i] - scale * codes[3 + i])).isLessThanOrEqualTo(scale / 2 + 1e-6f);
+            if (Math.abs(codes[3 + i]) == 127) {
+                extremes++;
+            }
+        }
+        // O maior componente em módulo ocupa toda a faixa do int8; os bytes antes do offset ficam intactos
+        assertThat(extremes).isGreaterThanOrEqualTo(1);
+        assertThat(codes[0]).isEqualTo((byte) 0);
+        assertThat(QuantizedVectorStore.encodeInt8(new float[DIMENSION], codes, 0)).isZero();
+    }
+    
+    @Test
+    void scalarModeReranksWithExactScores() throws IOException {
+        Random random = new Random(2);
+        float[][] data = clustered(random, 3000);
+        float[][] queries = clustered(random, 50);
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        exact.addAll(range(0, data.length), data);
+        
+        try (QuantizedVectorStore store = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.SCALAR,
+                0, 0, 50, tempDir.resolve("scalar/vectors.f32"))) {
+            store.addAll(range(0, data.length), data);
+            
+            assertThat(store.isTrained()).isTrue();
+            assertThat(store.size()).isEqualTo(data.length);
+            assertThat(recall(store, exact, queries)).isGreaterThanOrEqualTo(0.99);
+            List<VectorMatch> matches = store.search(queries[0], TOP_K);
+            List<VectorMatch> expected = exact.search(queries[0], TOP_K);
+            for (int i = 0; i < matches.size(); i++) {
+                assertThat(matches.get(i).score()).isCloseTo(expected.get(i).score(), within(1e-5f));
+            }
+            // Códigos int8 + escala + ID por vetor; o arquivo mapeado guarda os float32
+            assertThat(store.memoryBytes()).isEqualTo(data.length * (DIMENSION + Float.BYTES + Long.BYTES));
+            assertThat(store.mappedBytes()).isGreaterThanOrEqualTo((long) data.length * DIMENSION * Float.BYTES);
+            assertThat(Files.exists(tempDir.resolve("scalar/vectors.f32"))).isTrue();
+        }
+    }
+    
+    @Test
+    void filterIsAppliedBeforeChoosingCandidates() throws IOException {
+        Random random = new Random(3);
+        float[][] data = clustered(random, 2000);
+        float[] query = clustered(random, 1)[0];
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        exact.addAll(range(0, data.length), data);
+        
+        try (QuantizedVectorStore store = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.SCALAR,
+                0, 0, 50, tempDir.resolve("filtered.f32"))) {
+            store.addAll(range(0, data.length), data);
+            
+            List<VectorMatch> matches = store.search(query, TOP_K, id -> id % 5 == 0);
+            
+            assertThat(matches).hasSize(TOP_K);
+            assertThat(matches).allMatch(match -> match.id() % 5 == 0);
+            assertThat(ids(matches)).isEqualTo(ids(exact.search(query, TOP_K, id -> id % 5 == 0)));
+            assertThat(store.search(query, TOP_K, id -> false)).isEmpty();
+        }
+    }
+    
+    @Test
+    void productModeSearchesExactlyUntilTrainedThenUsesCodes() throws IOException {
+        Random random = new Random(4);
+        float[][] data = clustered(random, 3000);
+        float[][] queries = clustered(random, 50);
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        exact.addAll(range(0, data.length), data);
+        
+        try (QuantizedVectorStore store = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.PRODUCT,
+                8, 1000, 100, tempDir.resolve("pq.f32"))) {
+            BruteForceVectorStore partial = new BruteForceVectorStore(DIMENSION);
+            partial.addAll(range(0, 999), Arrays.copyOf(data, 999));
+            store.addAll(range(0, 999), Arrays.copyOf(data, 999));
+            
+            // Antes do treino: busca exata sobre o arquivo, sem códigos
+            assertThat(store.isTrained()).isFalse();
+            assertThat(store.memoryBytes()).isEqualTo(999L * (8 + Long.BYTES));
+            for (float[] query : queries) {
+                assertThat(ids(store.search(query, TOP_K))).isEqualTo(ids(partial.search(query, TOP_K)));
+            }
+            
+            // O lote que atinge training-size treina os codebooks e codifica também os vetores anteriores
+            store.addAll(range(999, data.length - 999), Arrays.copyOfRange(data, 999, data.length));
+            
+            assertThat(store.isTrained()).isTrue();
+            assertThat(store.memoryBytes()).isGreaterThan(3000L * (8 + Long.BYTES));
+            assertThat(recall(store, exact, queries)).isGreaterThanOrEqualTo(0.9);
+        }
+    }
+    
+    @Test
+    void vectorsAddedWhileTrainingAreEncodedToo() throws Exception {
+        Random random = new Random(5);
+        float[][] data = clustered(random, 6000);
+        float[][] queries = clustered(random, 50);
+        BruteForceVectorStore exact = new BruteForceVectorStore(DIMENSION);
+        exact.addAll(range(0, data.length), data);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (QuantizedVectorStore store = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.PRODUCT,
+                8, 2000, 300, tempDir.resolve("concurrent.f32"))) {
+            // Uma thread cruza o training-size e treina; a outra continua inserindo durante o treino
+            Future<?> first = executor.submit(() -> {
+                for (int i = 0; i < 3000; i += 100) {
+                    store.addAll(range(i, 100), Arrays.copyOfRange(data, i, i + 100));
+                }
+            });
+            Future<?> second = executor.submit(() -> {
+                for (int i = 3000; i < data.length; i += 10) {
+                    store.addAll(range(i, 10), Arrays.copyOfRange(data, i, i + 10));
+                }
+            });
+            first.get();
+            second.get();
+            
+            assertThat(store.size()).isEqualTo(data.length);
+            assertThat(store.isTrained()).isTrue();
+            // Mesmo recall de uma construção sequencial (as amostras de treino mudam com a ordem de chegada)
+            try (QuantizedVectorStore sequential = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.PRODUCT,
+                    8, 2000, 300, tempDir.resolve("sequential.f32"))) {
+                sequential.addAll(range(0, data.length), data);
+                assertThat(recall(store, exact, queries)).isGreaterThanOrEqualTo(recall(sequential, exact, queries) - 0.05);
+            }
+            // Cada vetor, usado como consulta, encontra a si mesmo: nenhum ficou sem código
+            for (int i = 0; i < data.length; i += 7) {
+                assertThat(store.search(data[i], 1).get(0).id()).isEqualTo((long) i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void rejectsInvalidConfigurationAndDimensions() throws IOException {
+        assertThatThrownBy(() -> new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.PRODUCT,
+                5, 100, 10, tempDir.resolve("invalid.f32")))
+            .isInstanceOf(IllegalArgumentException.class);
+        try (QuantizedVectorStore store = new QuantizedVectorStore(DIMENSION, QuantizedVectorStore.Mode.SCALAR,
+                0, 0, 10, tempDir.resolve("dims.f32"))) {
+            assertThatThrownBy(() -> store.add(1L, new float[DIMENSION - 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThat(store.search(new float[DIMENSION], TOP_K)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/** Dados sintéticos e estatísticas comuns aos benchmarks de recall dos índices vetoriais. */
+final class RecallBenchmarks {
+
+    private RecallBenchmarks() {
+    }
+
+    /** Vetor gaussiano em torno de {@code center} (ou da origem, se {@code null}). */
+    static float[] gaussian(Random random, int dimension, float sigma, float[] center) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (center == null ? 0f : center[i]) + (float) random.nextGaussian() * sigma;
+        }
+        return vector;
+    }
+
+    static Set<Long> ids(List<VectorMatch> matches) {
+        Set<Long> ids = new HashSet<>();
+        for (VectorMatch match : matches) {
+            ids.add(match.id());
+        }
+        return ids;
+    }
+
+    /** Percentil por posto mais próximo sobre latências já ordenadas; válido para qualquer tamanho não vazio. */
+    static long percentile(long[] sortedLatencies, double percentile) {
+        int rank = (int) Math.ceil(sortedLatencies.length * percentile / 100.0);
+        return sortedLatencies[Math.min(sortedLatencies.length - 1, Math.max(0, rank - 1))];
+    }
+}
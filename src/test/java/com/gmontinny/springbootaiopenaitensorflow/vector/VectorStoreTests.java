@@ -0,0 +1,98 @@
+package com.gmontinny.springbootaiopenaitensorflow.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VectorStoreTests {
+    
+    private static final int DIMENSION = 8;
+    
+    /** Store que não sabe a própria contagem (como o Milvus) e usa a busca filtrada padrão. */
+    private static final class UnknownSizeStore implements VectorStore {
+        
+        private final BruteForceVectorStore delegate = new BruteForceVectorStore(DIMENSION);
+        private final List<Integer> requestedTopK = new ArrayList<>();
+        
+        @Override
+        public void add(long id, float[] vector) {
+            delegate.add(id, vector);
+        }
+        
+        @Override
+        public List<VectorMatch> search(float[] query, int topK) {
+            requestedTopK.add(topK);
+            return delegate.search(query, topK);
+        }
+        
+        @Override
+        public int size() {
+            return -1;
+        }
+    }
+    
+    private static float[] vector(long id) {
+        float[] vector = new float[DIMENSION];
+        vector[0] = 1;
+        vector[1 + (int) (id % (DIMENSION - 1))] = id / 100f;
+        return vector;
+    }
+    
+    private static List<Long> ids(List<VectorMatch> matches) {
+        return matches.stream().map(VectorMatch::id).toList();
+    }
+    
+    @Test
+    void filteredSearchWithUnknownSizeWidensUntilEnoughMatches() {
+        UnknownSizeStore store = new UnknownSizeStore();
+        for (long id = 1; id <= 100; id++) {
+            store.add(id, vector(id));
+        }
+        LongPredicate multiplesOfTen = id -> id % 10 == 0;
+        
+        List<VectorMatch> matches = store.search(vector(1), 5, multiplesOfTen);
+        
+        assertThat(matches).hasSize(5);
+        assertThat(ids(matches)).allMatch(id -> id % 10 == 0);
+        assertThat(ids(matches)).isEqualTo(ids(store.delegate.search(vector(1), 5, multiplesOfTen)));
+        assertThat(store.requestedTopK).allMatch(topK -> topK > 0);
+    }
+    
+    @Test
+    void filteredSearchWithUnknownSizeStopsWhenTheIndexIsExhausted() {
+        UnknownSizeStore store = new UnknownSizeStore();
+        for (long id = 1; id <= 30; id++) {
+            store.add(id, vector(id));
+        }
+        
+        List<VectorMatch> matches = store.search(vector(1), 5, id -> id == 7 || id == 21);
+        
+        assertThat(ids(matches)).containsExactlyInAnyOrder(7L, 21L);
+        // 20 → 40: a segunda busca devolve só 30 vetores e encerra a ampliação
+        assertThat(store.requestedTopK).containsExactly(20, 40);
+    }
+    
+    @Test
+    void overFetchNeverAsksForMoreThanTheCap() {
+        UnknownSizeStore store = new UnknownSizeStore();
+        for (long id = 1; id <= 200; id++) {
+            store.add(id, vector(id));
+        }
+        
+        List<VectorMatch> matches = VectorStore.overFetch(store, vector(1), 3, id -> false, 50);
+        
+        assertThat(matches).isEmpty();
+        assertThat(store.requestedTopK).containsExactly(12, 24, 48, 50);
+    }
+    
+    @Test
+    void filteredSearchOnEmptyStoreReturnsNothing() {
+        VectorStore store = new UnknownSizeStore();
+        
+        assertThat(store.search(vector(1), 5, id -> true)).isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+#!/usr/bin/env python3
+"""
+Gera o SavedModel mínimo de sentimento usado nos testes (models/sentiment/saved_model.pb).
+
+Modelo: regressão logística sobre um bag-of-words com hashing de tokens
+    score = sigmoid(features @ weights + bias)
+onde features[i] conta os tokens cujo String.hashCode() (Java) cai no índice i.
+O grafo usa apenas constantes (sem diretório variables/), então roda em CPU sem
+TensorFlow Python: o protobuf é escrito diretamente no formato wire.
+
+Uso: python3 generate_sentiment_model.py [diretório de saída]
+"""
+import math
+import os
+import struct
+import sys
+
+FEATURES = 1024
+WEIGHT = 2.0
+POSITIVE = ["bom", "boa", "ótimo", "ótima", "excelente", "feliz", "amor", "gosto", "gostei", "adorei",
+            "maravilhoso", "satisfeito", "perfeito", "recomendo", "obrigado", "rápido"]
+NEGATIVE = ["ruim", "péssimo", "péssima", "ódio", "triste", "problema", "erro", "terrível", "defeito",
+            "atrasado", "quebrado", "danificado", "horrível", "insatisfeito", "reclamação", "lento"]
+
+DT_FLOAT = 1
+
+
+def java_hash(text):
+    h = 0
+    data = text.encode("utf-16-be")
+    for i in range(0, len(data), 2):
+        h = (31 * h + ((data[i] << 8) | data[i + 1])) & 0xFFFFFFFF
+    return h - (1 << 32) if h >= (1 << 31) else h
+
+
+def feature_index(token):
+    return java_hash(token) % FEATURES  # floorMod, como em Math.floorMod
+
+
+def varint(value):
+    if value < 0:
+        value += 1 << 64
+    out = bytearray()
+    while True:
+        bits = value & 0x7F
+        value >>= 7
+        if value:
+            out.append(bits | 0x80)
+        else:
+            out.append(bits)
+            return bytes(out)
+
+
+def field(number, wire_type, payload):
+    return varint((number << 3) | wire_type) + payload
+
+
+def f_varint(number, value):
+    return field(number, 0, varint(value))
+
+
+def f_bytes(number, payload):
+    if isinstance(payload, str):
+        payload = payload.encode("utf-8")
+    return field(number, 2, varint(len(payload)) + payload)
+
+
+def shape(*dims):
+    return b"".join(f_bytes(2, f_varint(1, d)) for d in dims)
+
+
+def tensor(values, *dims):
+    content = struct.pack("<%df" % len(values), *values)
+    return f_varint(1, DT_FLOAT) + f_bytes(2, shape(*dims)) + f_bytes(4, content)
+
+
+def attr(name, value):
+    return f_bytes(5, f_bytes(1, name) + f_bytes(2, value))
+
+
+def attr_type(name):
+    return attr(name, f_varint(6, DT_FLOAT))
+
+
+def node(name, op, inputs=(), attrs=b""):
+    return f_bytes(1, f_bytes(1, name) + f_bytes(2, op) + b"".join(f_bytes(3, i) for i in inputs) + attrs)
+
+
+def tensor_info(name, *dims):
+    return f_bytes(1, name) + f_varint(2, DT_FLOAT) + f_bytes(3, shape(*dims))
+
+
+def main():
+    output = sys.argv[1] if len(sys.argv) > 1 else os.path.join(os.path.dirname(__file__), "sentiment")
+    weights = [0.0] * FEATURES
+    for word in POSITIVE:
+        weights[feature_index(word)] += WEIGHT
+    for word in NEGATIVE:
+        weights[feature_index(word)] -= WEIGHT
+
+    graph = b"".join([
+        node("features", "Placeholder", attrs=attr_type("dtype") + attr("shape", f_bytes(7, shape(-1, FEATURES)))),
+        node("weights", "Const", attrs=attr_type("dtype") + attr("value", f_bytes(8, tensor(weights, FEATURES, 1)))),
+        node("bias", "Const", attrs=attr_type("dtype") + attr("value", f_bytes(8, tensor([0.0], 1)))),
+        node("logits", "MatMul", ["features", "weights"],
+             attr_type("T") + attr("transpose_a", f_varint(5, 0)) + attr("transpose_b", f_varint(5, 0))),
+        node("logits_bias", "AddV2", ["logits", "bias"], attr_type("T")),
+        node("score", "Sigmoid", ["logits_bias"], attr_type("T")),
+    ]) + f_bytes(4, f_varint(1, 1087))
+
+    signature = (f_bytes(1, f_bytes(1, "features") + f_bytes(2, tensor_info("features:0", -1, FEATURES)))
+                 + f_bytes(2, f_bytes(1, "score") + f_bytes(2, tensor_info("score:0", -1, 1)))
+                 + f_bytes(3, "tensorflow/serving/predict"))
+
+    meta_graph = (f_bytes(1, f_bytes(4, "serve"))
+                  + f_bytes(2, graph)
+                  + f_bytes(5, f_bytes(1, "serving_default") + f_bytes(2, signature)))
+    saved_model = f_varint(1, 1) + f_bytes(2, meta_graph)
+
+    os.makedirs(output, exist_ok=True)
+    with open(os.path.join(output, "saved_model.pb"), "wb") as out:
+        out.write(saved_model)
+    print("SavedModel gravado em %s (%d bytes)" % (output, len(saved_model)))
+
+
+if __name__ == "__main__":
+    main()